@@ -0,0 +1,156 @@
+package com.github.jreddondo.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import com.github.jreddondo.model.BuildMetrics;
+import com.github.jreddondo.model.BuildPhase;
+import com.github.jreddondo.model.BuildResult;
+import com.github.jreddondo.model.BuildStatus;
+import com.github.jreddondo.model.FailureCategory;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Synthetic inputs of the benchmarks. They are generated from fixed seeds, so every run measures the same data.
+ */
+final class BenchmarkFixtures {
+    private static final String[] MAVEN_STEPS = {
+            "clean:3.2.0:clean (default-clean)",
+            "resources:3.3.1:resources (default-resources)",
+            "compiler:3.11.0:compile (default-compile)",
+            "resources:3.3.1:testResources (default-testResources)",
+            "compiler:3.11.0:testCompile (default-testCompile)",
+            "surefire:3.2.2:test (default-test)",
+            "jar:3.3.0:jar (default-jar)",
+            "install:3.1.1:install (default-install)"
+    };
+    private static final BuildStatus[] STATUSES = BuildStatus.values();
+
+    private BenchmarkFixtures() {
+    }
+
+    /**
+     * Keeps the INFO logs of the application out of the measurements.
+     */
+    static void quietLogging() {
+        LoggerContext loggerContext = (LoggerContext) LoggerFactory.getILoggerFactory();
+        loggerContext.getLogger("com.github.jreddondo").setLevel(Level.WARN);
+    }
+
+    /**
+     * Creates a directory tree of the given number of directories, with a fan-out of 10 per level.
+     * One leaf directory out of 20 is a Maven or Gradle project, and every project holds a small source tree
+     * that detection must not enter.
+     */
+    static Path directoryTree(int directories) throws IOException {
+        Path root = Files.createTempDirectory("multiple-builder-detection-");
+        Deque<Path> pending = new ArrayDeque<>();
+        pending.add(root);
+        List<Path> leaves = new ArrayList<>();
+        int created = 0;
+        while (created < directories && !pending.isEmpty()) {
+            Path parent = pending.poll();
+            for (int child = 0; child < 10 && created < directories; child++) {
+                Path directory = Files.createDirectory(parent.resolve("dir" + child));
+                pending.add(directory);
+                leaves.add(directory);
+                created++;
+            }
+        }
+        for (int i = 0; i < leaves.size(); i += 20) {
+            Path project = leaves.get(i);
+            if (i % 40 == 0) {
+                Files.writeString(project.resolve("pom.xml"), "<project><groupId>bench</groupId><artifactId>p" + i
+                        + "</artifactId><version>1</version></project>");
+            } else {
+                Files.writeString(project.resolve("build.gradle"), "group = 'bench'\n");
+            }
+            Files.createDirectories(project.resolve("src/main/java/bench"));
+        }
+        return root;
+    }
+
+    /**
+     * Returns Maven-like build output of about the given size: step headers followed by compiler and test lines.
+     */
+    static byte[] mavenOutput(int bytes) {
+        StringBuilder output = new StringBuilder(bytes + 256);
+        Random random = new Random(42);
+        int line = 0;
+        while (output.length() < bytes) {
+            if (line % 200 == 0) {
+                output.append("[INFO] --- ").append(MAVEN_STEPS[(line / 200) % MAVEN_STEPS.length])
+                        .append(" @ bench ---\n");
+            } else if (line % 7 == 0) {
+                output.append("[INFO] Tests run: ").append(random.nextInt(100))
+                        .append(", Failures: 0, Errors: 0, Skipped: 0, Time elapsed: 0.").append(random.nextInt(1000))
+                        .append(" s - in com.example.bench.SomeServiceTest\n");
+            } else {
+                output.append("[INFO] Compiling ").append(random.nextInt(500))
+                        .append(" source files with javac [debug release 21] to target/classes\n");
+            }
+            line++;
+        }
+        return output.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns build results of every status, with predictions and step timings like the ones of a real run.
+     */
+    static List<BuildResult> buildResults(int count) {
+        Random random = new Random(42);
+        List<BuildResult> results = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            BuildStatus status = STATUSES[random.nextInt(10) < 8 ? 0 : random.nextInt(STATUSES.length)];
+            long duration = 1000 + random.nextInt(120_000);
+            long start = i * 1_000_000L;
+            List<BuildPhase> phases = new ArrayList<>();
+            long phaseStart = start;
+            for (String step : MAVEN_STEPS) {
+                long phaseDuration = duration * 1_000_000L / MAVEN_STEPS.length;
+                phases.add(new BuildPhase(step.substring(0, step.indexOf(' ')), phaseStart, phaseDuration));
+                phaseStart += phaseDuration;
+            }
+            BuildMetrics metrics = new BuildMetrics(random.nextInt(1000) * 1_000_000L, 400_000_000L, start,
+                    start + duration * 1_000_000L, phases);
+            results.add(new BuildResult("project-" + i, "/work/projects/project-" + i, status,
+                    i % 3 == 0 ? "GRADLE" : "MAVEN", duration,
+                    status.isSuccessful() ? null : "Build failed with exit code: 1",
+                    "/work/logs/multiple_build_output/project-" + i + ".log",
+                    duration + random.nextInt(20_000) - 10_000, metrics,
+                    status.isSuccessful() ? null : FailureCategory.COMPILATION, 1));
+        }
+        return results;
+    }
+
+    static void delete(Path root) throws IOException {
+        if (root == null || !Files.exists(root)) {
+            return;
+        }
+        Files.walkFileTree(root, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                Files.delete(file);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
+                Files.delete(dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+}
@@ -0,0 +1,90 @@
+package com.github.jreddondo.benchmark;
+
+import com.github.jreddondo.model.BuildResult;
+import com.github.jreddondo.service.BuildOutputCapture;
+import com.github.jreddondo.service.BuildPhaseRecorder;
+import com.github.jreddondo.service.ProjectBuilder;
+import com.github.jreddondo.service.ProjectDetector;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Handling of the output of builds printing 1 to 64 MB: the capture of an in-memory stream to the output file with
+ * the step recorder, which isolates the copy loop, and a whole build of a project whose wrapper script only prints
+ * a file, which adds the process start and the pipe. The latter needs a Unix shell.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BuildOutputBenchmark {
+
+    @Param({"1", "16", "64"})
+    private int megabytes;
+
+    private byte[] output;
+    private Path workDirectory;
+    private Path outputFile;
+    private ProjectBuilder builder;
+    private ProjectDetector.ProjectInfo project;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        BenchmarkFixtures.quietLogging();
+        output = BenchmarkFixtures.mavenOutput(megabytes * 1024 * 1024);
+        workDirectory = Files.createTempDirectory("multiple-builder-output-");
+        outputFile = workDirectory.resolve("capture.log");
+
+        Path projectDir = Files.createDirectory(workDirectory.resolve("printing-project"));
+        Files.writeString(projectDir.resolve("pom.xml"), "<project/>");
+        Files.write(projectDir.resolve("output.txt"), output);
+        Path wrapper = projectDir.resolve("mvnw");
+        Files.writeString(wrapper, "#!/bin/sh\nexec cat output.txt\n");
+        Files.setPosixFilePermissions(wrapper, PosixFilePermissions.fromString("rwxr-xr-x"));
+        project = new ProjectDetector.ProjectInfo(projectDir.toFile(), ProjectDetector.ProjectType.MAVEN);
+        builder = new ProjectBuilder(Files.createDirectory(workDirectory.resolve("output")));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        BenchmarkFixtures.delete(workDirectory);
+    }
+
+    @Benchmark
+    public long captureStream() throws IOException, InterruptedException {
+        BuildOutputCapture capture = new BuildOutputCapture("bench", outputFile, new BuildPhaseRecorder(System.nanoTime()));
+        capture.start(new ByteArrayInputStream(output));
+        return capture.await();
+    }
+
+    @Benchmark
+    public BuildResult buildProcess() {
+        // Every invocation is a run of its own, overwriting printing-project.log like a watch mode rebuild
+        builder.startRun();
+        BuildResult result = builder.buildProject(project);
+        if (!result.success()) {
+            throw new IllegalStateException("Benchmark build failed: " + result.errorMessage());
+        }
+        return result;
+    }
+}
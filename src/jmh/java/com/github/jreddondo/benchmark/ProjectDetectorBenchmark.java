@@ -0,0 +1,59 @@
+package com.github.jreddondo.benchmark;
+
+import com.github.jreddondo.service.ProjectDetector;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Recursive project detection in generated directory trees. The tree stays in the page cache between iterations,
+ * so this measures the walk itself rather than the disk.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProjectDetectorBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    private int directories;
+
+    private Path root;
+    private ProjectDetector detector;
+    private ProjectDetector.DetectionOptions options;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        BenchmarkFixtures.quietLogging();
+        root = BenchmarkFixtures.directoryTree(directories);
+        detector = new ProjectDetector();
+        options = new ProjectDetector.DetectionOptions(10, List.of());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        BenchmarkFixtures.delete(root);
+    }
+
+    @Benchmark
+    public List<ProjectDetector.ProjectInfo> detectRecursive() {
+        return detector.detectProjects(root.toFile(), options);
+    }
+}
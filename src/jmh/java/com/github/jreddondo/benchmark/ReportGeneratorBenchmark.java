@@ -0,0 +1,74 @@
+package com.github.jreddondo.benchmark;
+
+import com.github.jreddondo.model.BuildResult;
+import com.github.jreddondo.service.JsonReportWriter;
+import com.github.jreddondo.service.ReportGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generation of the text report and of the streamed JSON report for 1 000 and 10 000 results.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReportGeneratorBenchmark {
+
+    @Param({"1000", "10000"})
+    private int results;
+
+    private List<BuildResult> buildResults;
+    private Path reportDirectory;
+    private ReportGenerator reportGenerator;
+    private LocalDateTime executionTime;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        BenchmarkFixtures.quietLogging();
+        buildResults = BenchmarkFixtures.buildResults(results);
+        reportDirectory = Files.createTempDirectory("multiple-builder-report-");
+        reportGenerator = new ReportGenerator();
+        executionTime = LocalDateTime.of(2024, 1, 1, 12, 0);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        BenchmarkFixtures.delete(reportDirectory);
+    }
+
+    @Benchmark
+    public void textReport() {
+        // The report file name only depends on the execution time: every invocation overwrites the same file
+        reportGenerator.generateReport(buildResults, "bench", reportDirectory.toFile(), executionTime);
+    }
+
+    @Benchmark
+    public void jsonReport() throws IOException {
+        try (JsonReportWriter writer = new JsonReportWriter(reportDirectory.resolve("report.json"), executionTime)) {
+            for (BuildResult result : buildResults) {
+                writer.onResult(result);
+            }
+        }
+    }
+}
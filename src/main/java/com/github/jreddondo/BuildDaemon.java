@@ -0,0 +1,151 @@
+package com.github.jreddondo;
+
+import com.github.jreddondo.service.BuildStateStore;
+import com.github.jreddondo.service.CachingProjectDetector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import picocli.CommandLine;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Long-running build server listening on a loopback port. Each connection carries one build request, run in
+ * this process with the same options as the command line, so repeated builds do not pay for JVM startup and
+ * reuse the projects detected by previous requests.
+ * <p>
+ * Protocol (UTF-8 lines): the client sends the token of the daemon, then its working directory and its arguments
+ * separated by tabs, or {@value #STOP_COMMAND}; the daemon answers one "RESULT" line per project and a final "EXIT"
+ * line, or {@value #DENIED} when the token is wrong.
+ * <p>
+ * The token is random and written at startup to a file only readable by the user running the daemon, so that
+ * other local users cannot run builds as that user.
+ */
+public class BuildDaemon {
+    public static final int DEFAULT_PORT = 7391;
+    static final String STOP_COMMAND = "STOP";
+    static final String RESULT_PREFIX = "RESULT";
+    static final String EXIT_PREFIX = "EXIT";
+    static final String DENIED = "DENIED";
+    static final String FIELD_SEPARATOR = "\t";
+    private static final Logger logger = LoggerFactory.getLogger(BuildDaemon.class);
+    private static final List<String> DAEMON_OPTIONS = List.of("--serve", "--connect", "--stop-daemon");
+    // Maximum wait for the request of a connected client, so that an idle client does not block the daemon
+    private static final int REQUEST_TIMEOUT_MS = 10_000;
+    private static final int TOKEN_BYTES = 32;
+
+    private final int port;
+    private final CachingProjectDetector detector = new CachingProjectDetector();
+
+    public BuildDaemon(int port) {
+        this.port = port;
+    }
+
+    /**
+     * Returns the file holding the token of the daemon listening on the given port, in the home directory.
+     */
+    static Path tokenFile(int port) {
+        return Paths.get(System.getProperty("user.home"), BuildStateStore.STATE_DIRECTORY, "daemon-" + port + ".token");
+    }
+
+    /**
+     * Serves build requests one at a time until a stop request is received.
+     */
+    public int serve() {
+        try (ServerSocket server = new ServerSocket(port, 50, InetAddress.getLoopbackAddress())) {
+            String token = writeToken();
+            logger.info("Build daemon listening on {}:{}", server.getInetAddress().getHostAddress(), port);
+            boolean running = true;
+            while (running) {
+                try (Socket socket = server.accept()) {
+                    socket.setSoTimeout(REQUEST_TIMEOUT_MS);
+                    running = handle(socket, token);
+                } catch (IOException e) {
+                    logger.warn("Build request failed: {}", e.getMessage());
+                }
+            }
+            Files.deleteIfExists(tokenFile(port));
+            logger.info("Build daemon stopped");
+            return 0;
+        } catch (IOException e) {
+            logger.error("Cannot start build daemon on port {}: {}", port, e.getMessage());
+            return 1;
+        }
+    }
+
+    private String writeToken() throws IOException {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        new SecureRandom().nextBytes(bytes);
+        String token = HexFormat.of().formatHex(bytes);
+        Path tokenFile = tokenFile(port);
+        Files.createDirectories(tokenFile.getParent());
+        Files.deleteIfExists(tokenFile);
+        if (tokenFile.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+            Files.createFile(tokenFile, PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")));
+        } else {
+            // Files of the home directory are only readable by their owner by default on Windows
+            Files.createFile(tokenFile);
+        }
+        Files.writeString(tokenFile, token, StandardCharsets.UTF_8);
+        return token;
+    }
+
+    private boolean handle(Socket socket, String token) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+        PrintWriter writer = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.UTF_8);
+
+        String clientToken = reader.readLine();
+        if (clientToken == null || !MessageDigest.isEqual(token.getBytes(StandardCharsets.UTF_8),
+                clientToken.getBytes(StandardCharsets.UTF_8))) {
+            logger.warn("Rejected build request with a wrong token from {}", socket.getRemoteSocketAddress());
+            writer.println(DENIED);
+            return true;
+        }
+        String workingDirectory = reader.readLine();
+        if (workingDirectory == null) {
+            return true;
+        }
+        if (STOP_COMMAND.equals(workingDirectory)) {
+            writer.println(EXIT_PREFIX + FIELD_SEPARATOR + 0);
+            return false;
+        }
+        String argumentLine = reader.readLine();
+        String[] args = argumentLine == null || argumentLine.isEmpty()
+                ? new String[0]
+                : argumentLine.split(FIELD_SEPARATOR);
+        for (String arg : args) {
+            if (DAEMON_OPTIONS.contains(arg)) {
+                logger.warn("Rejected build request with daemon option: {}", arg);
+                writer.println(EXIT_PREFIX + FIELD_SEPARATOR + CommandLine.ExitCode.USAGE);
+                return true;
+            }
+        }
+
+        // The build itself is not bounded by the request timeout
+        socket.setSoTimeout(0);
+        logger.info("Build request from {}: {}", workingDirectory, String.join(" ", args));
+        MultipleBuilderApp app = new MultipleBuilderApp(detector, new File(workingDirectory));
+        // Results are streamed to the client as they arrive rather than at the end of the build
+        app.addListener(result -> writer.println(String.join(FIELD_SEPARATOR, RESULT_PREFIX, result.status().name(),
+                result.projectName(), String.valueOf(result.durationMs()))));
+        int exitCode = new CommandLine(app).execute(args);
+
+        writer.println(EXIT_PREFIX + FIELD_SEPARATOR + exitCode);
+        return true;
+    }
+}
@@ -0,0 +1,84 @@
+package com.github.jreddondo;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.ConnectException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Sends build requests to a {@link BuildDaemon} running on the local machine.
+ */
+public class BuildDaemonClient {
+    private static final Logger logger = LoggerFactory.getLogger(BuildDaemonClient.class);
+
+    private final int port;
+
+    public BuildDaemonClient(int port) {
+        this.port = port;
+    }
+
+    public int build(File workingDirectory, List<String> args) {
+        return send(workingDirectory.getAbsolutePath(), String.join(BuildDaemon.FIELD_SEPARATOR, args));
+    }
+
+    public int stop() {
+        return send(BuildDaemon.STOP_COMMAND, null);
+    }
+
+    private int send(String firstLine, String secondLine) {
+        Path tokenFile = BuildDaemon.tokenFile(port);
+        String token;
+        try {
+            token = Files.readString(tokenFile, StandardCharsets.UTF_8).trim();
+        } catch (NoSuchFileException e) {
+            logger.error("No build daemon running on port {}: {} does not exist", port, tokenFile);
+            return 1;
+        } catch (IOException e) {
+            logger.error("Cannot read the build daemon token {}: {}", tokenFile, e.getMessage());
+            return 1;
+        }
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+            PrintWriter writer = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.UTF_8);
+            BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            writer.println(token);
+            writer.println(firstLine);
+            if (secondLine != null) {
+                writer.println(secondLine);
+            }
+
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.split(BuildDaemon.FIELD_SEPARATOR);
+                if (BuildDaemon.RESULT_PREFIX.equals(fields[0]) && fields.length == 4) {
+                    logger.info("  [{}] {} ({}ms)", fields[1], fields[2], fields[3]);
+                } else if (BuildDaemon.EXIT_PREFIX.equals(fields[0]) && fields.length == 2) {
+                    return Integer.parseInt(fields[1]);
+                } else if (BuildDaemon.DENIED.equals(fields[0])) {
+                    logger.error("Build daemon rejected the request: {} does not hold the token of the daemon on port {}",
+                            tokenFile, port);
+                    return 1;
+                }
+            }
+            logger.error("Build daemon closed the connection before the build finished");
+            return 1;
+        } catch (ConnectException e) {
+            logger.error("No build daemon listening on port {}", port);
+            return 1;
+        } catch (IOException | NumberFormatException e) {
+            logger.error("Build daemon request failed: {}", e.getMessage());
+            return 1;
+        }
+    }
+}
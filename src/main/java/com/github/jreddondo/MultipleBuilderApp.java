@@ -2,24 +2,64 @@ package com.github.jreddondo;
 
 import ch.qos.logback.classic.LoggerContext;
 import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
 import ch.qos.logback.core.FileAppender;
 import com.github.jreddondo.model.BuildResult;
+import com.github.jreddondo.model.BuildStatus;
+import com.github.jreddondo.model.FailureCategory;
+import com.github.jreddondo.service.BuildCache;
+import com.github.jreddondo.service.BuildConfiguration;
+import com.github.jreddondo.service.BuildExecutor;
+import com.github.jreddondo.service.BuildHistory;
+import com.github.jreddondo.service.BuildJournal;
+import com.github.jreddondo.service.BuildListener;
+import com.github.jreddondo.service.BuildScheduler;
+import com.github.jreddondo.service.BuildStateStore;
+import com.github.jreddondo.service.BuildWorker;
+import com.github.jreddondo.service.DependencyGraph;
+import com.github.jreddondo.service.GradleCompositeBuilder;
+import com.github.jreddondo.service.IncrementalBuildTracker;
+import com.github.jreddondo.service.IsolatedRepositories;
+import com.github.jreddondo.service.JUnitReportWriter;
+import com.github.jreddondo.service.JsonReportWriter;
+import com.github.jreddondo.service.MavenReactorBuilder;
+import com.github.jreddondo.service.MetricsExporter;
 import com.github.jreddondo.service.ProjectBuilder;
 import com.github.jreddondo.service.ProjectDetector;
+import com.github.jreddondo.service.ProgressDashboard;
+import com.github.jreddondo.service.ProjectWatcher;
+import com.github.jreddondo.service.RemoteBuildExecutor;
 import com.github.jreddondo.service.ReportGenerator;
+import com.github.jreddondo.service.RetryPolicy;
+import com.github.jreddondo.service.StatusServer;
+import com.github.jreddondo.util.DurationConverter;
+import com.github.jreddondo.util.MemorySizeConverter;
 import com.github.jreddondo.util.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import picocli.CommandLine;
 import picocli.CommandLine.Command;
+import picocli.CommandLine.Model.CommandSpec;
 import picocli.CommandLine.Option;
+import picocli.CommandLine.Spec;
 
 import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.stream.Collectors;
 
 @Command(name = "multiple-builder",
         mixinStandardHelpOptions = true,
@@ -28,10 +68,15 @@ import java.util.concurrent.Callable;
 public class MultipleBuilderApp implements Callable<Integer> {
 
     private static final Logger logger = LoggerFactory.getLogger(MultipleBuilderApp.class);
+    private static final String JSON_REPORT = "json";
+    private static final String JUNIT_REPORT = "junit";
+    private static final List<String> REPORT_FORMATS = List.of(JSON_REPORT, JUNIT_REPORT);
+    private static final String MAVEN_AGGREGATION = "maven";
+    private static final String GRADLE_AGGREGATION = "gradle";
+    private static final List<String> AGGREGATIONS = List.of(MAVEN_AGGREGATION, GRADLE_AGGREGATION);
 
     @Option(names = {"-p", "--path"},
-            description = "Root directory containing the projects to build",
-            required = true)
+            description = "Root directory containing the projects to build (required unless running as daemon)")
     private File rootPath;
 
     @Option(names = {"-a", "--app"},
@@ -42,12 +87,219 @@ public class MultipleBuilderApp implements Callable<Integer> {
             description = "Directory where the log file will be saved (default: root directory)")
     private File logPath;
 
+    @Option(names = {"--parallel"},
+            description = "Number of projects to build concurrently, or 'auto' to size from available cores and memory (default: 1)",
+            defaultValue = "1")
+    private String parallel;
+
+    @Option(names = {"-r", "--recursive"},
+            description = "Look for projects in nested directories instead of only the direct subdirectories of the root")
+    private boolean recursive;
+
+    @Option(names = {"--max-depth"},
+            description = "Maximum directory depth below the root searched in recursive mode (default: 10)",
+            defaultValue = "10")
+    private int maxDepth;
+
+    @Option(names = {"--ignore"},
+            description = "Additional glob patterns of directory names skipped during project detection",
+            split = ",")
+    private List<String> ignorePatterns = new ArrayList<>();
+
+    @Option(names = {"-i", "--incremental"},
+            description = "Skip projects whose sources and build files have not changed since their last successful build")
+    private boolean incremental;
+
+    @Option(names = {"--config"},
+            description = "Build configuration file selecting goals, arguments, JVM options and environment "
+                    + "(default: " + BuildConfiguration.CONFIG_FILE + " in the root directory)")
+    private File configFile;
+
+    @Option(names = {"--preset"},
+            description = "Preset of build settings: default (clean install / clean build) or fast "
+                    + "(no clean, parallel and cached builds)")
+    private String preset;
+
+    @Option(names = {"--build-cache"},
+            description = "Directory of a build output cache shared between runs and checkouts: projects whose inputs "
+                    + "were already built are restored from it instead of being built")
+    private File buildCacheDirectory;
+
+    @Option(names = {"--timeout"},
+            description = "Maximum duration of each project build, e.g. 30m or 90s; longer builds are killed",
+            converter = DurationConverter.class)
+    private Duration timeout;
+
+    @Option(names = {"--global-timeout"},
+            description = "Maximum duration of the whole run, e.g. 2h; remaining builds are then killed or cancelled",
+            converter = DurationConverter.class)
+    private Duration globalTimeout;
+
+    @Option(names = {"--fail-fast"},
+            description = "Cancel queued and running builds as soon as one build fails")
+    private boolean failFast;
+
+    @Option(names = {"--resume", "--rerun-failed"},
+            description = "Resume the previous run from its build journal: projects that built successfully are not "
+                    + "built again, failed and never started ones are")
+    private boolean resume;
+
+    @Option(names = {"--retries"},
+            description = "Build again up to this many times the projects whose build failed for a transient cause "
+                    + "(default: 0)",
+            defaultValue = "0")
+    private int retries;
+
+    @Option(names = {"--retry-on"},
+            description = "Failure categories retried by --retries: out_of_memory, network, locked_file, compilation, "
+                    + "dependency, test, unknown (default: out_of_memory,network,locked_file)",
+            split = ",")
+    private List<String> retryCategories = new ArrayList<>();
+
+    @Option(names = {"--retry-backoff"},
+            description = "Wait before the first retry of a build, doubled before each next one, e.g. 30s "
+                    + "(default: 10s)",
+            defaultValue = "10s",
+            converter = DurationConverter.class)
+    private Duration retryBackoff;
+
+    @Option(names = {"--no-history"},
+            description = "Do not use nor record the durations of previous builds")
+    private boolean noHistory;
+
+    @Option(names = {"--regression-threshold"},
+            description = "Percentage over the predicted duration from which a build is reported as a regression (default: "
+                    + ReportGenerator.DEFAULT_REGRESSION_THRESHOLD_PERCENT + ")",
+            defaultValue = "" + ReportGenerator.DEFAULT_REGRESSION_THRESHOLD_PERCENT)
+    private int regressionThreshold;
+
+    @Option(names = {"--report-format"},
+            description = "Additional machine-readable reports written while the projects build: json, junit",
+            split = ",")
+    private List<String> reportFormats = new ArrayList<>();
+
+    @Option(names = {"--metrics"},
+            description = "Write the build and step timings as a Prometheus text file and a trace viewer timeline")
+    private boolean exportMetrics;
+
+    @Option(names = {"--progress"},
+            description = "Show the running, queued and finished builds with an ETA, redrawn in place on a terminal, "
+                    + "or logged every --progress-interval otherwise")
+    private boolean progress;
+
+    @Option(names = {"--progress-interval"},
+            description = "Interval of the progress log lines when the output is not a terminal, e.g. 1m "
+                    + "(default: 30s)",
+            defaultValue = "30s",
+            converter = DurationConverter.class)
+    private Duration progressInterval;
+
+    @Option(names = {"--status-port"},
+            description = "Serve the progress of the builds on this local port, as text on / and as JSON on /status")
+    private Integer statusPort;
+
+    @Option(names = {"--aggregate"},
+            description = "Build the projects of a build tool together in one invocation: maven (one reactor build "
+                    + "of all Maven projects with -T), gradle (one composite build of all Gradle projects)",
+            split = ",")
+    private List<String> aggregations = new ArrayList<>();
+
+    @Option(names = {"--watch"},
+            description = "After the build, keep watching the projects and rebuild the changed ones and their dependents")
+    private boolean watch;
+
+    @Option(names = {"--watch-debounce"},
+            description = "Quiet period closing a burst of file changes in watch mode, e.g. 500ms or 2s (default: 500ms)",
+            defaultValue = "500ms",
+            converter = DurationConverter.class)
+    private Duration watchDebounce;
+
+    @Option(names = {"--coordinator"},
+            description = "Hand the builds out to workers connecting on this port instead of building them in this "
+                    + "process; --parallel sets how many builds are handed out at a time")
+    private Integer coordinatorPort;
+
+    @Option(names = {"--coordinator-bind"},
+            description = "Address the coordinator listens on, e.g. the address of the build network or 127.0.0.1 "
+                    + "(default: every network interface)")
+    private String coordinatorBindAddress;
+
+    @Option(names = {"--worker-token"},
+            description = "Secret shared by the coordinator and its workers, required with --coordinator and --worker "
+                    + "(default: the MULTIPLE_BUILDER_WORKER_TOKEN environment variable)",
+            defaultValue = "${env:MULTIPLE_BUILDER_WORKER_TOKEN}")
+    private String workerToken;
+
+    @Option(names = {"--worker"},
+            description = "Run as a worker building the projects handed out by the coordinator at <host>:<port>, "
+                    + "found under --path; --parallel sets how many builds run at a time")
+    private String coordinatorAddress;
+
+    @Option(names = {"--build-daemons"},
+            description = "Reuse warm build tool JVMs: run Gradle with --daemon and Maven with mvnd when it is on the PATH")
+    private boolean useBuildDaemons;
+
+    @Option(names = {"--build-heap"},
+            description = "Maximum heap of every build tool JVM, e.g. 2g: -Xmx for Maven, org.gradle.jvmargs for Gradle",
+            converter = MemorySizeConverter.class)
+    private Long buildHeap;
+
+    @Option(names = {"--isolated-repositories"},
+            description = "Give every concurrent build its own Maven local repository and Gradle user home, seeded "
+                    + "with hard links from the shared ones")
+    private boolean isolatedRepositories;
+
+    @Option(names = {"--min-free-memory"},
+            description = "Hold back builds while other builds run and less memory than this is available, e.g. 4g",
+            converter = MemorySizeConverter.class)
+    private Long minFreeMemory;
+
+    @Option(names = {"--serve"},
+            description = "Run as a long-running build daemon accepting build requests on the local daemon port")
+    private boolean serve;
+
+    @Option(names = {"--connect"},
+            description = "Send this build request to the build daemon instead of running it in this process")
+    private boolean connect;
+
+    @Option(names = {"--stop-daemon"},
+            description = "Stop the build daemon listening on the local daemon port")
+    private boolean stopDaemon;
+
+    @Option(names = {"--daemon-port"},
+            description = "Local port of the build daemon (default: " + BuildDaemon.DEFAULT_PORT + ")",
+            defaultValue = "" + BuildDaemon.DEFAULT_PORT)
+    private int daemonPort;
+
+    @Spec
+    private CommandSpec spec;
+
+    private final ProjectDetector detector;
+    private final File workingDirectory;
+    private final List<BuildListener> listeners = new ArrayList<>();
+    private List<BuildResult> results = List.of();
+    private RetryPolicy retryPolicy;
+    private ProgressDashboard progressDashboard;
+
+    public MultipleBuilderApp() {
+        this(new ProjectDetector(), null);
+    }
+
+    /**
+     * @param detector         detector used to find the projects, shared between the requests of a daemon
+     * @param workingDirectory directory relative paths are resolved against, or null for the current directory
+     */
+    MultipleBuilderApp(ProjectDetector detector, File workingDirectory) {
+        this.detector = detector;
+        this.workingDirectory = workingDirectory;
+    }
+
     public static void main(String[] args) {
         int exitCode = new CommandLine(new MultipleBuilderApp()).execute(args);
         System.exit(exitCode);
     }
 
-    private static void configureExecutionLogFile(String appPrefix, File logPath, LocalDateTime executionTime) {
+    private static FileAppender<ILoggingEvent> configureExecutionLogFile(String appPrefix, File logPath, LocalDateTime executionTime) {
         LoggerContext loggerContext = (LoggerContext) LoggerFactory.getILoggerFactory();
 
         // Generate the execution log filename matching the report log filename pattern
@@ -64,7 +316,7 @@ public class MultipleBuilderApp implements Callable<Integer> {
         File executionLogFile = new File(logPath, fileName);
 
         // Create a new FileAppender programmatically
-        FileAppender<ch.qos.logback.classic.spi.ILoggingEvent> fileAppender = new FileAppender<>();
+        FileAppender<ILoggingEvent> fileAppender = new FileAppender<>();
         fileAppender.setContext(loggerContext);
         fileAppender.setName("FILE");
         fileAppender.setFile(executionLogFile.getAbsolutePath());
@@ -82,11 +334,96 @@ public class MultipleBuilderApp implements Callable<Integer> {
         // Add the appender to the root logger
         ch.qos.logback.classic.Logger rootLogger = loggerContext.getLogger(Logger.ROOT_LOGGER_NAME);
         rootLogger.addAppender(fileAppender);
+        return fileAppender;
+    }
+
+    private static void detachExecutionLogFile(FileAppender<ILoggingEvent> fileAppender) {
+        // Needed when several builds run in the same process, e.g. in daemon mode
+        LoggerContext loggerContext = (LoggerContext) LoggerFactory.getILoggerFactory();
+        loggerContext.getLogger(Logger.ROOT_LOGGER_NAME).detachAppender(fileAppender);
+        fileAppender.stop();
+    }
+
+    private static Path buildOutputDirectory(String appPrefix, File logPath, LocalDateTime executionTime) {
+        // One output file per project, in a directory paired with the report and execution log files
+        return reportPath(appPrefix, logPath, executionTime, "multiple_build_output_", "");
+    }
+
+    private static Path reportPath(String appPrefix, File logPath, LocalDateTime executionTime, String name,
+                                   String extension) {
+        String timestamp = executionTime.format(DateTimeFormatter.ofPattern("yyyy_MM_dd_HH_mm"));
+        String fileName;
+
+        if (appPrefix != null && !appPrefix.trim().isEmpty()) {
+            fileName = appPrefix + "_" + name + timestamp + extension;
+        } else {
+            fileName = name + timestamp + extension;
+        }
+
+        return logPath.toPath().resolve(fileName);
     }
 
     @Override
     public Integer call() {
 
+        if (watch && (serve || connect)) {
+            logger.error("Watch mode cannot run in a build daemon");
+            return CommandLine.ExitCode.USAGE;
+        }
+        if ((progress || statusPort != null) && (serve || connect)) {
+            logger.error("The build progress cannot be shown by a build daemon");
+            return CommandLine.ExitCode.USAGE;
+        }
+        if (statusPort != null && (statusPort < 0 || statusPort > 65535)) {
+            logger.error("Invalid status port {}", statusPort);
+            return CommandLine.ExitCode.USAGE;
+        }
+        if (coordinatorAddress != null && (coordinatorPort != null || watch || resume || serve || connect)) {
+            logger.error("Worker mode cannot be combined with --coordinator, --watch, --resume or a build daemon");
+            return CommandLine.ExitCode.USAGE;
+        }
+        if (coordinatorPort != null && (serve || connect || buildCacheDirectory != null || !aggregations.isEmpty())) {
+            logger.error("Coordinator mode cannot be combined with --build-cache, --aggregate or a build daemon");
+            return CommandLine.ExitCode.USAGE;
+        }
+        if (isolatedRepositories && (buildCacheDirectory != null || !aggregations.isEmpty())) {
+            logger.error("Isolated repositories cannot be combined with --build-cache or --aggregate");
+            return CommandLine.ExitCode.USAGE;
+        }
+        if (coordinatorPort != null && (coordinatorPort < 0 || coordinatorPort > 65535)) {
+            logger.error("Invalid coordinator port {}", coordinatorPort);
+            return CommandLine.ExitCode.USAGE;
+        }
+        if (coordinatorBindAddress != null && coordinatorPort == null) {
+            logger.error("--coordinator-bind requires --coordinator");
+            return CommandLine.ExitCode.USAGE;
+        }
+        if ((coordinatorPort != null || coordinatorAddress != null) && (workerToken == null || workerToken.isBlank())) {
+            logger.error("Distributed builds require a --worker-token shared by the coordinator and its workers");
+            return CommandLine.ExitCode.USAGE;
+        }
+        if (serve) {
+            return new BuildDaemon(daemonPort).serve();
+        }
+        if (connect || stopDaemon) {
+            BuildDaemonClient client = new BuildDaemonClient(daemonPort);
+            if (stopDaemon) {
+                return client.stop();
+            }
+            List<String> forwardedArgs = new ArrayList<>(spec.commandLine().getParseResult().originalArgs());
+            forwardedArgs.remove("--connect");
+            return client.build(new File("").getAbsoluteFile(), forwardedArgs);
+        }
+
+        if (rootPath == null) {
+            logger.error("Missing required option: '--path=<rootPath>'");
+            return CommandLine.ExitCode.USAGE;
+        }
+        rootPath = resolve(rootPath);
+        logPath = logPath != null ? resolve(logPath) : null;
+        buildCacheDirectory = buildCacheDirectory != null ? resolve(buildCacheDirectory) : null;
+        configFile = configFile != null ? resolve(configFile) : new File(rootPath, BuildConfiguration.CONFIG_FILE);
+
         // Validate log path if provided
         if (logPath != null) {
             if (!logPath.exists()) {
@@ -101,11 +438,92 @@ public class MultipleBuilderApp implements Callable<Integer> {
             logPath = rootPath;
         }
 
+        int parallelism;
+        try {
+            parallelism = BuildScheduler.resolveParallelism(parallel);
+        } catch (IllegalArgumentException e) {
+            logger.error(e.getMessage());
+            return CommandLine.ExitCode.USAGE;
+        }
+
+        if (maxDepth < 1) {
+            logger.error("Invalid max depth {}, expected a positive number", maxDepth);
+            return CommandLine.ExitCode.USAGE;
+        }
+
+        if ((timeout != null && !timeout.isPositive()) || (globalTimeout != null && !globalTimeout.isPositive())
+                || !watchDebounce.isPositive() || !progressInterval.isPositive()) {
+            logger.error("Invalid timeout, expected a positive duration");
+            return CommandLine.ExitCode.USAGE;
+        }
+
+        if ((buildHeap != null && buildHeap <= 0) || (minFreeMemory != null && minFreeMemory <= 0)) {
+            logger.error("Invalid memory size, expected a positive size");
+            return CommandLine.ExitCode.USAGE;
+        }
+
+        if (retries < 0 || retryBackoff.isNegative()) {
+            logger.error("Invalid retries, expected a positive number of retries and backoff");
+            return CommandLine.ExitCode.USAGE;
+        }
+        Set<FailureCategory> retriedCategories = RetryPolicy.transientCategories();
+        if (!retryCategories.isEmpty()) {
+            retriedCategories = EnumSet.noneOf(FailureCategory.class);
+            for (String category : retryCategories) {
+                try {
+                    retriedCategories.add(FailureCategory.valueOf(category.trim().toUpperCase()));
+                } catch (IllegalArgumentException e) {
+                    logger.error("Invalid failure category '{}', expected one of: {}", category,
+                            Arrays.stream(FailureCategory.values()).map(value -> value.name().toLowerCase())
+                                    .collect(Collectors.joining(", ")));
+                    return CommandLine.ExitCode.USAGE;
+                }
+            }
+        }
+        retryPolicy = retries > 0 ? new RetryPolicy(retries, retriedCategories, retryBackoff) : null;
+
+        if (!configFile.equals(new File(rootPath, BuildConfiguration.CONFIG_FILE)) && !configFile.isFile()) {
+            logger.error("Configuration file does not exist: {}", configFile.getAbsolutePath());
+            return CommandLine.ExitCode.USAGE;
+        }
+        BuildConfiguration configuration;
+        try {
+            configuration = BuildConfiguration.load(configFile.toPath(), preset);
+        } catch (IllegalArgumentException e) {
+            logger.error(e.getMessage());
+            return CommandLine.ExitCode.USAGE;
+        }
+
+        for (String format : reportFormats) {
+            if (!REPORT_FORMATS.contains(format.trim().toLowerCase())) {
+                logger.error("Invalid report format '{}', expected one of: {}", format, String.join(", ", REPORT_FORMATS));
+                return CommandLine.ExitCode.USAGE;
+            }
+        }
+
+        for (String aggregation : aggregations) {
+            if (!AGGREGATIONS.contains(aggregation.trim().toLowerCase())) {
+                logger.error("Invalid aggregation '{}', expected one of: {}", aggregation, String.join(", ", AGGREGATIONS));
+                return CommandLine.ExitCode.USAGE;
+            }
+        }
+
+        if (coordinatorAddress != null) {
+            return work(parallelism, configuration);
+        }
+
         LocalDateTime executionTime = LocalDateTime.now();
 
         // Configure execution log file
-        configureExecutionLogFile(appPrefix, logPath, executionTime);
+        FileAppender<ILoggingEvent> executionLogAppender = configureExecutionLogFile(appPrefix, logPath, executionTime);
+        try {
+            return build(parallelism, configuration, executionTime);
+        } finally {
+            detachExecutionLogFile(executionLogAppender);
+        }
+    }
 
+    private int build(int parallelism, BuildConfiguration configuration, LocalDateTime executionTime) {
         logger.info(StringUtils.SEPARATOR_LINE);
         logger.info("Multiple Builder Application Started");
         logger.info(StringUtils.SEPARATOR_LINE);
@@ -116,8 +534,7 @@ public class MultipleBuilderApp implements Callable<Integer> {
         logger.info("");
 
         // Detect projects
-        ProjectDetector detector = new ProjectDetector();
-        List<ProjectDetector.ProjectInfo> projects = detector.detectProjects(rootPath);
+        List<ProjectDetector.ProjectInfo> projects = detector.detectProjects(rootPath, detectionOptions());
 
         if (projects.isEmpty()) {
             logger.warn("No Maven or Gradle projects found in: {}", rootPath.getAbsolutePath());
@@ -127,22 +544,338 @@ public class MultipleBuilderApp implements Callable<Integer> {
         logger.info("Found {} project(s) to build", projects.size());
         logger.info("");
 
+        // Resolve build order
+        DependencyGraph graph = DependencyGraph.build(projects);
+        graph.logWaves();
+        logger.info("");
+
+        if (progress || statusPort != null) {
+            progressDashboard = new ProgressDashboard();
+        }
+        StatusServer statusServer = null;
+        if (statusPort != null) {
+            try {
+                statusServer = new StatusServer(progressDashboard, statusPort);
+            } catch (IOException e) {
+                logger.error("Cannot serve the build progress on port {}: {}", statusPort, e.getMessage());
+                return 1;
+            }
+            statusServer.start();
+        }
+
+        // Workers can connect while the remaining setup runs
+        RemoteBuildExecutor coordinator = null;
+        if (coordinatorPort != null) {
+            try {
+                InetAddress bindAddress = coordinatorBindAddress != null
+                        ? InetAddress.getByName(coordinatorBindAddress)
+                        : null;
+                coordinator = new RemoteBuildExecutor(rootPath.toPath(), bindAddress, coordinatorPort, workerToken);
+                coordinator.start();
+            } catch (IOException e) {
+                logger.error("Cannot start the coordinator on port {}: {}", coordinatorPort, e.getMessage());
+                closeStatusServer(statusServer);
+                return 1;
+            }
+        }
+
+        // Watch before the first build, so that changes made while it runs are not missed
+        ProjectWatcher watcher = null;
+        if (watch) {
+            try {
+                watcher = new ProjectWatcher(projects, watchDebounce);
+                watcher.snapshot(projects);
+            } catch (IOException e) {
+                logger.error("Cannot watch the projects for changes: {}", e.getMessage());
+                closeCoordinator(coordinator);
+                closeStatusServer(statusServer);
+                return 1;
+            }
+        }
+
         // Build projects
-        ProjectBuilder builder = new ProjectBuilder();
-        List<BuildResult> results = new ArrayList<>();
+        ProjectBuilder builder = createBuilder(configuration, executionTime);
+        BuildExecutor executor = builder;
+        if (coordinator != null) {
+            executor = coordinator;
+        }
+        BuildScheduler scheduler = createScheduler(builder, executor, parallelism, configuration);
+        ReportGenerator reportGenerator = new ReportGenerator(regressionThreshold);
 
-        for (ProjectDetector.ProjectInfo project : projects) {
-            BuildResult result = builder.buildProject(project);
-            results.add(result);
+        // Every result is journaled as soon as it is known, so that the run can be resumed if it is killed
+        BuildJournal journal = null;
+        try {
+            journal = resume ? BuildJournal.resume(logPath) : BuildJournal.create(logPath);
+            if (resume) {
+                Map<String, BuildResult> resumedResults = journal.successfulResults();
+                logger.info("Resuming the previous run: {} project(s) built successfully are not built again",
+                        projects.stream().filter(project ->
+                                resumedResults.containsKey(project.projectDir().getAbsolutePath())).count());
+                scheduler.setResumedResults(resumedResults);
+                reportGenerator.setResumedProjects(resumedResults.keySet());
+            }
+            scheduler.addListener(journal);
+        } catch (IOException e) {
+            if (resume) {
+                logger.warn("Cannot resume the previous run from its build journal, building all projects: {}",
+                        e.getMessage());
+            } else {
+                logger.warn("Cannot write the build journal, this run cannot be resumed: {}", e.getMessage());
+            }
+        }
+
+        // Machine-readable reports are written as the results arrive, so CI can pick up failures before the end
+        JsonReportWriter jsonReport = null;
+        try {
+            if (isReportEnabled(JSON_REPORT)) {
+                jsonReport = new JsonReportWriter(reportPath(appPrefix, logPath, executionTime, "multiple_build_", ".json"),
+                        executionTime);
+                scheduler.addListener(jsonReport);
+            }
+            if (isReportEnabled(JUNIT_REPORT)) {
+                scheduler.addListener(new JUnitReportWriter(
+                        reportPath(appPrefix, logPath, executionTime, "multiple_build_junit_", "")));
+            }
+        } catch (IOException e) {
+            logger.error("Failed to create report files: {}", e.getMessage());
         }
 
-        // Generate report
-        ReportGenerator reportGenerator = new ReportGenerator();
-        reportGenerator.printConsoleSummary(results);
-        reportGenerator.generateReport(results, appPrefix, logPath, executionTime);
+        // Kill the running builds with their process trees when the JVM is stopped, e.g. with Ctrl+C
+        BuildExecutor runningExecutor = executor;
+        Thread shutdownHook = new Thread(() -> runningExecutor.cancelAll(BuildStatus.CANCELLED, "Build cancelled by shutdown"));
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+        try {
+            if (progress) {
+                progressDashboard.start(ProgressDashboard.isTerminal(), progressInterval);
+            }
+            long runStart = System.nanoTime();
+            try {
+                results = scheduler.buildAll(graph);
+            } finally {
+                closeReport(jsonReport);
+                if (journal != null) {
+                    journal.close();
+                }
+            }
+
+            if (exportMetrics) {
+                MetricsExporter metricsExporter = new MetricsExporter(runStart, System.nanoTime());
+                metricsExporter.writePrometheus(results,
+                        reportPath(appPrefix, logPath, executionTime, "multiple_build_metrics_", ".prom"));
+                metricsExporter.writeTrace(results,
+                        reportPath(appPrefix, logPath, executionTime, "multiple_build_trace_", ".json"));
+            }
+
+            // Generate report
+            reportGenerator.printConsoleSummary(results);
+            reportGenerator.generateReport(results, appPrefix, logPath, executionTime);
+
+            if (watcher != null) {
+                watch(watcher, graph, builder, executor, parallelism, configuration, executionTime);
+            }
+        } finally {
+            try {
+                Runtime.getRuntime().removeShutdownHook(shutdownHook);
+            } catch (IllegalStateException e) {
+                // The JVM is already shutting down
+            }
+            closeStatusServer(statusServer);
+            if (progressDashboard != null) {
+                progressDashboard.close();
+            }
+            closeCoordinator(coordinator);
+        }
 
         // Return exit code based on results
         boolean allSuccess = results.stream().allMatch(BuildResult::success);
         return allSuccess ? 0 : 1;
     }
+
+    /**
+     * Builds the projects handed out by the coordinator until it ends its run.
+     */
+    private int work(int parallelism, BuildConfiguration configuration) {
+        int separator = coordinatorAddress.lastIndexOf(':');
+        int port;
+        try {
+            port = Integer.parseInt(coordinatorAddress.substring(separator + 1));
+        } catch (NumberFormatException e) {
+            port = -1;
+        }
+        if (separator <= 0 || port < 1 || port > 65535) {
+            logger.error("Invalid coordinator address '{}', expected <host>:<port>", coordinatorAddress);
+            return CommandLine.ExitCode.USAGE;
+        }
+
+        ProjectBuilder builder = createBuilder(configuration, LocalDateTime.now());
+        Thread shutdownHook = new Thread(() -> builder.cancelAll(BuildStatus.CANCELLED, "Worker stopped"));
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+        try {
+            return new BuildWorker(coordinatorAddress.substring(0, separator), port, rootPath.toPath(), workerToken,
+                    builder).run(parallelism);
+        } finally {
+            try {
+                Runtime.getRuntime().removeShutdownHook(shutdownHook);
+            } catch (IllegalStateException e) {
+                // The JVM is already shutting down
+            }
+        }
+    }
+
+    private ProjectBuilder createBuilder(BuildConfiguration configuration, LocalDateTime executionTime) {
+        ProjectBuilder builder = new ProjectBuilder(buildOutputDirectory(appPrefix, logPath, executionTime));
+        builder.setConfiguration(configuration);
+        builder.setUseBuildDaemons(useBuildDaemons);
+        builder.setTimeout(timeout);
+        if (buildHeap != null) {
+            builder.setBuildHeapBytes(buildHeap);
+        }
+        if (minFreeMemory != null) {
+            builder.setMinFreeMemoryBytes(minFreeMemory);
+        }
+        if (isolatedRepositories) {
+            builder.setIsolatedRepositories(new IsolatedRepositories(
+                    BuildStateStore.stateDirectory(logPath).resolve("repositories")));
+        }
+        return builder;
+    }
+
+    private BuildScheduler createScheduler(ProjectBuilder builder, BuildExecutor executor, int parallelism,
+                                           BuildConfiguration configuration) {
+        BuildScheduler scheduler = new BuildScheduler(executor, parallelism);
+        scheduler.setFailFast(failFast);
+        scheduler.setGlobalTimeout(globalTimeout);
+        scheduler.setRetryPolicy(retryPolicy);
+        if (isAggregationEnabled(MAVEN_AGGREGATION)) {
+            scheduler.addAggregatedBuilder(new MavenReactorBuilder(builder, configuration,
+                    BuildStateStore.stateDirectory(logPath), parallelism));
+        }
+        if (isAggregationEnabled(GRADLE_AGGREGATION)) {
+            scheduler.addAggregatedBuilder(new GradleCompositeBuilder(builder, configuration,
+                    BuildStateStore.stateDirectory(logPath)));
+        }
+        if (incremental || buildCacheDirectory != null) {
+            IncrementalBuildTracker tracker = new IncrementalBuildTracker(BuildStateStore.open(logPath));
+            tracker.setConfiguration(configuration);
+            if (incremental) {
+                scheduler.setIncrementalTracker(tracker);
+            }
+            if (buildCacheDirectory != null) {
+                scheduler.setBuildCache(new BuildCache(buildCacheDirectory.toPath()), tracker);
+            }
+        }
+        if (!noHistory) {
+            scheduler.setBuildHistory(BuildHistory.open(logPath));
+        }
+        if (progressDashboard != null) {
+            scheduler.addListener(progressDashboard);
+        }
+        listeners.forEach(scheduler::addListener);
+        return scheduler;
+    }
+
+    /**
+     * Rebuilds the changed projects and the projects depending on them after every burst of changes, until the
+     * process is stopped. The summary and report always show the latest result of every project.
+     */
+    private void watch(ProjectWatcher watcher, DependencyGraph initialGraph, ProjectBuilder builder,
+                       BuildExecutor executor, int parallelism, BuildConfiguration configuration,
+                       LocalDateTime executionTime) {
+        List<ProjectDetector.ProjectInfo> projects = initialGraph.getProjects();
+        Map<String, BuildResult> latestResults = new LinkedHashMap<>();
+        results.forEach(result -> latestResults.put(result.projectPath(), result));
+        ReportGenerator reportGenerator = new ReportGenerator(regressionThreshold);
+        try (watcher) {
+            logger.info("Watching {} project(s) for changes, press Ctrl+C to stop", projects.size());
+            while (true) {
+                Set<ProjectDetector.ProjectInfo> changed = watcher.awaitChanges();
+                if (changed.isEmpty()) {
+                    continue;
+                }
+                // Build files may have changed, so the dependencies are read again
+                DependencyGraph graph = DependencyGraph.build(projects);
+                List<Integer> changedIndexes = changed.stream().map(projects::indexOf).toList();
+                DependencyGraph affected = graph.subgraph(graph.withDependents(changedIndexes));
+                logger.info(StringUtils.SEPARATOR_LINE);
+                logger.info("Changes detected in {}, rebuilding {} project(s)",
+                        changed.stream().map(ProjectDetector.ProjectInfo::getName).toList(), affected.size());
+                logger.info(StringUtils.SEPARATOR_LINE);
+
+                watcher.snapshot(affected.getProjects());
+                for (BuildResult result : createScheduler(builder, executor, parallelism, configuration).buildAll(affected)) {
+                    latestResults.put(result.projectPath(), result);
+                }
+                results = new ArrayList<>(latestResults.values());
+                reportGenerator.printConsoleSummary(results);
+                reportGenerator.generateReport(results, appPrefix, logPath, executionTime);
+                logger.info("Watching {} project(s) for changes, press Ctrl+C to stop", projects.size());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException | IOException e) {
+            logger.warn("Stopped watching the projects: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Registers a listener notified of every result of the next build as soon as it is known.
+     */
+    void addListener(BuildListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Returns the results of the last build run by this instance.
+     */
+    List<BuildResult> getResults() {
+        return results;
+    }
+
+    private boolean isReportEnabled(String format) {
+        return reportFormats.stream().anyMatch(value -> value.trim().equalsIgnoreCase(format));
+    }
+
+    private boolean isAggregationEnabled(String aggregation) {
+        return aggregations.stream().anyMatch(value -> value.trim().equalsIgnoreCase(aggregation));
+    }
+
+    private static void closeReport(JsonReportWriter report) {
+        if (report == null) {
+            return;
+        }
+        try {
+            report.close();
+        } catch (IOException e) {
+            logger.error("Failed to complete JSON report: {}", e.getMessage());
+        }
+    }
+
+    private static void closeStatusServer(StatusServer statusServer) {
+        if (statusServer != null) {
+            statusServer.close();
+        }
+    }
+
+    private static void closeCoordinator(RemoteBuildExecutor coordinator) {
+        if (coordinator == null) {
+            return;
+        }
+        try {
+            coordinator.close();
+        } catch (IOException e) {
+            logger.warn("Failed to stop the coordinator: {}", e.getMessage());
+        }
+    }
+
+    private File resolve(File file) {
+        if (file.isAbsolute() || workingDirectory == null) {
+            return file;
+        }
+        return new File(workingDirectory, file.getPath());
+    }
+
+    private ProjectDetector.DetectionOptions detectionOptions() {
+        // The default patterns are added by the detector, which exempts some of them in the root directory
+        return new ProjectDetector.DetectionOptions(recursive ? maxDepth : 1, List.copyOf(ignorePatterns));
+    }
 }
@@ -0,0 +1,24 @@
+package com.github.jreddondo.model;
+
+import java.util.List;
+
+/**
+ * Timings of a build that actually ran, measured with System.nanoTime().
+ *
+ * @param queueWaitNanos time between the project becoming ready to build (all dependencies built) and its build start
+ * @param startupNanos   time between the launch of the build tool and its first output
+ * @param startNanos     System.nanoTime() when the build tool was launched
+ * @param endNanos       System.nanoTime() when the build tool exited
+ * @param phases         steps of the build recognized in its output, in order
+ */
+public record BuildMetrics(long queueWaitNanos, long startupNanos, long startNanos, long endNanos,
+                           List<BuildPhase> phases) {
+
+    public long durationNanos() {
+        return endNanos - startNanos;
+    }
+
+    public BuildMetrics withQueueWaitNanos(long queueWaitNanos) {
+        return new BuildMetrics(queueWaitNanos, startupNanos, startNanos, endNanos, phases);
+    }
+}
@@ -0,0 +1,15 @@
+package com.github.jreddondo.model;
+
+/**
+ * A step of a build delimited in the build output: a Maven plugin goal execution or a Gradle task.
+ *
+ * @param name          plugin goal (e.g. "compiler:compile") or task path (e.g. ":compileJava")
+ * @param startNanos    System.nanoTime() when the step started
+ * @param durationNanos time until the next step started or the build ended
+ */
+public record BuildPhase(String name, long startNanos, long durationNanos) {
+
+    public long durationMs() {
+        return durationNanos / 1_000_000;
+    }
+}
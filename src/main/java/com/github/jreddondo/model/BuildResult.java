@@ -1,4 +1,57 @@
 package com.github.jreddondo.model;
 
-public record BuildResult(String projectName, String projectPath, boolean success, String buildType, long durationMs, String errorMessage) {
-}
\ No newline at end of file
+/**
+ * @param failureCategory cause of a FAILED build recognized from its output, or null
+ * @param attempts        number of times the project was built, more than 1 when transient failures were retried
+ */
+public record BuildResult(String projectName, String projectPath, BuildStatus status, String buildType, long durationMs,
+                          String errorMessage, String outputLog, long predictedDurationMs, BuildMetrics metrics,
+                          FailureCategory failureCategory, int attempts) {
+
+    public static final long NO_PREDICTION = -1;
+
+    public BuildResult(String projectName, String projectPath, BuildStatus status, String buildType, long durationMs,
+                       String errorMessage, String outputLog) {
+        this(projectName, projectPath, status, buildType, durationMs, errorMessage, outputLog, NO_PREDICTION, null,
+                null, 1);
+    }
+
+    public boolean success() {
+        return status.isSuccessful();
+    }
+
+    public boolean hasPrediction() {
+        return predictedDurationMs != NO_PREDICTION;
+    }
+
+    /**
+     * Whether timings of the build are known: only builds whose build tool process was started have some.
+     */
+    public boolean hasMetrics() {
+        return metrics != null;
+    }
+
+    public boolean wasRetried() {
+        return attempts > 1;
+    }
+
+    public BuildResult withPredictedDurationMs(long predictedDurationMs) {
+        return new BuildResult(projectName, projectPath, status, buildType, durationMs, errorMessage, outputLog,
+                predictedDurationMs, metrics, failureCategory, attempts);
+    }
+
+    public BuildResult withMetrics(BuildMetrics metrics) {
+        return new BuildResult(projectName, projectPath, status, buildType, durationMs, errorMessage, outputLog,
+                predictedDurationMs, metrics, failureCategory, attempts);
+    }
+
+    public BuildResult withFailureCategory(FailureCategory failureCategory) {
+        return new BuildResult(projectName, projectPath, status, buildType, durationMs, errorMessage, outputLog,
+                predictedDurationMs, metrics, failureCategory, attempts);
+    }
+
+    public BuildResult withAttempts(int attempts) {
+        return new BuildResult(projectName, projectPath, status, buildType, durationMs, errorMessage, outputLog,
+                predictedDurationMs, metrics, failureCategory, attempts);
+    }
+}
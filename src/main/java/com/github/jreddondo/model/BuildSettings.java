@@ -0,0 +1,22 @@
+package com.github.jreddondo.model;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * How a project is built: the goals or tasks run, the additional command line arguments of the build tool,
+ * the JVM options of the build tool (MAVEN_OPTS or GRADLE_OPTS) and additional environment variables.
+ *
+ * @param jvmOptions JVM options of the build tool, or null to keep the inherited ones
+ */
+public record BuildSettings(List<String> goals, List<String> arguments, String jvmOptions,
+                            SortedMap<String, String> environment) {
+
+    public BuildSettings {
+        goals = List.copyOf(goals);
+        arguments = List.copyOf(arguments);
+        environment = Collections.unmodifiableSortedMap(new TreeMap<>(environment));
+    }
+}
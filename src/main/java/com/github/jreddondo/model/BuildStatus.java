@@ -0,0 +1,15 @@
+package com.github.jreddondo.model;
+
+public enum BuildStatus {
+    SUCCESS,
+    UP_TO_DATE,
+    FROM_CACHE,
+    FAILED,
+    TIMED_OUT,
+    CANCELLED,
+    SKIPPED;
+
+    public boolean isSuccessful() {
+        return this == SUCCESS || this == UP_TO_DATE || this == FROM_CACHE;
+    }
+}
@@ -0,0 +1,28 @@
+package com.github.jreddondo.model;
+
+/**
+ * Cause of a failed build, recognized from its output. Transient failures may not happen again when the build is
+ * retried, unlike compilation errors.
+ */
+public enum FailureCategory {
+    OUT_OF_MEMORY(true),
+    COMPILATION(false),
+    NETWORK(true),
+    LOCKED_FILE(true),
+    DEPENDENCY(false),
+    TEST(false),
+    UNKNOWN(false);
+
+    private final boolean transientFailure;
+
+    FailureCategory(boolean transientFailure) {
+        this.transientFailure = transientFailure;
+    }
+
+    /**
+     * Whether the failure is retried by default.
+     */
+    public boolean isTransient() {
+        return transientFailure;
+    }
+}
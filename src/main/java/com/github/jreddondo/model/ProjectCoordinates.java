@@ -0,0 +1,15 @@
+package com.github.jreddondo.model;
+
+import java.util.Set;
+
+/**
+ * Artifacts a project produces and the external artifacts it consumes, as "groupId:artifactId" keys.
+ * The group may be empty when it cannot be determined (e.g. Gradle builds without an explicit group).
+ */
+public record ProjectCoordinates(String groupId, String artifactId, String version, Set<String> producedArtifacts,
+                                 Set<String> requiredArtifacts) {
+
+    public static String key(String groupId, String artifactId) {
+        return (groupId == null ? "" : groupId) + ":" + artifactId;
+    }
+}
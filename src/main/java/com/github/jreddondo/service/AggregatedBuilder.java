@@ -0,0 +1,25 @@
+package com.github.jreddondo.service;
+
+import com.github.jreddondo.model.BuildResult;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Builds several projects in a single build tool invocation, paying the startup of the build tool once and letting
+ * it schedule the projects itself, then reports one result per project.
+ */
+public interface AggregatedBuilder {
+
+    /**
+     * Returns the indexes of the projects of the graph that can be built together.
+     */
+    Set<Integer> selectProjects(DependencyGraph graph);
+
+    /**
+     * Builds the given projects, which are a subset of the selected ones, in one invocation.
+     *
+     * @return the result of every project, in the order of the given indexes
+     */
+    List<BuildResult> buildAll(DependencyGraph graph, List<Integer> projects);
+}
@@ -0,0 +1,337 @@
+package com.github.jreddondo.service;
+
+import com.github.jreddondo.model.ProjectCoordinates;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Content-addressed cache of build outputs, shared between runs and checkouts. An entry is keyed by the input key of
+ * a project (its files and the input keys of its dependencies) and holds its build output directories (target/ for
+ * Maven, build/ for Gradle, including those of modules and subprojects) and, for Maven, the artifacts it installed
+ * in the local repository.
+ * <p>
+ * Entries are restored with hard links when the cache and the project are on the same file system, falling back to
+ * copies otherwise. Entries are stored as copies, and every file of an entry is checked against the size and
+ * modification time recorded when it was stored before being restored: a build writing into a linked file in place
+ * changes both, and the damaged entry is then evicted instead of being restored.
+ */
+public class BuildCache {
+    private static final Logger logger = LoggerFactory.getLogger(BuildCache.class);
+    private static final String MANIFEST_FILE = "manifest.tsv";
+    private static final String OUTPUTS_DIRECTORY = "outputs";
+    private static final String REPOSITORY_DIRECTORY = "repository";
+    private static final String MAVEN_OUTPUT = "target";
+    private static final String GRADLE_OUTPUT = "build";
+
+    private final Path cacheDirectory;
+    private final Path localRepository;
+    private volatile boolean linksSupported = true;
+
+    public BuildCache(Path cacheDirectory) {
+        this(cacheDirectory, defaultLocalRepository());
+    }
+
+    /**
+     * @param cacheDirectory  directory holding the cache entries
+     * @param localRepository Maven local repository receiving the artifacts installed by Maven builds
+     */
+    public BuildCache(Path cacheDirectory, Path localRepository) {
+        this.cacheDirectory = cacheDirectory;
+        this.localRepository = localRepository;
+    }
+
+    /**
+     * Returns the Maven local repository: the maven.repo.local system property, or ~/.m2/repository.
+     */
+    public static Path defaultLocalRepository() {
+        String configured = System.getProperty("maven.repo.local");
+        if (configured != null && !configured.isBlank()) {
+            return Paths.get(configured);
+        }
+        return Paths.get(System.getProperty("user.home"), ".m2", "repository");
+    }
+
+    /**
+     * Replaces the build outputs of the project with the ones of the cache entry of the input key, and installs
+     * its artifacts in the local repository. Returns false when there is no valid entry for the key.
+     */
+    public boolean restore(ProjectDetector.ProjectInfo project, String inputKey) {
+        Path entry = entryDirectory(inputKey);
+        List<ManifestLine> manifest = readManifest(entry);
+        if (manifest == null) {
+            return false;
+        }
+        if (!isIntact(entry, manifest)) {
+            logger.warn("Evicting modified build cache entry {} of project: {}", inputKey, project.getName());
+            deleteQuietly(entry);
+            return false;
+        }
+
+        Path projectDir = project.projectDir().toPath();
+        try {
+            // Same effect as the clean goal: no stale output survives next to the restored one
+            for (Path outputDirectory : findOutputDirectories(projectDir, project.type())) {
+                deleteRecursively(outputDirectory);
+            }
+            for (ManifestLine line : manifest) {
+                Path target = line.repository()
+                        ? localRepository.resolve(line.relativePath())
+                        : projectDir.resolve(line.relativePath());
+                link(entry.resolve(line.entryPath()), target);
+            }
+            return true;
+        } catch (IOException e) {
+            logger.warn("Could not restore build cache entry of project: {} - {}", project.getName(), e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Stores the outputs of a successful build under its input key.
+     *
+     * @param buildStartMillis when the build started: the artifacts installed since then belong to the build
+     */
+    public void store(ProjectDetector.ProjectInfo project, ProjectCoordinates coordinates, String inputKey,
+                      long buildStartMillis) {
+        Path entry = entryDirectory(inputKey);
+        if (Files.isDirectory(entry)) {
+            return;
+        }
+        Path projectDir = project.projectDir().toPath();
+        // Written aside and moved in place, so concurrent runs never see a partial entry
+        Path staging = entry.resolveSibling(inputKey + ".tmp-" + UUID.randomUUID());
+        try {
+            List<ManifestLine> manifest = new ArrayList<>();
+            for (Path outputDirectory : findOutputDirectories(projectDir, project.type())) {
+                copyTree(outputDirectory, projectDir, staging, false, manifest);
+            }
+            if (project.type() == ProjectDetector.ProjectType.MAVEN && coordinates != null) {
+                for (Path installed : findInstalledArtifacts(localRepository, coordinates, buildStartMillis)) {
+                    copyTree(installed, localRepository, staging, true, manifest);
+                }
+            }
+            writeManifest(staging, manifest);
+            try {
+                Files.move(staging, entry, StandardCopyOption.ATOMIC_MOVE);
+                logger.debug("Stored {} file(s) of project {} in build cache entry {}", manifest.size(),
+                        project.getName(), inputKey);
+            } catch (IOException e) {
+                if (!Files.isDirectory(entry)) {
+                    throw e;
+                }
+                // Stored meanwhile by another run
+                deleteQuietly(staging);
+            }
+        } catch (IOException e) {
+            logger.warn("Could not store project {} in the build cache: {}", project.getName(), e.getMessage());
+            deleteQuietly(staging);
+        }
+    }
+
+    private Path entryDirectory(String inputKey) {
+        return cacheDirectory.resolve(inputKey.substring(0, 2)).resolve(inputKey);
+    }
+
+    /**
+     * Finds the output directories of the project and of its Maven modules or Gradle subprojects.
+     */
+    private List<Path> findOutputDirectories(Path projectDir, ProjectDetector.ProjectType type) throws IOException {
+        String outputName = type == ProjectDetector.ProjectType.GRADLE ? GRADLE_OUTPUT : MAVEN_OUTPUT;
+        List<Path> outputDirectories = new ArrayList<>();
+        Files.walkFileTree(projectDir, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                String name = dir.getFileName().toString();
+                if (name.equals(outputName) && isBuildDirectory(dir.getParent(), type)) {
+                    outputDirectories.add(dir);
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+                if (!dir.equals(projectDir) && ProjectFingerprinter.isIgnoredDirectory(dir)) {
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        return outputDirectories;
+    }
+
+    private static boolean isBuildDirectory(Path dir, ProjectDetector.ProjectType type) {
+        if (type == ProjectDetector.ProjectType.GRADLE) {
+            return Files.isRegularFile(dir.resolve("build.gradle")) || Files.isRegularFile(dir.resolve("build.gradle.kts"));
+        }
+        return Files.isRegularFile(dir.resolve("pom.xml"));
+    }
+
+    /**
+     * Finds the version directories of the local repository written by the build, for every artifact it produces.
+     */
+    static List<Path> findInstalledArtifacts(Path localRepository, ProjectCoordinates coordinates,
+                                             long buildStartMillis) throws IOException {
+        List<Path> installed = new ArrayList<>();
+        for (String artifact : coordinates.producedArtifacts()) {
+            int separator = artifact.indexOf(':');
+            String groupId = artifact.substring(0, separator);
+            if (groupId.isEmpty()) {
+                continue;
+            }
+            Path artifactDir = localRepository.resolve(groupId.replace('.', '/')).resolve(artifact.substring(separator + 1));
+            if (!Files.isDirectory(artifactDir)) {
+                continue;
+            }
+            try (DirectoryStream<Path> versions = Files.newDirectoryStream(artifactDir, Files::isDirectory)) {
+                for (Path version : versions) {
+                    if (isModifiedSince(version, buildStartMillis)) {
+                        installed.add(version);
+                    }
+                }
+            }
+        }
+        return installed;
+    }
+
+    private static boolean isModifiedSince(Path dir, long millis) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.anyMatch(file -> {
+                try {
+                    return Files.getLastModifiedTime(file).toMillis() >= millis;
+                } catch (IOException e) {
+                    return false;
+                }
+            });
+        }
+    }
+
+    private static void copyTree(Path source, Path base, Path staging, boolean repository, List<ManifestLine> manifest)
+            throws IOException {
+        String area = repository ? REPOSITORY_DIRECTORY : OUTPUTS_DIRECTORY;
+        Files.walkFileTree(source, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                if (!attrs.isRegularFile()) {
+                    return FileVisitResult.CONTINUE;
+                }
+                String relativePath = base.relativize(file).toString().replace('\\', '/');
+                Path target = staging.resolve(area).resolve(relativePath);
+                Files.createDirectories(target.getParent());
+                Files.copy(file, target, StandardCopyOption.COPY_ATTRIBUTES);
+                manifest.add(new ManifestLine(repository, Files.size(target),
+                        Files.getLastModifiedTime(target).toMillis(), relativePath));
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private boolean isIntact(Path entry, List<ManifestLine> manifest) {
+        for (ManifestLine line : manifest) {
+            Path file = entry.resolve(line.entryPath());
+            try {
+                BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                if (attributes.size() != line.size() || attributes.lastModifiedTime().toMillis() != line.lastModified()) {
+                    return false;
+                }
+            } catch (IOException e) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void link(Path source, Path target) throws IOException {
+        Files.createDirectories(target.getParent());
+        Files.deleteIfExists(target);
+        if (linksSupported) {
+            try {
+                Files.createLink(target, source);
+                return;
+            } catch (IOException | UnsupportedOperationException e) {
+                logger.info("Hard links from the build cache are not possible ({}), copying files instead", e.getMessage());
+                linksSupported = false;
+            }
+        }
+        Files.copy(source, target, StandardCopyOption.COPY_ATTRIBUTES);
+    }
+
+    private static void writeManifest(Path staging, List<ManifestLine> manifest) throws IOException {
+        Files.createDirectories(staging);
+        try (BufferedWriter writer = Files.newBufferedWriter(staging.resolve(MANIFEST_FILE), StandardCharsets.UTF_8)) {
+            for (ManifestLine line : manifest) {
+                // Format: area<TAB>size<TAB>lastModified<TAB>relativePath
+                writer.write((line.repository() ? REPOSITORY_DIRECTORY : OUTPUTS_DIRECTORY) + "\t" + line.size() + "\t"
+                        + line.lastModified() + "\t" + line.relativePath());
+                writer.newLine();
+            }
+        }
+    }
+
+    private static List<ManifestLine> readManifest(Path entry) {
+        Path manifestFile = entry.resolve(MANIFEST_FILE);
+        if (!Files.isRegularFile(manifestFile)) {
+            return null;
+        }
+        List<ManifestLine> manifest = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(manifestFile, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] parts = line.split("\t", 4);
+                if (parts.length != 4) {
+                    return null;
+                }
+                manifest.add(new ManifestLine(REPOSITORY_DIRECTORY.equals(parts[0]), Long.parseLong(parts[1]),
+                        Long.parseLong(parts[2]), parts[3]));
+            }
+        } catch (IOException | NumberFormatException e) {
+            logger.debug("Ignoring unreadable build cache entry {}: {}", entry, e.getMessage());
+            return null;
+        }
+        return manifest;
+    }
+
+    private static void deleteRecursively(Path root) throws IOException {
+        if (!Files.exists(root)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(root)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    private static void deleteQuietly(Path root) {
+        try {
+            deleteRecursively(root);
+        } catch (IOException e) {
+            logger.debug("Could not delete {}: {}", root, e.getMessage());
+        }
+    }
+
+    private record ManifestLine(boolean repository, long size, long lastModified, String relativePath) {
+
+        String entryPath() {
+            return (repository ? REPOSITORY_DIRECTORY : OUTPUTS_DIRECTORY) + "/" + relativePath;
+        }
+    }
+}
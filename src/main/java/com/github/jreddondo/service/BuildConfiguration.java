@@ -0,0 +1,192 @@
+package com.github.jreddondo.service;
+
+import com.github.jreddondo.model.BuildSettings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Build settings of the projects, read from multiple-builder.properties files: one in the root directory for all
+ * projects, and optionally one in a project directory overriding it for that project. Settings are keyed by build
+ * tool, e.g.:
+ * <pre>
+ * preset=fast
+ * maven.goals=install
+ * maven.args=-o -T 1C
+ * maven.opts=-Xmx2g
+ * maven.env.JAVA_HOME=/opt/jdk-21
+ * gradle.goals=build
+ * gradle.args=--parallel --build-cache
+ * gradle.opts=-Xmx1g
+ * </pre>
+ * The settings of the preset are used for every key that is not set.
+ */
+public class BuildConfiguration {
+    public static final String CONFIG_FILE = "multiple-builder.properties";
+    public static final String DEFAULT_PRESET = "default";
+    public static final String FAST_PRESET = "fast";
+    public static final List<String> PRESETS = List.of(DEFAULT_PRESET, FAST_PRESET);
+    private static final Logger logger = LoggerFactory.getLogger(BuildConfiguration.class);
+    private static final String PRESET_KEY = "preset";
+    private static final String GOALS_KEY = "goals";
+    private static final String ARGS_KEY = "args";
+    private static final String OPTS_KEY = "opts";
+    private static final String ENV_PREFIX = "env.";
+
+    private final String preset;
+    private final Properties rootProperties;
+    private final Map<Path, BuildSettings> projectSettings = new ConcurrentHashMap<>();
+
+    private BuildConfiguration(String preset, Properties rootProperties) {
+        this.preset = preset;
+        this.rootProperties = rootProperties;
+    }
+
+    /**
+     * Returns the configuration of the built-in default preset, as used when no configuration file exists.
+     */
+    public static BuildConfiguration defaults() {
+        return new BuildConfiguration(DEFAULT_PRESET, new Properties());
+    }
+
+    /**
+     * Loads the root configuration file.
+     *
+     * @param configFile root configuration file, which may not exist
+     * @param preset     preset overriding the one of the configuration file, or null
+     * @throws IllegalArgumentException when the file cannot be read or a preset is unknown
+     */
+    public static BuildConfiguration load(Path configFile, String preset) {
+        Properties properties = Files.isRegularFile(configFile) ? read(configFile) : new Properties();
+        String effectivePreset = preset != null ? preset : properties.getProperty(PRESET_KEY, DEFAULT_PRESET);
+        effectivePreset = effectivePreset.trim().toLowerCase(Locale.ROOT);
+        if (!PRESETS.contains(effectivePreset)) {
+            throw new IllegalArgumentException("Unknown preset '" + effectivePreset + "', expected one of: "
+                    + String.join(", ", PRESETS));
+        }
+        if (!properties.isEmpty()) {
+            logger.info("Using build configuration: {} (preset: {})", configFile.toAbsolutePath(), effectivePreset);
+        }
+        return new BuildConfiguration(effectivePreset, properties);
+    }
+
+    public String getPreset() {
+        return preset;
+    }
+
+    /**
+     * Returns the settings of a project: its own configuration file, then the root configuration file, then the preset.
+     */
+    public BuildSettings resolve(ProjectDetector.ProjectInfo project) {
+        return projectSettings.computeIfAbsent(project.projectDir().toPath(), dir -> {
+            Path projectConfig = dir.resolve(CONFIG_FILE);
+            Properties projectProperties = new Properties();
+            if (Files.isRegularFile(projectConfig)) {
+                try {
+                    projectProperties = read(projectConfig);
+                } catch (IllegalArgumentException e) {
+                    logger.warn("Ignoring build configuration of project {}: {}", project.getName(), e.getMessage());
+                }
+            }
+            return resolve(project.type(), projectProperties);
+        });
+    }
+
+    private BuildSettings resolve(ProjectDetector.ProjectType type, Properties projectProperties) {
+        String tool = type.name().toLowerCase(Locale.ROOT) + ".";
+        BuildSettings presetSettings = presetSettings(type);
+
+        String goals = value(projectProperties, tool + GOALS_KEY);
+        String args = value(projectProperties, tool + ARGS_KEY);
+        String opts = value(projectProperties, tool + OPTS_KEY);
+
+        SortedMap<String, String> environment = new TreeMap<>(presetSettings.environment());
+        addEnvironment(environment, rootProperties, tool);
+        addEnvironment(environment, projectProperties, tool);
+
+        return new BuildSettings(
+                goals != null ? split(goals) : presetSettings.goals(),
+                args != null ? split(args) : presetSettings.arguments(),
+                opts != null && !opts.isBlank() ? opts.trim() : presetSettings.jvmOptions(),
+                environment);
+    }
+
+    /**
+     * Returns the value of a key in the project properties, falling back to the root properties.
+     */
+    private String value(Properties projectProperties, String key) {
+        String value = projectProperties.getProperty(key);
+        return value != null ? value : rootProperties.getProperty(key);
+    }
+
+    private static void addEnvironment(Map<String, String> environment, Properties properties, String tool) {
+        String prefix = tool + ENV_PREFIX;
+        for (String key : properties.stringPropertyNames()) {
+            if (key.startsWith(prefix) && key.length() > prefix.length()) {
+                environment.put(key.substring(prefix.length()), properties.getProperty(key).trim());
+            }
+        }
+    }
+
+    private BuildSettings presetSettings(ProjectDetector.ProjectType type) {
+        boolean fast = FAST_PRESET.equals(preset);
+        return switch (type) {
+            // Without clean, the build tools only recompile what changed; -T 1C builds reactor modules in parallel.
+            // The Gradle configuration cache is left out: older Gradle versions and many plugins do not support it
+            case MAVEN -> fast
+                    ? new BuildSettings(List.of("install"), List.of("-T", "1C"), null, new TreeMap<>())
+                    : new BuildSettings(List.of("clean", "install"), List.of(), null, new TreeMap<>());
+            case GRADLE -> fast
+                    ? new BuildSettings(List.of("build"),
+                    List.of("--parallel", "--build-cache"), null, new TreeMap<>())
+                    : new BuildSettings(List.of("clean", "build"), List.of(), null, new TreeMap<>());
+            default -> throw new IllegalArgumentException(ProjectBuilder.CANNOT_BUILD_UNKNOWN_PROJECT_TYPE);
+        };
+    }
+
+    private static List<String> split(String value) {
+        String trimmed = value.trim();
+        return trimmed.isEmpty() ? List.of() : Arrays.asList(trimmed.split("\\s+"));
+    }
+
+    private static Properties read(Path file) {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Cannot read build configuration " + file + ": " + e.getMessage(), e);
+        }
+        for (String key : properties.stringPropertyNames()) {
+            if (!isKnownKey(key)) {
+                logger.warn("Unknown build configuration key '{}' in {}", key, file);
+            }
+        }
+        return properties;
+    }
+
+    private static boolean isKnownKey(String key) {
+        if (key.equals(PRESET_KEY)) {
+            return true;
+        }
+        for (String tool : List.of("maven.", "gradle.")) {
+            if (key.equals(tool + GOALS_KEY) || key.equals(tool + ARGS_KEY) || key.equals(tool + OPTS_KEY)
+                    || key.startsWith(tool + ENV_PREFIX)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
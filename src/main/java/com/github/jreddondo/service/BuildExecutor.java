@@ -0,0 +1,28 @@
+package com.github.jreddondo.service;
+
+import com.github.jreddondo.model.BuildResult;
+import com.github.jreddondo.model.BuildStatus;
+
+/**
+ * Runs the build of a single project, in this process or elsewhere, and reports its result.
+ */
+public interface BuildExecutor {
+
+    /**
+     * Builds the project with the configured goals and waits for the result. Failures are reported in the result.
+     */
+    BuildResult buildProject(ProjectDetector.ProjectInfo projectInfo);
+
+    /**
+     * Stops all running builds, reporting them with the given status, and makes every build started afterwards in
+     * the same run finish immediately with that status.
+     */
+    void cancelAll(BuildStatus status, String reason);
+
+    /**
+     * Starts a new run: builds are no longer cancelled by a {@link #cancelAll} of the previous run, and the output
+     * files of the previous run are reused. Called before the first build of every run, e.g. of every watch mode
+     * rebuild.
+     */
+    void startRun();
+}
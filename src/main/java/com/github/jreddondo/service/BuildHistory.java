@@ -0,0 +1,112 @@
+package com.github.jreddondo.service;
+
+import com.github.jreddondo.model.BuildResult;
+import com.github.jreddondo.model.BuildStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Durations and outcomes of the previous builds of each project, persisted in the state directory of the log path.
+ * The predicted duration of a project is an exponentially weighted moving average of its successful build durations.
+ */
+public class BuildHistory {
+    private static final Logger logger = LoggerFactory.getLogger(BuildHistory.class);
+    private static final String HISTORY_FILE = "build-history.tsv";
+    // Weight of the latest duration in the moving average
+    private static final double SMOOTHING = 0.3;
+
+    private final Path historyFile;
+    private final Map<String, Entry> entries = new TreeMap<>();
+
+    private BuildHistory(Path historyFile) {
+        this.historyFile = historyFile;
+    }
+
+    public static BuildHistory open(File logPath) {
+        BuildHistory history = new BuildHistory(BuildStateStore.stateDirectory(logPath).resolve(HISTORY_FILE));
+        if (Files.isRegularFile(history.historyFile)) {
+            try (BufferedReader reader = Files.newBufferedReader(history.historyFile, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    history.parseLine(line);
+                }
+            } catch (IOException e) {
+                logger.warn("Could not read build history: {}", e.getMessage());
+                history.entries.clear();
+            }
+        }
+        return history;
+    }
+
+    private void parseLine(String line) {
+        // Format: averageMs<TAB>lastMs<TAB>lastStatus<TAB>successes<TAB>failures<TAB>projectPath
+        String[] parts = line.split("\t", 6);
+        if (parts.length != 6) {
+            return;
+        }
+        try {
+            entries.put(parts[5], new Entry(Long.parseLong(parts[0]), Long.parseLong(parts[1]),
+                    BuildStatus.valueOf(parts[2]), Integer.parseInt(parts[3]), Integer.parseInt(parts[4])));
+        } catch (IllegalArgumentException e) {
+            logger.debug("Ignoring invalid build history line: {}", line);
+        }
+    }
+
+    /**
+     * Returns the predicted duration of the next build of a project, or {@link BuildResult#NO_PREDICTION}
+     * when it never built successfully.
+     */
+    public synchronized long predictDuration(String projectPath) {
+        Entry entry = entries.get(projectPath);
+        return entry == null || entry.successes() == 0 ? BuildResult.NO_PREDICTION : entry.averageMs();
+    }
+
+    public synchronized void record(BuildResult result) {
+        // Only builds that actually ran tell something about the duration of the project
+        if (result.status() != BuildStatus.SUCCESS && result.status() != BuildStatus.FAILED) {
+            return;
+        }
+        Entry previous = entries.get(result.projectPath());
+        boolean success = result.status() == BuildStatus.SUCCESS;
+        long average;
+        if (!success) {
+            average = previous != null ? previous.averageMs() : 0;
+        } else if (previous == null || previous.successes() == 0) {
+            average = result.durationMs();
+        } else {
+            average = Math.round(SMOOTHING * result.durationMs() + (1 - SMOOTHING) * previous.averageMs());
+        }
+        int successes = (previous != null ? previous.successes() : 0) + (success ? 1 : 0);
+        int failures = (previous != null ? previous.failures() : 0) + (success ? 0 : 1);
+        entries.put(result.projectPath(), new Entry(average, result.durationMs(), result.status(), successes, failures));
+    }
+
+    public synchronized void save() {
+        try {
+            Files.createDirectories(historyFile.getParent());
+            try (BufferedWriter writer = Files.newBufferedWriter(historyFile, StandardCharsets.UTF_8)) {
+                for (Map.Entry<String, Entry> mapEntry : entries.entrySet()) {
+                    Entry entry = mapEntry.getValue();
+                    writer.write(entry.averageMs() + "\t" + entry.lastMs() + "\t" + entry.lastStatus() + "\t"
+                            + entry.successes() + "\t" + entry.failures() + "\t" + mapEntry.getKey());
+                    writer.newLine();
+                }
+            }
+        } catch (IOException e) {
+            logger.error("Failed to save build history", e);
+        }
+    }
+
+    private record Entry(long averageMs, long lastMs, BuildStatus lastStatus, int successes, int failures) {
+    }
+}
@@ -0,0 +1,212 @@
+package com.github.jreddondo.service;
+
+import com.github.jreddondo.model.BuildResult;
+import com.github.jreddondo.model.BuildStatus;
+import com.github.jreddondo.model.FailureCategory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Journal of the results of a run, kept in the .multiple-builder directory of the log path. Every result is appended
+ * as soon as it is known, so that a run that was killed or failed can be resumed without building again the projects
+ * that already built successfully.
+ */
+public class BuildJournal implements BuildListener, Closeable {
+    private static final Logger logger = LoggerFactory.getLogger(BuildJournal.class);
+    private static final String JOURNAL_FILE = "build-journal.tsv";
+    private static final String HEADER = "# multiple-builder build journal";
+    private static final int FIELDS = 9;
+
+    private final Path journalFile;
+    private final Map<String, BuildResult> previousResults;
+    private final BufferedWriter writer;
+    private boolean failed;
+
+    private BuildJournal(Path journalFile, Map<String, BuildResult> previousResults, BufferedWriter writer) {
+        this.journalFile = journalFile;
+        this.previousResults = previousResults;
+        this.writer = writer;
+    }
+
+    /**
+     * Starts the journal of a new run, discarding the previous one.
+     */
+    public static BuildJournal create(File logPath) throws IOException {
+        Path journalFile = BuildStateStore.stateDirectory(logPath).resolve(JOURNAL_FILE);
+        Files.createDirectories(journalFile.getParent());
+        BufferedWriter writer = Files.newBufferedWriter(journalFile, StandardCharsets.UTF_8);
+        writer.write(HEADER);
+        writer.newLine();
+        writer.flush();
+        return new BuildJournal(journalFile, Map.of(), writer);
+    }
+
+    /**
+     * Continues the journal of the previous run: its results are loaded, the last result of a project winning, and
+     * the results of this run are appended to them.
+     */
+    public static BuildJournal resume(File logPath) throws IOException {
+        Path journalFile = BuildStateStore.stateDirectory(logPath).resolve(JOURNAL_FILE);
+        if (!Files.isRegularFile(journalFile)) {
+            logger.warn("No build journal to resume in {}, building all projects", journalFile.getParent());
+            return create(logPath);
+        }
+        Map<String, BuildResult> previousResults = load(journalFile);
+
+        // Compacted to the last result of every project, so that the journal does not grow with every resumed run
+        Path compacted = journalFile.resolveSibling(JOURNAL_FILE + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(compacted, StandardCharsets.UTF_8)) {
+            writer.write(HEADER);
+            writer.newLine();
+            for (BuildResult result : previousResults.values()) {
+                writer.write(format(result));
+                writer.newLine();
+            }
+        }
+        Files.move(compacted, journalFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        BufferedWriter writer = Files.newBufferedWriter(journalFile, StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+        return new BuildJournal(journalFile, previousResults, writer);
+    }
+
+    /**
+     * Returns the successful results of the resumed run, keyed by project path.
+     */
+    public Map<String, BuildResult> successfulResults() {
+        Map<String, BuildResult> successful = new LinkedHashMap<>();
+        previousResults.forEach((projectPath, result) -> {
+            if (result.success()) {
+                successful.put(projectPath, result);
+            }
+        });
+        return successful;
+    }
+
+    @Override
+    public void onResult(BuildResult result) {
+        BuildResult previous = previousResults.get(result.projectPath());
+        if (failed || (previous != null && previous.success())) {
+            // Successful projects are not built again, their result is already in the journal
+            return;
+        }
+        try {
+            writer.write(format(result));
+            writer.newLine();
+            // Flushed every result, so that the journal survives the process being killed
+            writer.flush();
+        } catch (IOException e) {
+            logger.warn("Failed to write the build journal {}, this run cannot be resumed: {}", journalFile,
+                    e.getMessage());
+            failed = true;
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            writer.close();
+        } catch (IOException e) {
+            logger.warn("Failed to close the build journal {}: {}", journalFile, e.getMessage());
+        }
+    }
+
+    private static Map<String, BuildResult> load(Path journalFile) throws IOException {
+        Map<String, BuildResult> results = new LinkedHashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(journalFile, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                BuildResult result = parse(line);
+                if (result != null) {
+                    results.put(result.projectPath(), result);
+                } else {
+                    // A line cut short by the process being killed while writing it
+                    logger.debug("Ignoring unreadable build journal line: {}", line);
+                }
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Format: status, path, name, type, duration, attempts, failure category, output log and error message,
+     * separated by tabs. Timings are not kept: they are relative to the start of the run that measured them.
+     */
+    private static String format(BuildResult result) {
+        return String.join("\t", result.status().name(), escape(result.projectPath()), escape(result.projectName()),
+                result.buildType(), String.valueOf(result.durationMs()), String.valueOf(result.attempts()),
+                result.failureCategory() != null ? result.failureCategory().name() : "",
+                escape(result.outputLog()), escape(result.errorMessage()));
+    }
+
+    private static BuildResult parse(String line) {
+        String[] fields = line.split("\t", -1);
+        if (fields.length != FIELDS) {
+            return null;
+        }
+        try {
+            return new BuildResult(unescape(fields[2]), unescape(fields[1]), BuildStatus.valueOf(fields[0]), fields[3],
+                    Long.parseLong(fields[4]), unescape(fields[8]), unescape(fields[7]), BuildResult.NO_PREDICTION,
+                    null, fields[6].isEmpty() ? null : FailureCategory.valueOf(fields[6]), Integer.parseInt(fields[5]));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Escapes the separators of the journal. Values are prefixed with '=', so that null is told apart from an empty
+     * value by being written as an empty field.
+     */
+    private static String escape(String value) {
+        if (value == null) {
+            return "";
+        }
+        StringBuilder escaped = new StringBuilder(value.length() + 1).append('=');
+        for (char c : value.toCharArray()) {
+            switch (c) {
+                case '\\' -> escaped.append("\\\\");
+                case '\t' -> escaped.append("\\t");
+                case '\n' -> escaped.append("\\n");
+                case '\r' -> escaped.append("\\r");
+                default -> escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+
+    private static String unescape(String field) {
+        if (field.isEmpty()) {
+            return null;
+        }
+        StringBuilder value = new StringBuilder(field.length());
+        for (int i = 1; i < field.length(); i++) {
+            char c = field.charAt(i);
+            if (c == '\\' && i + 1 < field.length()) {
+                char next = field.charAt(++i);
+                value.append(switch (next) {
+                    case 't' -> '\t';
+                    case 'n' -> '\n';
+                    case 'r' -> '\r';
+                    default -> next;
+                });
+            } else {
+                value.append(c);
+            }
+        }
+        return value.toString();
+    }
+}
@@ -0,0 +1,31 @@
+package com.github.jreddondo.service;
+
+import com.github.jreddondo.model.BuildResult;
+
+import java.util.List;
+
+/**
+ * Receives the result of every project as soon as it is resolved, while the other projects are still building.
+ * Results and the other notifications are delivered one at a time from the scheduling thread, in completion order.
+ */
+@FunctionalInterface
+public interface BuildListener {
+
+    void onResult(BuildResult result);
+
+    /**
+     * Called before the first build of a run.
+     *
+     * @param predictedDurationsMs predicted duration of every project, in the same order, or
+     *                             {@link BuildResult#NO_PREDICTION}
+     * @param workers              number of builds running at a time
+     */
+    default void onRunStarted(List<ProjectDetector.ProjectInfo> projects, long[] predictedDurationsMs, int workers) {
+    }
+
+    /**
+     * Called when a project is handed to a worker, before it is built or restored.
+     */
+    default void onBuildStarted(ProjectDetector.ProjectInfo project) {
+    }
+}
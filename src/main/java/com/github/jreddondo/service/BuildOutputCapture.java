@@ -0,0 +1,170 @@
+package com.github.jreddondo.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Copies the output of a build process to its own file on a dedicated thread.
+ * The output is moved as raw bytes through a fixed direct buffer, so memory stays bounded regardless of how
+ * much the build prints, and it is only decoded into lines when the debug log of the builder is enabled.
+ */
+public class BuildOutputCapture {
+    // Build output keeps being logged under the builder's logger, as before it was captured to files
+    private static final Logger logger = LoggerFactory.getLogger(ProjectBuilder.class);
+    private static final int BUFFER_SIZE = 256 * 1024;
+    private static final int MAX_LOGGED_LINE_LENGTH = 8 * 1024;
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger(1);
+    private static final ExecutorService PUMP_EXECUTOR = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "build-output-" + THREAD_COUNTER.getAndIncrement());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final String projectName;
+    private final Path outputFile;
+    private final BuildPhaseRecorder phaseRecorder;
+    private CompletableFuture<Long> pump;
+
+    /**
+     * @param projectName name used to prefix the debug log lines
+     * @param outputFile  file receiving the output, or null to only log it
+     */
+    public BuildOutputCapture(String projectName, Path outputFile) {
+        this(projectName, outputFile, null);
+    }
+
+    /**
+     * @param projectName   name used to prefix the debug log lines
+     * @param outputFile    file receiving the output, or null to only log it
+     * @param phaseRecorder recorder of the build steps found in the output, or null
+     */
+    public BuildOutputCapture(String projectName, Path outputFile, BuildPhaseRecorder phaseRecorder) {
+        this.projectName = projectName;
+        this.outputFile = outputFile;
+        this.phaseRecorder = phaseRecorder;
+    }
+
+    public Path getOutputFile() {
+        return outputFile;
+    }
+
+    public void start(InputStream processOutput) {
+        pump = CompletableFuture.supplyAsync(() -> {
+            try {
+                return copy(processOutput);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, PUMP_EXECUTOR);
+    }
+
+    /**
+     * Waits until the process output has been fully copied and returns the number of bytes read.
+     */
+    public long await() throws InterruptedException, IOException {
+        return await(null);
+    }
+
+    /**
+     * Waits at most the given time for the process output to be fully copied, e.g. after killing the process,
+     * when an orphaned child process could keep the output open. Returns -1 if the copy did not finish in time.
+     */
+    public long await(Duration maxWait) throws InterruptedException, IOException {
+        try {
+            return maxWait == null ? pump.get() : pump.get(maxWait.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            logger.warn("[{}] Output still open {}ms after the build ended, no longer captured", projectName,
+                    maxWait.toMillis());
+            return -1;
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof UncheckedIOException unchecked) {
+                throw unchecked.getCause();
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    private long copy(InputStream processOutput) throws IOException {
+        LineLogger lineLogger = logger.isDebugEnabled() ? new LineLogger() : null;
+        ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        long total = 0;
+
+        try (ReadableByteChannel source = Channels.newChannel(processOutput);
+             FileChannel target = outputFile != null
+                     ? FileChannel.open(outputFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                     StandardOpenOption.TRUNCATE_EXISTING)
+                     : null) {
+            int read;
+            while ((read = source.read(buffer)) != -1) {
+                if (read == 0) {
+                    continue;
+                }
+                total += read;
+                buffer.flip();
+                if (phaseRecorder != null) {
+                    phaseRecorder.accept(buffer.duplicate(), System.nanoTime());
+                }
+                if (lineLogger != null) {
+                    lineLogger.accept(buffer.duplicate());
+                }
+                if (target != null) {
+                    while (buffer.hasRemaining()) {
+                        target.write(buffer);
+                    }
+                }
+                buffer.clear();
+            }
+            if (lineLogger != null) {
+                lineLogger.flush();
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Splits the output into lines for the debug log, only used when debug logging is enabled.
+     */
+    private final class LineLogger {
+        private final ByteArrayOutputStream line = new ByteArrayOutputStream(256);
+        private final Charset charset = Charset.defaultCharset();
+
+        void accept(ByteBuffer bytes) {
+            while (bytes.hasRemaining()) {
+                byte value = bytes.get();
+                if (value == '\n') {
+                    flush();
+                } else if (value != '\r' && line.size() < MAX_LOGGED_LINE_LENGTH) {
+                    line.write(value);
+                }
+            }
+        }
+
+        void flush() {
+            if (line.size() > 0) {
+                logger.debug("[{}] {}", projectName, line.toString(charset));
+                line.reset();
+            }
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.github.jreddondo.service;
+
+import com.github.jreddondo.model.BuildPhase;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Finds the boundaries of the build steps in the raw output of a build, as it is copied: Maven plugin goal
+ * executions ("[INFO] --- compiler:3.11.0:compile (default-compile) @ app ---") and Gradle tasks ("> Task :compileJava").
+ * Lines are matched on their bytes, so only the name of a recognized step is ever decoded into a String.
+ * A step lasts until the next one starts; the time spent before the first step (JVM startup, build model loading,
+ * Gradle configuration) is reported as the "initialization" step.
+ */
+public class BuildPhaseRecorder {
+    public static final String INITIALIZATION_PHASE = "initialization";
+    private static final byte[] MAVEN_PREFIX = "[INFO] --- ".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] MAVEN_SUFFIX = " ---".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] GRADLE_PREFIX = "> Task ".getBytes(StandardCharsets.US_ASCII);
+    // Step header lines are short, longer lines are skipped without being buffered
+    private static final int MAX_LINE_LENGTH = 512;
+
+    private final long startNanos;
+    private final byte[] line = new byte[MAX_LINE_LENGTH];
+    private final List<BuildPhase> phases = new ArrayList<>();
+    private int lineLength;
+    private boolean lineTooLong;
+    private long firstOutputNanos = -1;
+    private String currentPhase;
+    private long currentPhaseStart;
+
+    /**
+     * @param startNanos System.nanoTime() when the build tool was launched
+     */
+    public BuildPhaseRecorder(long startNanos) {
+        this.startNanos = startNanos;
+    }
+
+    /**
+     * Scans a chunk of output read at the given System.nanoTime().
+     */
+    public synchronized void accept(ByteBuffer bytes, long nanos) {
+        if (firstOutputNanos < 0 && bytes.hasRemaining()) {
+            firstOutputNanos = nanos;
+        }
+        while (bytes.hasRemaining()) {
+            byte value = bytes.get();
+            if (value == '\n') {
+                endLine(nanos);
+            } else if (value != '\r') {
+                if (lineLength < MAX_LINE_LENGTH) {
+                    line[lineLength++] = value;
+                } else {
+                    lineTooLong = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns System.nanoTime() when the first output was read, or -1 when the build printed nothing.
+     */
+    public synchronized long getFirstOutputNanos() {
+        return firstOutputNanos;
+    }
+
+    /**
+     * Returns the recognized steps, the last one ending at the given System.nanoTime().
+     * The list is empty when the output holds no step boundary.
+     */
+    public synchronized List<BuildPhase> finish(long endNanos) {
+        endLine(endNanos);
+        List<BuildPhase> result = new ArrayList<>(phases);
+        if (currentPhase != null) {
+            result.add(new BuildPhase(currentPhase, currentPhaseStart, Math.max(0, endNanos - currentPhaseStart)));
+        }
+        return result;
+    }
+
+    private void endLine(long nanos) {
+        String phase = lineTooLong ? null : parsePhaseName();
+        lineLength = 0;
+        lineTooLong = false;
+        if (phase == null) {
+            return;
+        }
+        if (currentPhase == null) {
+            phases.add(new BuildPhase(INITIALIZATION_PHASE, startNanos, nanos - startNanos));
+        } else {
+            phases.add(new BuildPhase(currentPhase, currentPhaseStart, nanos - currentPhaseStart));
+        }
+        currentPhase = phase;
+        currentPhaseStart = nanos;
+    }
+
+    private String parsePhaseName() {
+        if (startsWith(MAVEN_PREFIX) && endsWith(MAVEN_SUFFIX)) {
+            // The first token is plugin:version:goal, the version is dropped to compare runs across upgrades
+            String mojo = token(MAVEN_PREFIX.length);
+            if (mojo == null) {
+                return null;
+            }
+            int first = mojo.indexOf(':');
+            int last = mojo.lastIndexOf(':');
+            return first > 0 && last > first ? mojo.substring(0, first) + mojo.substring(last) : mojo;
+        }
+        if (startsWith(GRADLE_PREFIX)) {
+            // The task path may be followed by its outcome, e.g. "UP-TO-DATE"
+            return token(GRADLE_PREFIX.length);
+        }
+        return null;
+    }
+
+    private String token(int from) {
+        int end = from;
+        while (end < lineLength && line[end] != ' ') {
+            end++;
+        }
+        if (end == from) {
+            return null;
+        }
+        return new String(line, from, end - from, StandardCharsets.UTF_8);
+    }
+
+    private boolean startsWith(byte[] prefix) {
+        if (lineLength < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (line[i] != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean endsWith(byte[] suffix) {
+        if (lineLength < suffix.length) {
+            return false;
+        }
+        int offset = lineLength - suffix.length;
+        for (int i = 0; i < suffix.length; i++) {
+            if (line[offset + i] != suffix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
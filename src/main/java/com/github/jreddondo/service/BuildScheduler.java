@@ -0,0 +1,782 @@
+package com.github.jreddondo.service;
+
+import com.github.jreddondo.model.BuildResult;
+import com.github.jreddondo.model.BuildStatus;
+import com.github.jreddondo.util.DurationConverter;
+import com.github.jreddondo.util.SystemResources;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+public class BuildScheduler {
+    public static final String AUTO_PARALLELISM = "auto";
+    private static final Logger logger = LoggerFactory.getLogger(BuildScheduler.class);
+    // Rough footprint of a single Maven/Gradle JVM plus its forked compiler and test JVMs
+    private static final long ESTIMATED_BUILD_MEMORY_BYTES = 1536L * 1024 * 1024;
+
+    private final BuildExecutor buildExecutor;
+    private final int parallelism;
+    private final List<BuildListener> listeners = new ArrayList<>();
+    private final List<AggregatedBuilder> aggregatedBuilders = new ArrayList<>();
+    private IncrementalBuildTracker incrementalTracker;
+    private boolean skipUpToDate;
+    private BuildCache buildCache;
+    private BuildHistory buildHistory;
+    private boolean failFast;
+    private Duration globalTimeout;
+    private RetryPolicy retryPolicy;
+    private Map<String, BuildResult> resumedResults = Map.of();
+    private CountDownLatch retriesStopped;
+
+    public BuildScheduler(BuildExecutor buildExecutor, int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1: " + parallelism);
+        }
+        this.buildExecutor = buildExecutor;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Resolves the value of the --parallel option into a number of concurrent builds.
+     * "auto" sizes the pool from the available processors and the memory free for new build JVMs.
+     */
+    public static int resolveParallelism(String value) {
+        if (value == null || value.isBlank()) {
+            return 1;
+        }
+        if (AUTO_PARALLELISM.equalsIgnoreCase(value.trim())) {
+            return autoParallelism();
+        }
+        int parsed;
+        try {
+            parsed = Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid parallelism '" + value + "', expected a positive number or 'auto'");
+        }
+        if (parsed < 1) {
+            throw new IllegalArgumentException("Invalid parallelism '" + value + "', expected a positive number or 'auto'");
+        }
+        return parsed;
+    }
+
+    private static int autoParallelism() {
+        int cores = SystemResources.availableProcessors();
+        long availableMemory = SystemResources.availableMemoryBytes();
+        int byMemory = (int) Math.max(1, availableMemory / ESTIMATED_BUILD_MEMORY_BYTES);
+        int resolved = Math.max(1, Math.min(cores, byMemory));
+        logger.info("Auto parallelism: {} (cores: {}, available memory: {}MB)",
+                resolved, cores, availableMemory / (1024 * 1024));
+        return resolved;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Enables incremental builds: projects whose inputs did not change since their last successful build are skipped.
+     */
+    public void setIncrementalTracker(IncrementalBuildTracker incrementalTracker) {
+        this.incrementalTracker = incrementalTracker;
+        this.skipUpToDate = true;
+    }
+
+    /**
+     * Restores the outputs of the projects whose input key is in the build cache instead of building them,
+     * and stores the outputs of the projects built successfully. The input keys are computed by the given tracker,
+     * which does not make projects be skipped when they are up to date, unless it is also set as incremental tracker.
+     */
+    public void setBuildCache(BuildCache buildCache, IncrementalBuildTracker inputTracker) {
+        this.buildCache = buildCache;
+        if (incrementalTracker == null) {
+            this.incrementalTracker = inputTracker;
+        }
+    }
+
+    /**
+     * Uses the durations of previous builds to start the projects on the longest dependency chains first,
+     * and records the durations of this run.
+     */
+    public void setBuildHistory(BuildHistory buildHistory) {
+        this.buildHistory = buildHistory;
+    }
+
+    /**
+     * Resumes a previous run: the projects whose result in that run is successful are not built again, and their
+     * previous result is reported instead. The results are keyed by project path.
+     */
+    public void setResumedResults(Map<String, BuildResult> resumedResults) {
+        this.resumedResults = resumedResults;
+    }
+
+    /**
+     * Cancels the queued and running builds as soon as one build does not succeed.
+     */
+    public void setFailFast(boolean failFast) {
+        this.failFast = failFast;
+    }
+
+    /**
+     * Limits the duration of the whole run: when it is exceeded, running builds are killed and reported as TIMED_OUT,
+     * and the builds not started yet are reported as CANCELLED.
+     */
+    public void setGlobalTimeout(Duration globalTimeout) {
+        this.globalTimeout = globalTimeout;
+    }
+
+    /**
+     * Builds again the projects whose build failed for one of the causes retried by the policy, before reporting
+     * their result. Builds run by aggregated builders are not retried.
+     */
+    public void setRetryPolicy(RetryPolicy retryPolicy) {
+        this.retryPolicy = retryPolicy;
+    }
+
+    /**
+     * Registers a listener notified of every result as soon as it is known, before the end of the run.
+     */
+    public void addListener(BuildListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Builds the projects selected by the given builder together in one build tool invocation instead of one
+     * invocation per project. The invocation starts once the dependencies of all the selected projects outside of
+     * the invocation are built, and takes one worker.
+     */
+    public void addAggregatedBuilder(AggregatedBuilder aggregatedBuilder) {
+        aggregatedBuilders.add(aggregatedBuilder);
+    }
+
+    /**
+     * Builds all projects of the graph, starting a project as soon as all of its dependencies are built.
+     * Among the projects ready to build, the ones heading the longest predicted chain of dependents (critical path)
+     * are started first, so that long builds do not start last and stretch the end of the run.
+     * Projects depending on a project that did not build successfully are skipped.
+     * Results are returned in detection order, regardless of the order in which the builds complete.
+     */
+    public List<BuildResult> buildAll(DependencyGraph graph) {
+        if (graph.size() == 0) {
+            return new ArrayList<>();
+        }
+        int poolSize = Math.min(parallelism, graph.size());
+        logger.info("Building {} project(s) with {} worker(s)", graph.size(), poolSize);
+
+        if (incrementalTracker != null) {
+            incrementalTracker.prepare(graph);
+        }
+        long[] predictions = predictDurations(graph);
+        long[] criticalPaths = criticalPaths(graph, predictions);
+
+        BuildRun run = new BuildRun(graph, predictions, criticalPaths, selectGroups(graph));
+        retriesStopped = new CountDownLatch(1);
+        // The executor may have been cancelled by a previous run, e.g. a fail-fast before a watch mode rebuild
+        buildExecutor.startRun();
+        notifyListeners(listener -> listener.onRunStarted(graph.getProjects(), predictions.clone(), poolSize),
+                "run start");
+        ExecutorService executor = Executors.newFixedThreadPool(poolSize, new WorkerThreadFactory());
+        CompletionService<List<CompletedBuild>> completionService = new ExecutorCompletionService<>(executor);
+        long deadline = globalTimeout != null ? System.nanoTime() + globalTimeout.toNanos() : 0;
+        int running = 0;
+        try {
+            while (run.hasUnresolved()) {
+                while (!run.isStopped() && running < poolSize && run.hasReady()) {
+                    int index = run.nextReady();
+                    int group = run.group(index);
+                    if (group >= 0) {
+                        if (run.collect(index) && submitGroup(graph, run, group, completionService)) {
+                            running++;
+                        }
+                        continue;
+                    }
+                    BuildResult resolved = resolveWithoutBuilding(graph, index, run);
+                    if (resolved != null) {
+                        run.complete(index, resolved);
+                    } else {
+                        run.markRunning(index);
+                        long readyNanos = run.readyNanos(index);
+                        completionService.submit(() -> List.of(runBuild(graph, index, readyNanos)));
+                        running++;
+                    }
+                }
+                if (running == 0) {
+                    // Projects left without a ready one can only be part of a dependency cycle
+                    if (run.hasUnresolved() && !run.hasReady()) {
+                        run.releaseCycles();
+                    }
+                    continue;
+                }
+                List<CompletedBuild> completedBuilds = awaitCompletion(completionService, run.isStopped() ? 0 : deadline);
+                if (completedBuilds == null) {
+                    String reason = "Global timeout of " + DurationConverter.format(globalTimeout) + " exceeded";
+                    logger.error("{}, cancelling remaining builds", reason);
+                    cancelAll(BuildStatus.TIMED_OUT, reason);
+                    run.cancelPending("Cancelled: " + reason);
+                    continue;
+                }
+                running--;
+                for (CompletedBuild completed : completedBuilds) {
+                    run.complete(completed.index(), completed.result());
+                    if (failFast && !completed.result().success() && !run.isStopped()) {
+                        String reason = "Cancelled: fail-fast after " + completed.result().status()
+                                + " build of " + completed.result().projectName();
+                        logger.error("{}, cancelling remaining builds", reason);
+                        cancelAll(BuildStatus.CANCELLED, reason);
+                        run.cancelPending(reason);
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cancelAll(BuildStatus.CANCELLED, "Build interrupted");
+            run.cancelUnresolved("Build interrupted: " + e.getMessage());
+        } finally {
+            executor.shutdownNow();
+            if (incrementalTracker != null) {
+                incrementalTracker.save();
+            }
+            if (buildHistory != null) {
+                buildHistory.save();
+            }
+        }
+        return run.results();
+    }
+
+    private void cancelAll(BuildStatus status, String reason) {
+        retriesStopped.countDown();
+        buildExecutor.cancelAll(status, reason);
+    }
+
+    /**
+     * Waits for the next build to complete, until the given System.nanoTime() deadline (0 for no deadline).
+     * Returns null when the deadline is reached first.
+     */
+    private List<CompletedBuild> awaitCompletion(CompletionService<List<CompletedBuild>> completionService,
+                                                 long deadline) throws InterruptedException {
+        try {
+            if (deadline == 0) {
+                return completionService.take().get();
+            }
+            Future<List<CompletedBuild>> future = completionService.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+            return future != null ? future.get() : null;
+        } catch (ExecutionException e) {
+            // runBuild turns every failure into a result
+            throw new IllegalStateException("Unexpected build failure", e.getCause());
+        }
+    }
+
+    /**
+     * Assigns the projects selected by every aggregated builder to its group, -1 meaning built on their own.
+     * A project selected by several builders belongs to the first one; a group needs at least two projects.
+     */
+    private List<List<Integer>> selectGroups(DependencyGraph graph) {
+        List<List<Integer>> groups = new ArrayList<>();
+        boolean[] grouped = new boolean[graph.size()];
+        for (AggregatedBuilder aggregatedBuilder : aggregatedBuilders) {
+            List<Integer> members = new ArrayList<>();
+            for (int index : aggregatedBuilder.selectProjects(graph)) {
+                if (!grouped[index]) {
+                    members.add(index);
+                }
+            }
+            members.removeAll(outsideDependents(graph, members, groups));
+            if (members.size() >= 2) {
+                members.forEach(index -> grouped[index] = true);
+                logger.info("Building {} project(s) in one invocation: {}", members.size(),
+                        members.stream().sorted().map(index -> graph.getProject(index).getName()).toList());
+            }
+            groups.add(members.size() >= 2 ? members : List.of());
+        }
+        return groups;
+    }
+
+    /**
+     * Returns the members of a new group depending on another member through a project outside of the group.
+     * The group would wait for that project, which waits for the group: they are left out of the group and built
+     * on their own after it. Previous groups count as one project, as all their members complete together.
+     */
+    private static Set<Integer> outsideDependents(DependencyGraph graph, List<Integer> members,
+                                                  List<List<Integer>> previousGroups) {
+        Set<Integer> memberSet = new HashSet<>(members);
+        Set<Integer> reached = new HashSet<>();
+        Deque<Integer> pending = new ArrayDeque<>();
+        for (int member : members) {
+            for (int dependent : graph.getDependents(member)) {
+                if (!memberSet.contains(dependent)) {
+                    pending.add(dependent);
+                }
+            }
+        }
+        while (!pending.isEmpty()) {
+            int index = pending.poll();
+            if (!reached.add(index)) {
+                continue;
+            }
+            for (List<Integer> previousGroup : previousGroups) {
+                if (previousGroup.contains(index)) {
+                    pending.addAll(previousGroup);
+                }
+            }
+            pending.addAll(graph.getDependents(index));
+        }
+        reached.retainAll(memberSet);
+        if (!reached.isEmpty()) {
+            logger.info("Building {} on their own: they depend on projects depending on other projects of the "
+                    + "same invocation", reached.stream().sorted().map(index -> graph.getProject(index).getName()).toList());
+        }
+        return reached;
+    }
+
+    /**
+     * Resolves the members of a group whose projects are all ready, in build order, and submits the build of the
+     * remaining ones. Returns false when nothing was left to build.
+     */
+    private boolean submitGroup(DependencyGraph graph, BuildRun run, int group,
+                                CompletionService<List<CompletedBuild>> completionService) {
+        List<Integer> toBuild = new ArrayList<>();
+        for (int index : run.collected(group)) {
+            // Members depending on a skipped member are skipped too, as their dependencies are resolved first
+            BuildResult resolved = resolveWithoutBuilding(graph, index, run);
+            if (resolved != null) {
+                run.complete(index, resolved);
+            } else {
+                run.markRunning(index);
+                toBuild.add(index);
+            }
+        }
+        if (toBuild.isEmpty()) {
+            return false;
+        }
+        if (toBuild.size() == 1) {
+            int index = toBuild.get(0);
+            long readyNanos = run.readyNanos(index);
+            completionService.submit(() -> List.of(runBuild(graph, index, readyNanos)));
+        } else {
+            AggregatedBuilder aggregatedBuilder = aggregatedBuilders.get(group);
+            completionService.submit(() -> runAggregatedBuild(graph, aggregatedBuilder, toBuild));
+        }
+        return true;
+    }
+
+    private BuildResult resolveWithoutBuilding(DependencyGraph graph, int index, BuildRun run) {
+        ProjectDetector.ProjectInfo project = graph.getProject(index);
+        String failedDependency = findFailedDependency(graph, index, run);
+        if (failedDependency != null) {
+            String errorMsg = "Skipped: dependency " + failedDependency + " did not build successfully";
+            logger.warn("Build SKIPPED for project: {} - {}", project.getName(), errorMsg);
+            return result(project, BuildStatus.SKIPPED, errorMsg);
+        }
+        BuildResult resumed = resumedResults.get(project.projectDir().getAbsolutePath());
+        if (resumed != null && resumed.success()) {
+            logger.info("Build already {} in the resumed run for project: {}", resumed.status(), project.getName());
+            run.markResumed(index);
+            return resumed;
+        }
+        if (skipUpToDate && incrementalTracker.isUpToDate(index)) {
+            logger.info("Build UP-TO-DATE for project: {}", project.getName());
+            return result(project, BuildStatus.UP_TO_DATE, null);
+        }
+        return null;
+    }
+
+    private String findFailedDependency(DependencyGraph graph, int index, BuildRun run) {
+        for (int dependency : graph.getDependencies(index)) {
+            // Dependencies without a result yet are part of a dependency cycle
+            BuildResult dependencyResult = run.result(dependency);
+            if (dependencyResult != null && !dependencyResult.success()) {
+                return graph.getProject(dependency).getName();
+            }
+        }
+        return null;
+    }
+
+    private CompletedBuild runBuild(DependencyGraph graph, int index, long readyNanos) {
+        ProjectDetector.ProjectInfo project = graph.getProject(index);
+        long queueWait = System.nanoTime() - readyNanos;
+        try {
+            String inputKey = buildCache != null ? incrementalTracker.getInputKey(index) : null;
+            if (inputKey != null) {
+                BuildResult restored = restoreFromCache(project, inputKey);
+                if (restored != null) {
+                    return new CompletedBuild(index, restored);
+                }
+            }
+            long startTime = System.currentTimeMillis();
+            BuildResult result = buildWithRetries(project);
+            if (result.hasMetrics()) {
+                result = result.withMetrics(result.metrics().withQueueWaitNanos(queueWait));
+            }
+            if (inputKey != null && result.status() == BuildStatus.SUCCESS) {
+                buildCache.store(project, graph.getCoordinates(index), inputKey, startTime);
+            }
+            return new CompletedBuild(index, result);
+        } catch (RuntimeException e) {
+            logger.error("Unexpected error building project: {}", project.getName(), e);
+            return new CompletedBuild(index, result(project, BuildStatus.FAILED, String.valueOf(e.getMessage())));
+        }
+    }
+
+    private BuildResult buildWithRetries(ProjectDetector.ProjectInfo project) {
+        BuildResult result = buildExecutor.buildProject(project);
+        while (retryPolicy != null && retryPolicy.shouldRetry(result)) {
+            int attempts = result.attempts();
+            Duration backoff = retryPolicy.backoff(attempts);
+            logger.warn("Build of project {} failed with a transient {} failure, retrying in {} (retry {} of {})",
+                    project.getName(), result.failureCategory(), DurationConverter.format(backoff), attempts,
+                    retryPolicy.maxRetries());
+            try {
+                if (retriesStopped.await(backoff.toMillis(), TimeUnit.MILLISECONDS)) {
+                    // The run was cancelled meanwhile
+                    break;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            result = buildExecutor.buildProject(project).withAttempts(attempts + 1);
+        }
+        return result;
+    }
+
+    private List<CompletedBuild> runAggregatedBuild(DependencyGraph graph, AggregatedBuilder aggregatedBuilder,
+                                                    List<Integer> indexes) {
+        List<CompletedBuild> completed = new ArrayList<>();
+        List<Integer> toBuild = new ArrayList<>();
+        try {
+            for (int index : indexes) {
+                String inputKey = buildCache != null ? incrementalTracker.getInputKey(index) : null;
+                BuildResult restored = inputKey != null ? restoreFromCache(graph.getProject(index), inputKey) : null;
+                if (restored != null) {
+                    completed.add(new CompletedBuild(index, restored));
+                } else {
+                    toBuild.add(index);
+                }
+            }
+            long startTime = System.currentTimeMillis();
+            List<BuildResult> results = toBuild.size() == 1
+                    ? List.of(buildExecutor.buildProject(graph.getProject(toBuild.get(0))))
+                    : aggregatedBuilder.buildAll(graph, toBuild);
+            for (int i = 0; i < toBuild.size(); i++) {
+                int index = toBuild.get(i);
+                BuildResult result = results.get(i);
+                String inputKey = buildCache != null ? incrementalTracker.getInputKey(index) : null;
+                if (inputKey != null && result.status() == BuildStatus.SUCCESS) {
+                    buildCache.store(graph.getProject(index), graph.getCoordinates(index), inputKey, startTime);
+                }
+                completed.add(new CompletedBuild(index, result));
+            }
+        } catch (RuntimeException e) {
+            logger.error("Unexpected error building projects: {}",
+                    indexes.stream().map(index -> graph.getProject(index).getName()).toList(), e);
+            Set<Integer> resolved = new HashSet<>();
+            completed.forEach(build -> resolved.add(build.index()));
+            for (int index : indexes) {
+                if (!resolved.contains(index)) {
+                    completed.add(new CompletedBuild(index,
+                            result(graph.getProject(index), BuildStatus.FAILED, String.valueOf(e.getMessage()))));
+                }
+            }
+        }
+        return completed;
+    }
+
+    private BuildResult restoreFromCache(ProjectDetector.ProjectInfo project, String inputKey) {
+        long startTime = System.currentTimeMillis();
+        if (!buildCache.restore(project, inputKey)) {
+            return null;
+        }
+        long duration = System.currentTimeMillis() - startTime;
+        logger.info("Build FROM_CACHE for project: {} ({}ms)", project.getName(), duration);
+        return new BuildResult(project.getName(), project.projectDir().getAbsolutePath(), BuildStatus.FROM_CACHE,
+                project.type().name(), duration, null, null);
+    }
+
+    private long[] predictDurations(DependencyGraph graph) {
+        long[] predictions = new long[graph.size()];
+        for (int index = 0; index < graph.size(); index++) {
+            predictions[index] = buildHistory != null
+                    ? buildHistory.predictDuration(graph.getProject(index).projectDir().getAbsolutePath())
+                    : BuildResult.NO_PREDICTION;
+        }
+        return predictions;
+    }
+
+    private long[] criticalPaths(DependencyGraph graph, long[] predictions) {
+        // Projects never built before are assumed to take as long as the average known project
+        long defaultDuration = Math.max(1, Math.round(Arrays.stream(predictions)
+                .filter(prediction -> prediction != BuildResult.NO_PREDICTION)
+                .average()
+                .orElse(1)));
+
+        long[] criticalPaths = new long[graph.size()];
+        List<List<Integer>> waves = graph.getWaves();
+        for (int wave = waves.size() - 1; wave >= 0; wave--) {
+            for (int index : waves.get(wave)) {
+                long longestDependentPath = 0;
+                for (int dependent : graph.getDependents(index)) {
+                    longestDependentPath = Math.max(longestDependentPath, criticalPaths[dependent]);
+                }
+                long duration = predictions[index] != BuildResult.NO_PREDICTION ? predictions[index] : defaultDuration;
+                criticalPaths[index] = duration + longestDependentPath;
+            }
+        }
+        if (Arrays.stream(predictions).anyMatch(prediction -> prediction != BuildResult.NO_PREDICTION)) {
+            logger.info("Predicted critical path: {}ms", Arrays.stream(criticalPaths).max().orElse(0));
+        }
+        return criticalPaths;
+    }
+
+    private BuildResult result(ProjectDetector.ProjectInfo project, BuildStatus status, String errorMessage) {
+        return new BuildResult(project.getName(), project.projectDir().getAbsolutePath(), status,
+                project.type().name(), 0, errorMessage, null);
+    }
+
+    private void notifyListeners(BuildResult result) {
+        notifyListeners(listener -> listener.onResult(result), "project: " + result.projectName());
+    }
+
+    private void notifyListeners(Consumer<BuildListener> notification, String subject) {
+        for (BuildListener listener : listeners) {
+            try {
+                notification.accept(listener);
+            } catch (RuntimeException e) {
+                logger.error("Build listener failed for {}", subject, e);
+            }
+        }
+    }
+
+    private record CompletedBuild(int index, BuildResult result) {
+    }
+
+    /**
+     * State of a run: the result of every resolved project, and the queue of projects whose dependencies are resolved.
+     */
+    private final class BuildRun {
+        private final DependencyGraph graph;
+        private final long[] predictions;
+        private final BuildResult[] results;
+        private final int[] pendingDependencies;
+        private final PriorityQueue<Integer> ready;
+        private final long[] readyNanos;
+        private final boolean[] running;
+        private final boolean[] resumed;
+        private final int[] groups;
+        private final int[] groupSizes;
+        private final List<List<Integer>> collected = new ArrayList<>();
+        private final int[] buildOrder;
+        private int unresolved;
+        private boolean stopped;
+
+        private BuildRun(DependencyGraph graph, long[] predictions, long[] criticalPaths, List<List<Integer>> groupMembers) {
+            this.graph = graph;
+            this.predictions = predictions;
+            this.results = new BuildResult[graph.size()];
+            this.pendingDependencies = new int[graph.size()];
+            this.running = new boolean[graph.size()];
+            this.resumed = new boolean[graph.size()];
+            this.readyNanos = new long[graph.size()];
+            this.ready = new PriorityQueue<>(Comparator.<Integer>comparingLong(index -> -criticalPaths[index])
+                    .thenComparingInt(index -> index));
+            this.unresolved = graph.size();
+            this.groups = new int[graph.size()];
+            Arrays.fill(groups, -1);
+            this.groupSizes = new int[groupMembers.size()];
+            for (int group = 0; group < groupMembers.size(); group++) {
+                for (int index : groupMembers.get(group)) {
+                    groups[index] = group;
+                }
+                groupSizes[group] = groupMembers.get(group).size();
+                collected.add(new ArrayList<>());
+            }
+            this.buildOrder = new int[graph.size()];
+            int position = 0;
+            for (List<Integer> wave : graph.getWaves()) {
+                for (int index : wave) {
+                    buildOrder[index] = position++;
+                }
+            }
+            for (int index = 0; index < graph.size(); index++) {
+                // The build tool orders the members of a group itself, only dependencies outside of it are awaited
+                for (int dependency : graph.getDependencies(index)) {
+                    if (!isSameGroup(index, dependency)) {
+                        pendingDependencies[index]++;
+                    }
+                }
+                if (pendingDependencies[index] == 0) {
+                    addReady(index);
+                }
+            }
+        }
+
+        boolean hasUnresolved() {
+            return unresolved > 0;
+        }
+
+        boolean hasReady() {
+            return !ready.isEmpty();
+        }
+
+        int nextReady() {
+            return ready.poll();
+        }
+
+        BuildResult result(int index) {
+            return results[index];
+        }
+
+        /**
+         * Returns the aggregated group of a project, or -1 when it is built on its own.
+         */
+        int group(int index) {
+            return groups[index];
+        }
+
+        private boolean isSameGroup(int index, int other) {
+            return groups[index] >= 0 && groups[index] == groups[other];
+        }
+
+        /**
+         * Adds a ready project to its group, returning true when all the projects of the group are ready.
+         */
+        boolean collect(int index) {
+            List<Integer> groupCollected = collected.get(groups[index]);
+            groupCollected.add(index);
+            return groupCollected.size() == groupSizes[groups[index]];
+        }
+
+        /**
+         * Returns the ready projects of a group in build order, and empties the group.
+         */
+        List<Integer> collected(int group) {
+            List<Integer> members = new ArrayList<>(collected.get(group));
+            members.sort(Comparator.comparingInt(index -> buildOrder[index]));
+            collected.get(group).clear();
+            return members;
+        }
+
+        /**
+         * Returns System.nanoTime() when the project became ready to build.
+         */
+        long readyNanos(int index) {
+            return readyNanos[index];
+        }
+
+        private void addReady(int index) {
+            readyNanos[index] = System.nanoTime();
+            ready.add(index);
+        }
+
+        boolean isStopped() {
+            return stopped;
+        }
+
+        void markRunning(int index) {
+            running[index] = true;
+            ProjectDetector.ProjectInfo project = graph.getProject(index);
+            notifyListeners(listener -> listener.onBuildStarted(project), "project: " + project.getName());
+        }
+
+        /**
+         * Marks a project whose result is taken from a resumed run, which tells nothing about its inputs or duration.
+         */
+        void markResumed(int index) {
+            resumed[index] = true;
+        }
+
+        void complete(int index, BuildResult result) {
+            running[index] = false;
+            results[index] = result.withPredictedDurationMs(predictions[index]);
+            unresolved--;
+            notifyListeners(results[index]);
+            if (incrementalTracker != null && !resumed[index]) {
+                incrementalTracker.recordResult(index, result);
+            }
+            if (buildHistory != null && !resumed[index]) {
+                buildHistory.record(result);
+            }
+            for (int dependent : graph.getDependents(index)) {
+                if (!isSameGroup(index, dependent) && --pendingDependencies[dependent] == 0) {
+                    addReady(dependent);
+                }
+            }
+        }
+
+        /**
+         * Projects of a dependency cycle never become ready: they are released all together, in detection order.
+         */
+        void releaseCycles() {
+            List<String> cyclic = new ArrayList<>();
+            for (int index = 0; index < results.length; index++) {
+                if (results[index] == null && pendingDependencies[index] > 0) {
+                    pendingDependencies[index] = 0;
+                    addReady(index);
+                    cyclic.add(graph.getProject(index).getName());
+                }
+            }
+            if (!cyclic.isEmpty()) {
+                logger.warn("Building projects of a dependency cycle without ordering: {}", cyclic);
+            }
+        }
+
+        /**
+         * Stops starting new builds and cancels every project that is not running yet.
+         */
+        void cancelPending(String reason) {
+            stopped = true;
+            ready.clear();
+            for (int index = 0; index < results.length; index++) {
+                if (results[index] == null && !running[index]) {
+                    complete(index, BuildScheduler.this.result(graph.getProject(index), BuildStatus.CANCELLED, reason));
+                }
+            }
+            ready.clear();
+        }
+
+        void cancelUnresolved(String errorMessage) {
+            for (int index = 0; index < results.length; index++) {
+                if (results[index] == null) {
+                    results[index] = BuildScheduler.this.result(graph.getProject(index), BuildStatus.CANCELLED, errorMessage);
+                    notifyListeners(results[index]);
+                }
+            }
+            unresolved = 0;
+        }
+
+        List<BuildResult> results() {
+            return new ArrayList<>(Arrays.asList(results));
+        }
+    }
+
+    private static final class WorkerThreadFactory implements ThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger(1);
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "build-worker-" + counter.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
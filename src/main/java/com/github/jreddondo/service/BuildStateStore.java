@@ -0,0 +1,136 @@
+package com.github.jreddondo.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Persistent store of the last successful build of each project, kept in the
+ * .multiple-builder directory of the log path.
+ */
+public class BuildStateStore {
+    public static final String STATE_DIRECTORY = ".multiple-builder";
+    private static final Logger logger = LoggerFactory.getLogger(BuildStateStore.class);
+    private static final String STATE_FILE = "build-state.properties";
+    private static final String FILE_HASHES_DIRECTORY = "file-hashes";
+    private static final String SEPARATOR = "|";
+
+    private final Path stateFile;
+    private final Path fileHashesDir;
+    private final Properties state = new Properties();
+
+    private BuildStateStore(Path stateDir) {
+        this.stateFile = stateDir.resolve(STATE_FILE);
+        this.fileHashesDir = stateDir.resolve(FILE_HASHES_DIRECTORY);
+    }
+
+    /**
+     * Returns the directory holding the persistent state of multiple-builder for the given log path.
+     */
+    public static Path stateDirectory(File logPath) {
+        return logPath.toPath().resolve(STATE_DIRECTORY);
+    }
+
+    public static BuildStateStore open(File logPath) {
+        BuildStateStore store = new BuildStateStore(stateDirectory(logPath));
+        if (Files.isRegularFile(store.stateFile)) {
+            try (Reader reader = Files.newBufferedReader(store.stateFile, StandardCharsets.UTF_8)) {
+                store.state.load(reader);
+            } catch (IOException e) {
+                logger.warn("Could not read build state, all projects will be rebuilt: {}", e.getMessage());
+                store.state.clear();
+            }
+        }
+        return store;
+    }
+
+    public ProjectState get(String projectPath) {
+        String value = state.getProperty(projectPath);
+        if (value == null) {
+            return null;
+        }
+        String[] parts = value.split("\\" + SEPARATOR, -1);
+        if (parts.length != 4) {
+            return null;
+        }
+        try {
+            return new ProjectState(parts[0], parts[1], Long.parseLong(parts[2]), Long.parseLong(parts[3]));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    public void put(String projectPath, ProjectState projectState) {
+        state.setProperty(projectPath, String.join(SEPARATOR, projectState.inputKey(), projectState.buildType(),
+                String.valueOf(projectState.durationMs()), String.valueOf(projectState.builtAt())));
+    }
+
+    public void remove(String projectPath) {
+        state.remove(projectPath);
+    }
+
+    public Map<String, ProjectFingerprinter.FileState> loadFileStates(String projectPath) {
+        Map<String, ProjectFingerprinter.FileState> files = new HashMap<>();
+        Path file = fileHashesFile(projectPath);
+        if (!Files.isRegularFile(file)) {
+            return files;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                // Format: size<TAB>lastModified<TAB>hash<TAB>relativePath
+                String[] parts = line.split("\t", 4);
+                if (parts.length == 4) {
+                    files.put(parts[3], new ProjectFingerprinter.FileState(
+                            Long.parseLong(parts[0]), Long.parseLong(parts[1]), parts[2]));
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            logger.debug("Ignoring unreadable file hashes for {}: {}", projectPath, e.getMessage());
+            files.clear();
+        }
+        return files;
+    }
+
+    public void saveFileStates(String projectPath, Map<String, ProjectFingerprinter.FileState> files) throws IOException {
+        Files.createDirectories(fileHashesDir);
+        try (BufferedWriter writer = Files.newBufferedWriter(fileHashesFile(projectPath), StandardCharsets.UTF_8)) {
+            for (Map.Entry<String, ProjectFingerprinter.FileState> entry : files.entrySet()) {
+                ProjectFingerprinter.FileState fileState = entry.getValue();
+                writer.write(fileState.size() + "\t" + fileState.lastModified() + "\t" + fileState.hash() + "\t" + entry.getKey());
+                writer.newLine();
+            }
+        }
+    }
+
+    public void save() throws IOException {
+        Files.createDirectories(stateFile.getParent());
+        try (Writer writer = Files.newBufferedWriter(stateFile, StandardCharsets.UTF_8)) {
+            state.store(writer, "multiple-builder build state");
+        }
+    }
+
+    private Path fileHashesFile(String projectPath) {
+        byte[] digest = ProjectFingerprinter.newDigest().digest(projectPath.getBytes(StandardCharsets.UTF_8));
+        return fileHashesDir.resolve(HexFormat.of().formatHex(digest, 0, 16) + ".tsv");
+    }
+
+    /**
+     * Last successful build of a project: the input key it was built from, and when and how long it took.
+     */
+    public record ProjectState(String inputKey, String buildType, long durationMs, long builtAt) {
+    }
+}
@@ -0,0 +1,54 @@
+package com.github.jreddondo.service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * The wrapper scripts of a build tool and the directory of their settings, copied into generated builds so that
+ * they run with the same build tool version as the projects they aggregate.
+ */
+enum BuildToolWrapper {
+    MAVEN(List.of("mvnw", "mvnw.cmd"), Path.of(".mvn", "wrapper")),
+    GRADLE(List.of("gradlew", "gradlew.bat"), Path.of("gradle", "wrapper"));
+
+    private final List<String> scripts;
+    private final Path settingsDirectory;
+
+    BuildToolWrapper(List<String> scripts, Path settingsDirectory) {
+        this.scripts = scripts;
+        this.settingsDirectory = settingsDirectory;
+    }
+
+    /**
+     * Copies the wrapper of the first project having one into the target directory, or removes the wrapper scripts
+     * from it when no project has one, so that the build tool on the PATH is used.
+     */
+    void copyFirst(List<Path> projectDirs, Path targetDirectory) throws IOException {
+        Path wrapperProject = projectDirs.stream()
+                .filter(projectDir -> Files.isRegularFile(projectDir.resolve(scripts.get(0))))
+                .findFirst()
+                .orElse(null);
+        for (String script : scripts) {
+            Path target = targetDirectory.resolve(script);
+            Path source = wrapperProject != null ? wrapperProject.resolve(script) : null;
+            if (source != null && Files.isRegularFile(source)) {
+                // Copying the attributes keeps the scripts executable
+                Files.copy(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.COPY_ATTRIBUTES);
+            } else {
+                Files.deleteIfExists(target);
+            }
+        }
+        if (wrapperProject != null && Files.isDirectory(wrapperProject.resolve(settingsDirectory))) {
+            Path target = Files.createDirectories(targetDirectory.resolve(settingsDirectory));
+            try (Stream<Path> files = Files.list(wrapperProject.resolve(settingsDirectory))) {
+                for (Path file : files.filter(Files::isRegularFile).toList()) {
+                    Files.copy(file, target.resolve(file.getFileName()), StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package com.github.jreddondo.service;
+
+import com.github.jreddondo.model.BuildResult;
+import com.github.jreddondo.model.BuildStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Builds the projects handed out by a coordinator ({@link RemoteBuildExecutor}). Every slot holds its own
+ * connection and pulls one build at a time, so a worker with more slots takes more builds.
+ * A build cancelled by the coordinator, or whose coordinator connection is lost, is killed; a slot whose connection
+ * is lost reconnects until the coordinator is back or {@value #RECONNECT_TIMEOUT_SECONDS}s have passed. The worker
+ * exits once the coordinator ends its run, or when the coordinator rejects its token.
+ */
+public class BuildWorker {
+    private static final Logger logger = LoggerFactory.getLogger(BuildWorker.class);
+    private static final long RECONNECT_TIMEOUT_SECONDS = 60;
+    private static final Duration RECONNECT_DELAY = Duration.ofSeconds(2);
+    private static final Duration MESSAGE_POLL = Duration.ofMillis(200);
+
+    private final String coordinatorHost;
+    private final int coordinatorPort;
+    private final Path rootDirectory;
+    private final String token;
+    private final ProjectBuilder builder;
+    private final ScheduledExecutorService heartbeats = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "worker-heartbeat");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * @param rootDirectory directory the project paths sent by the coordinator are relative to
+     * @param token         secret shared with the coordinator
+     * @param builder       builder of the projects, shared by all the slots
+     */
+    public BuildWorker(String coordinatorHost, int coordinatorPort, Path rootDirectory, String token,
+                       ProjectBuilder builder) {
+        this.coordinatorHost = coordinatorHost;
+        this.coordinatorPort = coordinatorPort;
+        this.rootDirectory = rootDirectory.toAbsolutePath().normalize();
+        this.token = token;
+        this.builder = builder;
+    }
+
+    /**
+     * Runs the given number of slots until the coordinator ends its run. Returns 0 when every slot was released by
+     * the coordinator, 1 when one gave up reconnecting or was rejected.
+     */
+    public int run(int slots) {
+        logger.info("Worker building projects of {} for coordinator {}:{} with {} slot(s)", rootDirectory,
+                coordinatorHost, coordinatorPort, slots);
+        String hostName = hostName();
+        List<Thread> threads = new ArrayList<>();
+        boolean[] released = new boolean[slots];
+        for (int slot = 0; slot < slots; slot++) {
+            int index = slot;
+            String name = hostName + "/" + ProcessHandle.current().pid() + "-" + (slot + 1);
+            Thread thread = new Thread(() -> released[index] = runSlot(name), "worker-slot-" + (slot + 1));
+            threads.add(thread);
+            thread.start();
+        }
+        try {
+            for (Thread thread : threads) {
+                thread.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            threads.forEach(Thread::interrupt);
+            return 1;
+        } finally {
+            heartbeats.shutdownNow();
+        }
+        logger.info("Coordinator run finished, worker stopped");
+        for (boolean slotReleased : released) {
+            if (!slotReleased) {
+                return 1;
+            }
+        }
+        return 0;
+    }
+
+    private boolean runSlot(String name) {
+        long disconnectedSince = System.nanoTime();
+        while (!Thread.currentThread().isInterrupted()) {
+            boolean connected = false;
+            try (Socket socket = new Socket(coordinatorHost, coordinatorPort)) {
+                connected = true;
+                logger.debug("Slot {} connected to the coordinator", name);
+                if (serve(socket, name)) {
+                    return true;
+                }
+            } catch (DeniedException e) {
+                logger.error("Slot {} rejected by coordinator {}:{}: wrong worker token", name, coordinatorHost,
+                        coordinatorPort);
+                return false;
+            } catch (IOException e) {
+                logger.debug("Slot {} cannot reach the coordinator: {}", name, e.getMessage());
+            }
+            if (connected) {
+                logger.warn("Slot {} lost the coordinator connection, reconnecting", name);
+                disconnectedSince = System.nanoTime();
+            } else if (System.nanoTime() - disconnectedSince > TimeUnit.SECONDS.toNanos(RECONNECT_TIMEOUT_SECONDS)) {
+                break;
+            }
+            try {
+                Thread.sleep(RECONNECT_DELAY.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        logger.error("Slot {} gave up reaching coordinator {}:{}", name, coordinatorHost, coordinatorPort);
+        return false;
+    }
+
+    /**
+     * Builds the projects sent on this connection. Returns true when the coordinator ended its run.
+     */
+    private boolean serve(Socket socket, String name) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+        PrintWriter writer = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.UTF_8);
+        writer.println(WorkerProtocol.encode(WorkerProtocol.HELLO, name, token));
+        while (true) {
+            writer.println(WorkerProtocol.READY);
+            String line;
+            List<String> fields;
+            do {
+                line = reader.readLine();
+                if (line == null) {
+                    throw new IOException("Connection closed by the coordinator");
+                }
+                fields = WorkerProtocol.decode(line);
+                // A cancel of the previous build may cross its result
+            } while (WorkerProtocol.CANCEL.equals(fields.get(0)));
+            if (WorkerProtocol.DONE.equals(fields.get(0))) {
+                return true;
+            }
+            if (WorkerProtocol.DENIED.equals(fields.get(0))) {
+                throw new DeniedException();
+            }
+            if (!WorkerProtocol.BUILD.equals(fields.get(0)) || fields.size() != 4) {
+                throw new IOException("Unexpected message from the coordinator: " + line);
+            }
+            BuildResult result = build(fields.get(2), fields.get(3), socket, reader, writer);
+            writer.println(WorkerProtocol.encode(WorkerProtocol.RESULT, fields.get(1), result.status().name(),
+                    String.valueOf(result.durationMs()), result.errorMessage(), result.outputLog(),
+                    result.failureCategory() != null ? result.failureCategory().name() : null));
+            if (writer.checkError()) {
+                throw new IOException("Cannot send the result of project " + result.projectName());
+            }
+        }
+    }
+
+    private BuildResult build(String type, String relativePath, Socket socket, BufferedReader reader, PrintWriter writer)
+            throws IOException {
+        Path projectDir = rootDirectory.resolve(relativePath != null ? relativePath : ".").normalize();
+        ProjectDetector.ProjectType projectType;
+        try {
+            projectType = ProjectDetector.ProjectType.valueOf(type);
+        } catch (IllegalArgumentException | NullPointerException e) {
+            projectType = ProjectDetector.ProjectType.UNKNOWN;
+        }
+        ProjectDetector.ProjectInfo project = new ProjectDetector.ProjectInfo(projectDir.toFile(), projectType);
+        if (!projectDir.startsWith(rootDirectory) || !Files.isDirectory(projectDir)) {
+            String errorMsg = "Project not found on worker under " + rootDirectory + ": " + relativePath;
+            logger.error("Build FAILED for project: {} - {}", project.getName(), errorMsg);
+            return new BuildResult(project.getName(), projectDir.toString(), BuildStatus.FAILED, type, 0, errorMsg, null);
+        }
+
+        // The build runs on its own thread, so that this one keeps reading the coordinator messages
+        CompletableFuture<BuildResult> result = new CompletableFuture<>();
+        Thread buildThread = new Thread(() -> result.complete(builder.buildProject(project)),
+                Thread.currentThread().getName() + "-build");
+        buildThread.start();
+        // Interrupting the build thread kills the build process
+        ScheduledFuture<?> heartbeat = heartbeats.scheduleAtFixedRate(() -> {
+            writer.println(WorkerProtocol.HEARTBEAT);
+            if (writer.checkError()) {
+                buildThread.interrupt();
+                throw new IllegalStateException("Coordinator connection lost");
+            }
+        }, 0, RemoteBuildExecutor.HEARTBEAT_INTERVAL.toMillis(), TimeUnit.MILLISECONDS);
+        try {
+            socket.setSoTimeout((int) MESSAGE_POLL.toMillis());
+            while (!result.isDone()) {
+                try {
+                    String line = reader.readLine();
+                    if (line == null) {
+                        throw new IOException("Connection closed by the coordinator");
+                    }
+                    if (WorkerProtocol.CANCEL.equals(WorkerProtocol.decode(line).get(0))) {
+                        logger.warn("Build of project {} cancelled by the coordinator", project.getName());
+                        buildThread.interrupt();
+                    }
+                } catch (SocketTimeoutException e) {
+                    // No message, check whether the build finished
+                }
+            }
+            socket.setSoTimeout(0);
+            return result.join();
+        } catch (IOException e) {
+            buildThread.interrupt();
+            throw e;
+        } finally {
+            heartbeat.cancel(false);
+        }
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "worker";
+        }
+    }
+
+    private static final class DeniedException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        private DeniedException() {
+            super("Wrong worker token");
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.github.jreddondo.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Project detector keeping the detected projects of each root in memory, for long-running processes.
+ * A cached detection is reused as long as none of the directories listed to produce it has been modified,
+ * which only requires reading their modification times instead of listing them again.
+ */
+public class CachingProjectDetector extends ProjectDetector {
+    private static final Logger logger = LoggerFactory.getLogger(CachingProjectDetector.class);
+
+    private final Map<CacheKey, CachedDetection> cache = new ConcurrentHashMap<>();
+
+    @Override
+    public List<ProjectInfo> detectProjects(File rootDir, DetectionOptions options) {
+        CacheKey key = new CacheKey(rootDir.getAbsoluteFile().toPath().normalize(), options);
+        CachedDetection cached = cache.get(key);
+        if (cached != null && isValid(cached)) {
+            logger.info("Reusing {} cached project(s) for: {}", cached.projects().size(), rootDir.getAbsolutePath());
+            return cached.projects();
+        }
+
+        Map<Path, Long> directoryTimes = new ConcurrentHashMap<>();
+        List<ProjectInfo> projects = List.copyOf(super.detectProjects(rootDir, options, directoryTimes));
+        cache.put(key, new CachedDetection(projects, Map.copyOf(directoryTimes)));
+        return projects;
+    }
+
+    public void invalidate() {
+        cache.clear();
+    }
+
+    private boolean isValid(CachedDetection cached) {
+        return cached.directoryTimes().entrySet().parallelStream().allMatch(entry -> {
+            try {
+                return Files.getLastModifiedTime(entry.getKey()).toMillis() == entry.getValue();
+            } catch (IOException e) {
+                return false;
+            }
+        });
+    }
+
+    private record CacheKey(Path rootDir, DetectionOptions options) {
+    }
+
+    private record CachedDetection(List<ProjectInfo> projects, Map<Path, Long> directoryTimes) {
+    }
+}
@@ -0,0 +1,214 @@
+package com.github.jreddondo.service;
+
+import com.github.jreddondo.model.ProjectCoordinates;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Directed acyclic graph of the detected projects, where an edge goes from a project
+ * to every sibling project producing one of the artifacts it requires.
+ * Projects are identified by their index in the detection order.
+ */
+public class DependencyGraph {
+    private static final Logger logger = LoggerFactory.getLogger(DependencyGraph.class);
+
+    private final List<ProjectDetector.ProjectInfo> projects;
+    private final List<ProjectCoordinates> coordinates;
+    private final List<List<Integer>> dependencies;
+    private final List<List<Integer>> dependents;
+    private final List<List<Integer>> waves;
+
+    private DependencyGraph(List<ProjectDetector.ProjectInfo> projects, List<ProjectCoordinates> coordinates,
+                            List<List<Integer>> dependencies) {
+        this.projects = List.copyOf(projects);
+        this.coordinates = List.copyOf(coordinates);
+        this.dependencies = dependencies;
+        this.dependents = new ArrayList<>();
+        for (int i = 0; i < projects.size(); i++) {
+            dependents.add(new ArrayList<>());
+        }
+        for (int i = 0; i < projects.size(); i++) {
+            for (int dependency : dependencies.get(i)) {
+                dependents.get(dependency).add(i);
+            }
+        }
+        this.waves = computeWaves();
+    }
+
+    public static DependencyGraph build(List<ProjectDetector.ProjectInfo> projects) {
+        return build(projects, new ProjectCoordinatesReader());
+    }
+
+    public static DependencyGraph build(List<ProjectDetector.ProjectInfo> projects, ProjectCoordinatesReader reader) {
+        List<ProjectCoordinates> coordinates = new ArrayList<>(projects.size());
+        for (ProjectDetector.ProjectInfo project : projects) {
+            coordinates.add(reader.read(project));
+        }
+
+        // Index producers by full key, and by artifactId alone for projects whose group is unknown
+        Map<String, Integer> producers = new HashMap<>();
+        Map<String, Integer> producersWithoutGroup = new HashMap<>();
+        for (int i = 0; i < coordinates.size(); i++) {
+            for (String artifact : coordinates.get(i).producedArtifacts()) {
+                Integer previous = producers.putIfAbsent(artifact, i);
+                if (previous != null && previous != i) {
+                    logger.warn("Artifact {} is produced by both {} and {}", artifact,
+                            projects.get(previous).getName(), projects.get(i).getName());
+                }
+                if (artifact.startsWith(":")) {
+                    producersWithoutGroup.putIfAbsent(artifact.substring(1), i);
+                }
+            }
+        }
+
+        List<List<Integer>> dependencies = new ArrayList<>(projects.size());
+        for (int i = 0; i < coordinates.size(); i++) {
+            TreeSet<Integer> projectDependencies = new TreeSet<>();
+            for (String artifact : coordinates.get(i).requiredArtifacts()) {
+                Integer producer = producers.get(artifact);
+                if (producer == null) {
+                    producer = producersWithoutGroup.get(artifact.substring(artifact.indexOf(':') + 1));
+                }
+                if (producer != null && producer != i) {
+                    projectDependencies.add(producer);
+                }
+            }
+            dependencies.add(new ArrayList<>(projectDependencies));
+        }
+        return new DependencyGraph(projects, coordinates, dependencies);
+    }
+
+    private List<List<Integer>> computeWaves() {
+        int size = projects.size();
+        int[] pending = new int[size];
+        List<Integer> ready = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            pending[i] = dependencies.get(i).size();
+            if (pending[i] == 0) {
+                ready.add(i);
+            }
+        }
+
+        List<List<Integer>> result = new ArrayList<>();
+        int scheduled = 0;
+        while (!ready.isEmpty()) {
+            Collections.sort(ready);
+            result.add(List.copyOf(ready));
+            scheduled += ready.size();
+            List<Integer> next = new ArrayList<>();
+            for (int node : ready) {
+                for (int dependent : dependents.get(node)) {
+                    if (--pending[dependent] == 0) {
+                        next.add(dependent);
+                    }
+                }
+            }
+            ready = next;
+        }
+
+        if (scheduled < size) {
+            // Cycles cannot be ordered; build the remaining projects last, in detection order
+            List<Integer> cyclic = new ArrayList<>();
+            for (int i = 0; i < size; i++) {
+                if (pending[i] > 0) {
+                    cyclic.add(i);
+                }
+            }
+            logger.warn("Dependency cycle detected between projects: {}",
+                    cyclic.stream().map(i -> projects.get(i).getName()).toList());
+            result.add(List.copyOf(cyclic));
+        }
+        return result;
+    }
+
+    public int size() {
+        return projects.size();
+    }
+
+    public List<ProjectDetector.ProjectInfo> getProjects() {
+        return projects;
+    }
+
+    public ProjectDetector.ProjectInfo getProject(int index) {
+        return projects.get(index);
+    }
+
+    public ProjectCoordinates getCoordinates(int index) {
+        return coordinates.get(index);
+    }
+
+    public List<Integer> getDependencies(int index) {
+        return Collections.unmodifiableList(dependencies.get(index));
+    }
+
+    public List<Integer> getDependents(int index) {
+        return Collections.unmodifiableList(dependents.get(index));
+    }
+
+    /**
+     * Returns the given projects together with all the projects depending on them, directly or transitively.
+     */
+    public Set<Integer> withDependents(Collection<Integer> indexes) {
+        Set<Integer> result = new TreeSet<>(indexes);
+        Deque<Integer> pending = new ArrayDeque<>(indexes);
+        while (!pending.isEmpty()) {
+            for (int dependent : dependents.get(pending.pop())) {
+                if (result.add(dependent)) {
+                    pending.push(dependent);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the graph of the given projects only, in detection order, keeping the dependencies between them.
+     */
+    public DependencyGraph subgraph(Collection<Integer> indexes) {
+        List<Integer> kept = new ArrayList<>(new TreeSet<>(indexes));
+        Map<Integer, Integer> newIndexes = new HashMap<>();
+        for (int i = 0; i < kept.size(); i++) {
+            newIndexes.put(kept.get(i), i);
+        }
+        List<ProjectDetector.ProjectInfo> keptProjects = new ArrayList<>();
+        List<ProjectCoordinates> keptCoordinates = new ArrayList<>();
+        List<List<Integer>> keptDependencies = new ArrayList<>();
+        for (int index : kept) {
+            keptProjects.add(projects.get(index));
+            keptCoordinates.add(coordinates.get(index));
+            keptDependencies.add(dependencies.get(index).stream()
+                    .filter(newIndexes::containsKey)
+                    .map(newIndexes::get)
+                    .toList());
+        }
+        return new DependencyGraph(keptProjects, keptCoordinates, keptDependencies);
+    }
+
+    /**
+     * Returns the projects grouped in topological waves: every project only depends on projects of earlier waves.
+     */
+    public List<List<Integer>> getWaves() {
+        return waves;
+    }
+
+    public void logWaves() {
+        Map<Integer, List<String>> names = new LinkedHashMap<>();
+        for (int i = 0; i < waves.size(); i++) {
+            names.put(i + 1, waves.get(i).stream().map(index -> projects.get(index).getName()).toList());
+        }
+        logger.info("Build order: {} wave(s)", waves.size());
+        names.forEach((wave, projectNames) -> logger.info("  Wave {}: {}", wave, projectNames));
+    }
+}
@@ -0,0 +1,142 @@
+package com.github.jreddondo.service;
+
+import com.github.jreddondo.model.FailureCategory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Recognizes why a build failed from the end of its output, where Maven and Gradle print the failure.
+ * When several causes are found, the first category wins: an out of memory error explains the test failures it
+ * causes, and a compilation error will not go away when the build is retried, whatever else failed.
+ * Warning and info lines are ignored, e.g. the metadata downloads that Maven reports as warnings.
+ */
+public class FailureClassifier {
+    private static final Logger logger = LoggerFactory.getLogger(FailureClassifier.class);
+    private static final int TAIL_BYTES = 64 * 1024;
+    private static final int MAX_EVIDENCE_LENGTH = 200;
+    private static final Map<FailureCategory, List<Pattern>> SIGNATURES = new EnumMap<>(FailureCategory.class);
+
+    static {
+        SIGNATURES.put(FailureCategory.OUT_OF_MEMORY, patterns(
+                "java\\.lang\\.OutOfMemoryError",
+                "GC overhead limit exceeded",
+                "Cannot allocate memory",
+                "insufficient memory for the Java Runtime Environment",
+                "The forked VM terminated without properly saying goodbye",
+                "Gradle build daemon disappeared unexpectedly"));
+        SIGNATURES.put(FailureCategory.COMPILATION, patterns(
+                "COMPILATION ERROR",
+                "Compilation failure",
+                "Compilation failed",
+                "Execution failed for task '[^']*:compile\\w*'",
+                "\\.(java|kt|groovy|scala):\\[?\\d+[,:]"));
+        SIGNATURES.put(FailureCategory.NETWORK, patterns(
+                "Could not transfer artifact",
+                "Connection (reset|refused|timed out)",
+                "Read timed out",
+                "UnknownHostException",
+                "Temporary failure in name resolution",
+                "No route to host",
+                "Remote host terminated the handshake",
+                "SSLHandshakeException",
+                "Could not (GET|HEAD) '",
+                "status code:? 5\\d\\d"));
+        SIGNATURES.put(FailureCategory.LOCKED_FILE, patterns(
+                "Timeout waiting to lock",
+                "being used by another process",
+                "Could not acquire lock",
+                "currently in use by another Gradle instance",
+                "Failed to delete",
+                "Unable to delete (file|directory)",
+                "Text file busy"));
+        SIGNATURES.put(FailureCategory.DEPENDENCY, patterns(
+                "Could not resolve dependencies",
+                "Could not find artifact",
+                "Could not resolve all (files|dependencies|artifacts) for configuration",
+                "Non-resolvable (parent|import) POM"));
+        SIGNATURES.put(FailureCategory.TEST, patterns(
+                "There are test failures",
+                "There were failing tests",
+                "Tests run: \\d+, Failures: (\\d*[1-9]\\d*|\\d+, Errors: \\d*[1-9])",
+                "\\d+ tests? completed, \\d+ failed",
+                "Execution failed for task '[^']*:test'"));
+    }
+
+    /**
+     * The recognized cause of a failure.
+     *
+     * @param evidence the output line the cause was recognized from, or null
+     */
+    public record Failure(FailureCategory category, String evidence) {
+    }
+
+    /**
+     * Classifies a failed build from its output file, or as UNKNOWN when there is none.
+     */
+    public Failure classify(Path outputFile) {
+        if (outputFile == null) {
+            return new Failure(FailureCategory.UNKNOWN, null);
+        }
+        try {
+            return classify(readTail(outputFile));
+        } catch (IOException e) {
+            logger.warn("Cannot read build output to classify the failure: {}", outputFile, e);
+            return new Failure(FailureCategory.UNKNOWN, null);
+        }
+    }
+
+    Failure classify(String output) {
+        FailureCategory category = FailureCategory.UNKNOWN;
+        String evidence = null;
+        for (String line : output.split("\\R")) {
+            if (line.startsWith("[WARNING]") || line.startsWith("[INFO]")) {
+                continue;
+            }
+            for (Map.Entry<FailureCategory, List<Pattern>> signatures : SIGNATURES.entrySet()) {
+                if (signatures.getKey().ordinal() >= category.ordinal()) {
+                    break;
+                }
+                if (signatures.getValue().stream().anyMatch(pattern -> pattern.matcher(line).find())) {
+                    category = signatures.getKey();
+                    evidence = evidence(line);
+                    break;
+                }
+            }
+        }
+        return new Failure(category, evidence);
+    }
+
+    private static String readTail(Path outputFile) throws IOException {
+        try (FileChannel channel = FileChannel.open(outputFile, StandardOpenOption.READ)) {
+            long size = channel.size();
+            ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(size, TAIL_BYTES));
+            channel.position(size - buffer.capacity());
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // Read until the buffer is full
+            }
+            // Decoding replaces malformed bytes, e.g. a character cut at the start of the tail
+            return new String(buffer.array(), 0, buffer.position(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static String evidence(String line) {
+        String evidence = line.replaceFirst("^\\[ERROR]\\s*", "").strip();
+        return evidence.length() > MAX_EVIDENCE_LENGTH ? evidence.substring(0, MAX_EVIDENCE_LENGTH) + "..." : evidence;
+    }
+
+    private static List<Pattern> patterns(String... regexes) {
+        return Arrays.stream(regexes).map(Pattern::compile).toList();
+    }
+}
@@ -0,0 +1,256 @@
+package com.github.jreddondo.service;
+
+import com.github.jreddondo.model.BuildMetrics;
+import com.github.jreddondo.model.BuildPhase;
+import com.github.jreddondo.model.BuildResult;
+import com.github.jreddondo.model.BuildSettings;
+import com.github.jreddondo.model.BuildStatus;
+import com.github.jreddondo.util.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Builds Gradle projects together in one composite build: a settings.gradle including every project with
+ * includeBuild is generated in a work directory, and the tasks of every included build are run in one invocation
+ * with --parallel and the configuration cache, so the Gradle JVM starts and configures once.
+ * The outcome of every project is read from the task headers of the output ("> Task :service:test FAILED"),
+ * and its timing from the time at which they were printed.
+ * The composite build runs with --continue, so a failure only stops the tasks depending on the failed one.
+ */
+public class GradleCompositeBuilder implements AggregatedBuilder {
+    public static final String COMPOSITE_DIRECTORY = "gradle-composite";
+    private static final Logger logger = LoggerFactory.getLogger(GradleCompositeBuilder.class);
+    private static final Pattern TASK_HEADER = Pattern.compile("^> Task :([^:\\s]+)(:\\S+)(?:\\s+(.+?))?\\s*$");
+    private static final String FAILED_OUTCOME = "FAILED";
+
+    private final ProjectBuilder builder;
+    private final BuildConfiguration configuration;
+    private final Path workDirectory;
+
+    /**
+     * @param workDirectory parent of the directory holding the generated composite build
+     */
+    public GradleCompositeBuilder(ProjectBuilder builder, BuildConfiguration configuration, Path workDirectory) {
+        this.builder = builder;
+        this.configuration = configuration;
+        this.workDirectory = workDirectory;
+    }
+
+    @Override
+    public Set<Integer> selectProjects(DependencyGraph graph) {
+        // Tasks of an included build are addressed in its root project only, so multi-project builds are built on
+        // their own, where a task name runs in every subproject
+        Set<Integer> selected = new LinkedHashSet<>();
+        for (int index = 0; index < graph.size(); index++) {
+            if (graph.getProject(index).type() == ProjectDetector.ProjectType.GRADLE
+                    && graph.getCoordinates(index).producedArtifacts().size() <= 1) {
+                selected.add(index);
+            }
+        }
+        return selected;
+    }
+
+    @Override
+    public List<BuildResult> buildAll(DependencyGraph graph, List<Integer> projects) {
+        Path compositeDirectory = workDirectory.resolve(COMPOSITE_DIRECTORY);
+        Map<Integer, String> buildNames = buildNames(graph, projects);
+        try {
+            Files.createDirectories(compositeDirectory);
+            writeSettings(compositeDirectory, graph, buildNames);
+            BuildToolWrapper.GRADLE.copyFirst(projects.stream()
+                    .map(index -> graph.getProject(index).projectDir().toPath())
+                    .toList(), compositeDirectory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create the Gradle composite build in " + compositeDirectory, e);
+        }
+
+        ProjectDetector.ProjectInfo composite =
+                new ProjectDetector.ProjectInfo(compositeDirectory.toFile(), ProjectDetector.ProjectType.GRADLE);
+        Map<String, List<String>> requestedTasks = new LinkedHashMap<>();
+        List<String> tasks = new ArrayList<>();
+        for (int index : projects) {
+            String name = buildNames.get(index);
+            List<String> buildTasks = configuration.resolve(graph.getProject(index)).goals().stream()
+                    .map(goal -> ":" + name + (goal.startsWith(":") ? goal : ":" + goal))
+                    .toList();
+            requestedTasks.put(name, buildTasks);
+            tasks.addAll(buildTasks);
+        }
+        BuildResult compositeResult = builder.buildProject(composite,
+                compositeArguments(configuration.resolve(composite)), tasks);
+        Map<String, TaskOutcomes> outcomes = readOutcomes(compositeResult.outputLog());
+
+        List<BuildResult> results = new ArrayList<>(projects.size());
+        for (int index : projects) {
+            String name = buildNames.get(index);
+            BuildResult result = projectResult(graph.getProject(index), name, requestedTasks.get(name),
+                    outcomes.get(name), !outcomes.isEmpty(), compositeResult);
+            if (result.success()) {
+                logger.info("Build {} for project: {} in the Gradle composite build ({}ms)", result.status(),
+                        result.projectName(), result.durationMs());
+            } else {
+                logger.error("Build {} for project: {} in the Gradle composite build - {}", result.status(),
+                        result.projectName(), result.errorMessage());
+            }
+            results.add(result);
+        }
+        return results;
+    }
+
+    private static List<String> compositeArguments(BuildSettings settings) {
+        List<String> arguments = new ArrayList<>();
+        arguments.add("--continue");
+        // Configured arguments may already enable, or disable, these features
+        if (settings.arguments().stream().noneMatch(argument -> argument.contains("parallel"))) {
+            arguments.add("--parallel");
+        }
+        if (settings.arguments().stream().noneMatch(argument -> argument.contains("configuration-cache"))) {
+            arguments.add("--configuration-cache");
+        }
+        return arguments;
+    }
+
+    /**
+     * Names every included build after its directory, which Gradle requires to be unique within the composite.
+     */
+    private static Map<Integer, String> buildNames(DependencyGraph graph, List<Integer> projects) {
+        Map<Integer, String> names = new HashMap<>();
+        Set<String> used = new HashSet<>();
+        used.add(COMPOSITE_DIRECTORY);
+        for (int index : projects) {
+            String baseName = StringUtils.toFileName(graph.getProject(index).getName());
+            String name = baseName;
+            for (int suffix = 2; !used.add(name); suffix++) {
+                name = baseName + "_" + suffix;
+            }
+            names.put(index, name);
+        }
+        return names;
+    }
+
+    private static void writeSettings(Path compositeDirectory, DependencyGraph graph, Map<Integer, String> buildNames)
+            throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(compositeDirectory.resolve("settings.gradle"),
+                StandardCharsets.UTF_8)) {
+            writer.write("// Generated by multiple-builder: composite build of the detected Gradle projects\n");
+            writer.write("rootProject.name = " + groovyString(COMPOSITE_DIRECTORY) + "\n");
+            for (Map.Entry<Integer, String> entry : buildNames.entrySet().stream()
+                    .sorted(Map.Entry.comparingByKey())
+                    .toList()) {
+                Path projectDir = graph.getProject(entry.getKey()).projectDir().getAbsoluteFile().toPath();
+                String path = compositeDirectory.toAbsolutePath().relativize(projectDir).toString();
+                writer.write("includeBuild(" + groovyString(path.replace(File.separatorChar, '/')) + ") {\n");
+                writer.write("    name = " + groovyString(entry.getValue()) + "\n");
+                writer.write("}\n");
+            }
+        }
+    }
+
+    private static String groovyString(String value) {
+        return "'" + value.replace("\\", "\\\\").replace("'", "\\'") + "'";
+    }
+
+    private static Map<String, TaskOutcomes> readOutcomes(String outputLog) {
+        Map<String, TaskOutcomes> outcomes = new HashMap<>();
+        if (outputLog == null) {
+            return outcomes;
+        }
+        // Decoding replaces malformed bytes instead of failing, build output is not always UTF-8
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(Files.newInputStream(Path.of(outputLog)), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                Matcher matcher = TASK_HEADER.matcher(line);
+                if (matcher.matches()) {
+                    TaskOutcomes buildOutcomes = outcomes.computeIfAbsent(matcher.group(1), name -> new TaskOutcomes());
+                    buildOutcomes.executed().add(":" + matcher.group(1) + matcher.group(2));
+                    if (FAILED_OUTCOME.equals(matcher.group(3))) {
+                        buildOutcomes.failed().add(matcher.group(2));
+                    }
+                }
+            }
+        } catch (IOException e) {
+            logger.error("Failed to read the Gradle composite build output: {}", outputLog, e);
+        }
+        return outcomes;
+    }
+
+    private static BuildResult projectResult(ProjectDetector.ProjectInfo project, String name, List<String> requestedTasks,
+                                             TaskOutcomes outcomes, boolean anyTaskRan, BuildResult compositeResult) {
+        BuildMetrics metrics = compositeResult.hasMetrics() ? metrics(name, compositeResult.metrics()) : null;
+        long duration = metrics != null ? TimeUnit.NANOSECONDS.toMillis(metrics.durationNanos()) : 0;
+        BuildStatus status;
+        String errorMessage = null;
+        if (compositeResult.status() != BuildStatus.SUCCESS && compositeResult.status() != BuildStatus.FAILED) {
+            // Timed out or cancelled: the tasks that did run cannot tell whether the project would have built
+            status = compositeResult.status();
+            errorMessage = "Gradle composite build: " + compositeResult.errorMessage();
+        } else if (outcomes != null && !outcomes.failed().isEmpty()) {
+            status = BuildStatus.FAILED;
+            errorMessage = "Task(s) failed in the Gradle composite build: " + String.join(", ", outcomes.failed());
+        } else if (compositeResult.success()
+                || (outcomes != null && outcomes.executed().containsAll(requestedTasks))) {
+            status = BuildStatus.SUCCESS;
+        } else if (anyTaskRan) {
+            status = BuildStatus.SKIPPED;
+            errorMessage = "Skipped by the Gradle composite build after a failure";
+        } else {
+            // No task ran: the composite build failed before, e.g. while configuring
+            status = BuildStatus.FAILED;
+            errorMessage = "Gradle composite build: " + compositeResult.errorMessage();
+        }
+        BuildResult result = new BuildResult(project.getName(), project.projectDir().getAbsolutePath(), status,
+                project.type().name(), duration, errorMessage, compositeResult.outputLog());
+        return metrics != null ? result.withMetrics(metrics) : result;
+    }
+
+    /**
+     * Returns the timing of an included build: from the start of its first task to the end of its last task.
+     * Returns null when none of its tasks ran.
+     */
+    private static BuildMetrics metrics(String name, BuildMetrics compositeMetrics) {
+        String prefix = ":" + name + ":";
+        List<BuildPhase> phases = new ArrayList<>();
+        long start = Long.MAX_VALUE;
+        long end = Long.MIN_VALUE;
+        for (BuildPhase phase : compositeMetrics.phases()) {
+            if (phase.name().startsWith(prefix)) {
+                phases.add(new BuildPhase(phase.name().substring(prefix.length() - 1), phase.startNanos(),
+                        phase.durationNanos()));
+                start = Math.min(start, phase.startNanos());
+                end = Math.max(end, phase.startNanos() + phase.durationNanos());
+            }
+        }
+        if (phases.isEmpty()) {
+            return null;
+        }
+        return new BuildMetrics(0, 0, start, end, phases);
+    }
+
+    private record TaskOutcomes(Set<String> executed, Set<String> failed) {
+        TaskOutcomes() {
+            this(new HashSet<>(), new LinkedHashSet<>());
+        }
+    }
+}
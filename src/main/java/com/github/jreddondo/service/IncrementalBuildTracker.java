@@ -0,0 +1,135 @@
+package com.github.jreddondo.service;
+
+import com.github.jreddondo.model.BuildResult;
+import com.github.jreddondo.model.BuildStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Decides which projects can be skipped because their inputs have not changed since their last successful build.
+ * The input key of a project combines the fingerprint of its own files with the input keys of its dependencies,
+ * so a change in an upstream project invalidates all of its dependents.
+ */
+public class IncrementalBuildTracker {
+    private static final Logger logger = LoggerFactory.getLogger(IncrementalBuildTracker.class);
+
+    private final BuildStateStore store;
+    private final ProjectFingerprinter fingerprinter;
+    private BuildConfiguration configuration;
+    private DependencyGraph graph;
+    private String[] inputKeys;
+    private ProjectFingerprinter.Fingerprint[] fingerprints;
+
+    public IncrementalBuildTracker(BuildStateStore store) {
+        this(store, new ProjectFingerprinter());
+    }
+
+    public IncrementalBuildTracker(BuildStateStore store, ProjectFingerprinter fingerprinter) {
+        this.store = store;
+        this.fingerprinter = fingerprinter;
+    }
+
+    /**
+     * Includes the build settings of the projects in their input keys, so that changing the goals or arguments
+     * of a project rebuilds it.
+     */
+    public void setConfiguration(BuildConfiguration configuration) {
+        this.configuration = configuration;
+    }
+
+    /**
+     * Fingerprints all projects of the graph in parallel and computes their input keys.
+     */
+    public void prepare(DependencyGraph graph) {
+        long startTime = System.currentTimeMillis();
+        this.graph = graph;
+        this.fingerprints = new ProjectFingerprinter.Fingerprint[graph.size()];
+        this.inputKeys = new String[graph.size()];
+
+        IntStream.range(0, graph.size()).parallel().forEach(index -> {
+            String projectPath = projectPath(index);
+            try {
+                fingerprints[index] = fingerprinter.fingerprint(graph.getProject(index).projectDir().toPath(),
+                        store.loadFileStates(projectPath));
+            } catch (IOException e) {
+                logger.warn("Could not fingerprint project: {} - {}", graph.getProject(index).getName(), e.getMessage());
+            }
+        });
+
+        for (List<Integer> wave : graph.getWaves()) {
+            for (int index : wave) {
+                inputKeys[index] = computeInputKey(index);
+            }
+        }
+        logger.info("Fingerprinted {} project(s) in {}ms", graph.size(), System.currentTimeMillis() - startTime);
+    }
+
+    private String computeInputKey(int index) {
+        if (fingerprints[index] == null) {
+            return null;
+        }
+        MessageDigest digest = ProjectFingerprinter.newDigest();
+        digest.update(graph.getProject(index).type().name().getBytes(StandardCharsets.UTF_8));
+        digest.update(fingerprints[index].hash().getBytes(StandardCharsets.UTF_8));
+        if (configuration != null) {
+            digest.update(configuration.resolve(graph.getProject(index)).toString().getBytes(StandardCharsets.UTF_8));
+        }
+        for (int dependency : graph.getDependencies(index)) {
+            // Dependencies within a cycle have no key yet; they are treated as always changed
+            String dependencyKey = inputKeys[dependency];
+            if (dependencyKey == null) {
+                return null;
+            }
+            digest.update(dependencyKey.getBytes(StandardCharsets.UTF_8));
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    public String getInputKey(int index) {
+        return inputKeys[index];
+    }
+
+    public boolean isUpToDate(int index) {
+        String inputKey = inputKeys[index];
+        if (inputKey == null) {
+            return false;
+        }
+        BuildStateStore.ProjectState previous = store.get(projectPath(index));
+        return previous != null && inputKey.equals(previous.inputKey());
+    }
+
+    public void recordResult(int index, BuildResult result) {
+        String projectPath = projectPath(index);
+        boolean built = result.status() == BuildStatus.SUCCESS || result.status() == BuildStatus.FROM_CACHE;
+        if (built && inputKeys[index] != null) {
+            store.put(projectPath, new BuildStateStore.ProjectState(inputKeys[index], result.buildType(),
+                    result.durationMs(), System.currentTimeMillis()));
+        } else if (result.status() == BuildStatus.FAILED) {
+            store.remove(projectPath);
+        }
+    }
+
+    public void save() {
+        try {
+            for (int index = 0; index < fingerprints.length; index++) {
+                if (fingerprints[index] != null) {
+                    store.saveFileStates(projectPath(index), fingerprints[index].files());
+                }
+            }
+            store.save();
+        } catch (IOException e) {
+            logger.error("Failed to save build state", e);
+        }
+    }
+
+    private String projectPath(int index) {
+        return graph.getProject(index).projectDir().getAbsolutePath();
+    }
+}
@@ -0,0 +1,308 @@
+package com.github.jreddondo.service;
+
+import com.github.jreddondo.model.ProjectCoordinates;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Gives every concurrent build its own Maven local repository and Gradle user home, so that concurrent builds do not
+ * contend for the locks of a shared repository nor read artifacts another build is downloading.
+ * <p>
+ * A repository is created per concurrent build, and seeded with hard links to the files of the shared repository
+ * (~/.m2/repository and ~/.gradle/wrapper), which takes no space and no copy. The files Maven rewrites in place,
+ * e.g. maven-metadata-local.xml or _remote.repositories, are copied instead, so the shared files are never modified.
+ * Gradle builds read the shared dependency cache as a read-only cache. The artifacts installed by a successful
+ * Maven build are published to the shared repository and to the other repositories, and the artifacts a successful
+ * Gradle build published to the shared repository are published to all the repositories, so that the projects
+ * depending on it find them whatever repository they build with.
+ */
+public class IsolatedRepositories {
+    private static final Logger logger = LoggerFactory.getLogger(IsolatedRepositories.class);
+    private static final String MAVEN_DIRECTORY = "maven";
+    private static final String GRADLE_DIRECTORY = "gradle";
+    private static final String GRADLE_WRAPPER_DISTRIBUTIONS = "wrapper/dists";
+    private static final List<String> GRADLE_SETTINGS = List.of("gradle.properties", "init.d");
+
+    private final Path directory;
+    private final Path sharedMavenRepository;
+    private final Path sharedGradleHome;
+    private final ProjectCoordinatesReader coordinatesReader = new ProjectCoordinatesReader();
+    private final Deque<Repository> available = new ArrayDeque<>();
+    private final List<Repository> created = new ArrayList<>();
+    private final Set<Integer> seededThisRun = new HashSet<>();
+    private volatile boolean linksSupported = true;
+
+    /**
+     * Repositories of one concurrent build.
+     */
+    public record Repository(int number, Path mavenRepository, Path gradleUserHome) {
+    }
+
+    /**
+     * @param directory directory receiving one subdirectory per repository, kept between runs
+     */
+    public IsolatedRepositories(Path directory) {
+        this(directory, BuildCache.defaultLocalRepository(), defaultGradleUserHome());
+    }
+
+    public IsolatedRepositories(Path directory, Path sharedMavenRepository, Path sharedGradleHome) {
+        this.directory = directory;
+        this.sharedMavenRepository = sharedMavenRepository;
+        this.sharedGradleHome = sharedGradleHome;
+    }
+
+    /**
+     * Returns the Gradle user home: the GRADLE_USER_HOME environment variable, or ~/.gradle.
+     */
+    public static Path defaultGradleUserHome() {
+        String configured = System.getenv("GRADLE_USER_HOME");
+        if (configured != null && !configured.isBlank()) {
+            return Paths.get(configured);
+        }
+        return Paths.get(System.getProperty("user.home"), ".gradle");
+    }
+
+    /**
+     * Returns the read-only dependency cache of the Gradle builds, or null when the shared home has none.
+     */
+    public Path sharedGradleCache() {
+        Path caches = sharedGradleHome.resolve("caches");
+        return Files.isDirectory(caches.resolve("modules-2")) ? caches : null;
+    }
+
+    /**
+     * Starts a new run, e.g. a watch mode rebuild: every repository is brought up to date with the shared
+     * repositories again the next time it is taken.
+     */
+    public synchronized void startRun() {
+        seededThisRun.clear();
+    }
+
+    /**
+     * Takes a repository no other build uses, creating it when all are in use. A repository is brought up to date
+     * with the shared repositories the first time it is taken in a run.
+     */
+    public Repository acquire() throws IOException {
+        Repository repository;
+        synchronized (this) {
+            repository = available.pollFirst();
+            if (repository != null && seededThisRun.contains(repository.number())) {
+                return repository;
+            }
+            if (repository == null) {
+                int number = created.size() + 1;
+                // Reserve the number, the repository is added once seeded
+                created.add(null);
+                Path root = directory.resolve(String.valueOf(number));
+                repository = new Repository(number, root.resolve(MAVEN_DIRECTORY), root.resolve(GRADLE_DIRECTORY));
+            }
+        }
+        try {
+            seed(repository);
+        } catch (IOException e) {
+            // A repository that could not be seeded is left out, its number stays reserved
+            synchronized (this) {
+                created.set(repository.number() - 1, null);
+            }
+            throw e;
+        }
+        synchronized (this) {
+            created.set(repository.number() - 1, repository);
+            seededThisRun.add(repository.number());
+        }
+        return repository;
+    }
+
+    public synchronized void release(Repository repository) {
+        available.addFirst(repository);
+    }
+
+    private void seed(Repository repository) throws IOException {
+        long start = System.currentTimeMillis();
+        int linked = mirror(sharedMavenRepository, repository.mavenRepository());
+        linked += mirror(sharedGradleHome.resolve(GRADLE_WRAPPER_DISTRIBUTIONS),
+                repository.gradleUserHome().resolve(GRADLE_WRAPPER_DISTRIBUTIONS));
+        for (String settings : GRADLE_SETTINGS) {
+            // Settings are copied again every run, as they may have changed
+            Path source = sharedGradleHome.resolve(settings);
+            if (Files.exists(source)) {
+                copyTree(source, repository.gradleUserHome().resolve(settings));
+            }
+        }
+        Files.createDirectories(repository.mavenRepository());
+        Files.createDirectories(repository.gradleUserHome());
+        logger.info("Isolated repository {} ready in {}ms ({} new or updated files from the shared repositories)",
+                repository.number(), System.currentTimeMillis() - start, linked);
+    }
+
+    /**
+     * Publishes the artifacts installed by a successful build to the repositories that do not have them: for a Maven
+     * build, from the given repository to the shared repository and to the other repositories; for a Gradle build,
+     * whose publishToMavenLocal still installs to the shared repository, from the shared repository to all the
+     * repositories, which were seeded before the build.
+     */
+    public void publish(Repository repository, ProjectDetector.ProjectInfo project, long buildStartMillis) {
+        boolean maven = project.type() == ProjectDetector.ProjectType.MAVEN;
+        Path source = maven ? repository.mavenRepository() : sharedMavenRepository;
+        try {
+            ProjectCoordinates coordinates = coordinatesReader.read(project);
+            List<Path> targets = new ArrayList<>();
+            if (maven) {
+                targets.add(sharedMavenRepository);
+            }
+            synchronized (this) {
+                created.stream()
+                        .filter(other -> other != null && (!maven || other.number() != repository.number()))
+                        .forEach(other -> targets.add(other.mavenRepository()));
+            }
+            for (Path installed : BuildCache.findInstalledArtifacts(source, coordinates, buildStartMillis)) {
+                Path relativeVersion = source.relativize(installed);
+                for (Path target : targets) {
+                    publishTree(installed, target.resolve(relativeVersion));
+                    // Artifact metadata listing the installed versions
+                    copyFiles(installed.getParent(), target.resolve(relativeVersion).getParent());
+                }
+                logger.debug("Published {} built with isolated repository {}", relativeVersion, repository.number());
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to publish the artifacts of project {} from isolated repository {}: {}",
+                    project.getName(), repository.number(), e.getMessage());
+        }
+    }
+
+    /**
+     * Links the files of the source missing in the target, and replaces the ones the source has a newer version of,
+     * e.g. copied metadata files or artifacts installed again. Returns the number of files added or replaced.
+     */
+    private int mirror(Path source, Path target) throws IOException {
+        if (!Files.isDirectory(source)) {
+            return 0;
+        }
+        int[] added = {0};
+        Files.walkFileTree(source, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                Files.createDirectories(target.resolve(source.relativize(dir)));
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                Path copy = target.resolve(source.relativize(file));
+                if (!attrs.isRegularFile() || isLock(file)) {
+                    return FileVisitResult.CONTINUE;
+                }
+                FileTime copyModified = lastModified(copy);
+                if (copyModified == null) {
+                    linkOrCopy(file, copy);
+                    added[0]++;
+                } else if (attrs.lastModifiedTime().compareTo(copyModified) > 0) {
+                    // A linked file has the time of its source, so only copies and replaced files are newer
+                    Files.delete(copy);
+                    linkOrCopy(file, copy);
+                    added[0]++;
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                // Files deleted meanwhile, e.g. by a running build
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        return added[0];
+    }
+
+    private static FileTime lastModified(Path file) throws IOException {
+        try {
+            return Files.getLastModifiedTime(file);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    private void publishTree(Path source, Path target) throws IOException {
+        Files.walkFileTree(source, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                if (attrs.isRegularFile() && !isLock(file)) {
+                    Path copy = target.resolve(source.relativize(file));
+                    Files.createDirectories(copy.getParent());
+                    // Replaced rather than overwritten, as the file may be linked from other repositories
+                    Files.deleteIfExists(copy);
+                    linkOrCopy(file, copy);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private static void copyFiles(Path source, Path target) throws IOException {
+        try (Stream<Path> files = Files.list(source)) {
+            for (Path file : files.filter(Files::isRegularFile).filter(file -> !isLock(file)).toList()) {
+                Path copy = target.resolve(file.getFileName());
+                Files.deleteIfExists(copy);
+                Files.copy(file, copy, StandardCopyOption.COPY_ATTRIBUTES);
+            }
+        }
+    }
+
+    private static void copyTree(Path source, Path target) throws IOException {
+        Files.walkFileTree(source, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                Path copy = target.resolve(source.relativize(file));
+                Files.createDirectories(copy.getParent());
+                Files.copy(file, copy, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.COPY_ATTRIBUTES);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private void linkOrCopy(Path source, Path target) throws IOException {
+        if (linksSupported && !isRewrittenInPlace(source)) {
+            try {
+                Files.createLink(target, source);
+                return;
+            } catch (IOException | UnsupportedOperationException e) {
+                logger.warn("Hard links to the shared repositories are not possible ({}), copying files instead",
+                        e.getMessage());
+                linksSupported = false;
+            }
+        }
+        Files.copy(source, target, StandardCopyOption.COPY_ATTRIBUTES);
+    }
+
+    /**
+     * Whether the build tools update the file in place, which would modify every linked copy.
+     */
+    private static boolean isRewrittenInPlace(Path file) {
+        String name = file.getFileName().toString();
+        return name.endsWith(".xml") || name.endsWith(".properties") || name.endsWith(".lastUpdated")
+                || name.equals("_remote.repositories");
+    }
+
+    private static boolean isLock(Path file) {
+        String name = file.getFileName().toString();
+        return name.endsWith(".lock") || name.endsWith(".lck") || name.endsWith(".part");
+    }
+}
@@ -0,0 +1,140 @@
+package com.github.jreddondo.service;
+
+import com.github.jreddondo.model.BuildResult;
+import com.github.jreddondo.model.BuildStatus;
+import com.github.jreddondo.util.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Writes one JUnit XML file per project (TEST-&lt;project&gt;.xml) as soon as its result arrives, so CI servers
+ * reading the directory show failed builds as failed tests. Each project is a test suite holding a single "build"
+ * test case: failed builds are failures, timed out builds are errors, and skipped or cancelled builds are skipped.
+ */
+public class JUnitReportWriter implements BuildListener {
+    private static final Logger logger = LoggerFactory.getLogger(JUnitReportWriter.class);
+    private static final XMLOutputFactory XML_OUTPUT_FACTORY = XMLOutputFactory.newFactory();
+
+    private final Path reportDirectory;
+    private final Set<String> fileNames = new HashSet<>();
+
+    public JUnitReportWriter(Path reportDirectory) throws IOException {
+        this.reportDirectory = reportDirectory;
+        Files.createDirectories(reportDirectory);
+    }
+
+    @Override
+    public void onResult(BuildResult result) {
+        Path reportFile = reportDirectory.resolve(fileName(result.projectName()));
+        try (OutputStream output = Files.newOutputStream(reportFile)) {
+            XMLStreamWriter xml = XML_OUTPUT_FACTORY.createXMLStreamWriter(output, "UTF-8");
+            try {
+                writeTestSuite(xml, result);
+            } finally {
+                xml.close();
+            }
+        } catch (IOException | XMLStreamException e) {
+            logger.error("Failed to write JUnit report: {}", reportFile, e);
+        }
+    }
+
+    private void writeTestSuite(XMLStreamWriter xml, BuildResult result) throws XMLStreamException {
+        BuildStatus status = result.status();
+        boolean skipped = status == BuildStatus.SKIPPED || status == BuildStatus.CANCELLED;
+        String time = String.valueOf(result.durationMs() / 1000.0);
+
+        xml.writeStartDocument("UTF-8", "1.0");
+        xml.writeCharacters("\n");
+        xml.writeStartElement("testsuite");
+        xml.writeAttribute("name", result.projectName());
+        xml.writeAttribute("tests", "1");
+        xml.writeAttribute("failures", status == BuildStatus.FAILED ? "1" : "0");
+        xml.writeAttribute("errors", status == BuildStatus.TIMED_OUT ? "1" : "0");
+        xml.writeAttribute("skipped", skipped ? "1" : "0");
+        xml.writeAttribute("time", time);
+        xml.writeAttribute("timestamp", LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS)
+                .format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+        xml.writeCharacters("\n  ");
+
+        xml.writeStartElement("properties");
+        writeProperty(xml, "path", result.projectPath());
+        writeProperty(xml, "buildType", result.buildType());
+        writeProperty(xml, "status", status.name());
+        if (result.failureCategory() != null) {
+            writeProperty(xml, "failureCategory", result.failureCategory().name());
+        }
+        writeProperty(xml, "attempts", String.valueOf(result.attempts()));
+        if (result.hasPrediction()) {
+            writeProperty(xml, "predictedDurationMs", String.valueOf(result.predictedDurationMs()));
+        }
+        xml.writeCharacters("\n  ");
+        xml.writeEndElement();
+        xml.writeCharacters("\n  ");
+
+        xml.writeStartElement("testcase");
+        xml.writeAttribute("name", "build");
+        xml.writeAttribute("classname", result.projectName());
+        xml.writeAttribute("time", time);
+        String message = result.errorMessage() != null ? result.errorMessage() : status.name();
+        switch (status) {
+            case FAILED -> writeOutcome(xml, "failure", message, status);
+            case TIMED_OUT -> writeOutcome(xml, "error", message, status);
+            case SKIPPED, CANCELLED -> writeOutcome(xml, "skipped", message, null);
+            default -> {
+                // Successful and up-to-date builds are passed test cases
+            }
+        }
+        if (result.outputLog() != null) {
+            xml.writeCharacters("\n    ");
+            xml.writeStartElement("system-out");
+            xml.writeCharacters("Build output: " + result.outputLog());
+            xml.writeEndElement();
+        }
+        xml.writeCharacters("\n  ");
+        xml.writeEndElement();
+        xml.writeCharacters("\n");
+        xml.writeEndElement();
+        xml.writeCharacters("\n");
+        xml.writeEndDocument();
+    }
+
+    private void writeProperty(XMLStreamWriter xml, String name, String value) throws XMLStreamException {
+        xml.writeCharacters("\n    ");
+        xml.writeEmptyElement("property");
+        xml.writeAttribute("name", name);
+        xml.writeAttribute("value", value);
+    }
+
+    private void writeOutcome(XMLStreamWriter xml, String element, String message, BuildStatus type)
+            throws XMLStreamException {
+        xml.writeCharacters("\n    ");
+        xml.writeEmptyElement(element);
+        xml.writeAttribute("message", message);
+        if (type != null) {
+            xml.writeAttribute("type", type.name());
+        }
+    }
+
+    private String fileName(String projectName) {
+        // Projects found in different groups may share a directory name
+        String baseName = "TEST-" + StringUtils.toFileName(projectName);
+        String fileName = baseName + ".xml";
+        for (int suffix = 2; !fileNames.add(fileName); suffix++) {
+            fileName = baseName + "_" + suffix + ".xml";
+        }
+        return fileName;
+    }
+}
@@ -0,0 +1,140 @@
+package com.github.jreddondo.service;
+
+import com.github.jreddondo.model.BuildMetrics;
+import com.github.jreddondo.model.BuildPhase;
+import com.github.jreddondo.model.BuildResult;
+import com.github.jreddondo.model.BuildStatus;
+import com.github.jreddondo.util.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes the results as a JSON document while the run progresses: each result is appended and flushed as soon as it
+ * arrives, and the summary is written when the writer is closed. A file read before the end of the run is
+ * a valid JSON prefix that holds every result resolved so far.
+ */
+public class JsonReportWriter implements BuildListener, Closeable {
+    private static final Logger logger = LoggerFactory.getLogger(JsonReportWriter.class);
+
+    private final Path reportFile;
+    private final Writer writer;
+    private final Map<BuildStatus, Integer> statusCounts = new EnumMap<>(BuildStatus.class);
+    private int resultCount;
+    private boolean failed;
+
+    public JsonReportWriter(Path reportFile, LocalDateTime executionTime) throws IOException {
+        this.reportFile = reportFile;
+        this.writer = Files.newBufferedWriter(reportFile, StandardCharsets.UTF_8);
+        writer.write("{\n  \"executionTime\": ");
+        writeString(executionTime.toString());
+        writer.write(",\n  \"results\": [");
+        writer.flush();
+    }
+
+    @Override
+    public void onResult(BuildResult result) {
+        if (failed) {
+            return;
+        }
+        statusCounts.merge(result.status(), 1, Integer::sum);
+        try {
+            writer.write(resultCount++ == 0 ? "\n    {" : ",\n    {");
+            writeField("project", result.projectName());
+            writer.write(", ");
+            writeField("path", result.projectPath());
+            writer.write(", ");
+            writeField("buildType", result.buildType());
+            writer.write(", ");
+            writeField("status", result.status().name());
+            writer.write(", \"success\": " + result.success());
+            writer.write(", \"durationMs\": " + result.durationMs());
+            if (result.hasPrediction()) {
+                writer.write(", \"predictedDurationMs\": " + result.predictedDurationMs());
+            }
+            if (result.hasMetrics()) {
+                writeMetrics(result.metrics());
+            }
+            if (result.errorMessage() != null) {
+                writer.write(", ");
+                writeField("error", result.errorMessage());
+            }
+            if (result.failureCategory() != null) {
+                writer.write(", ");
+                writeField("failureCategory", result.failureCategory().name());
+            }
+            writer.write(", \"attempts\": " + result.attempts());
+            if (result.outputLog() != null) {
+                writer.write(", ");
+                writeField("outputLog", result.outputLog());
+            }
+            writer.write(", ");
+            writeField("resolvedAt", Instant.now().toString());
+            writer.write("}");
+            writer.flush();
+        } catch (IOException e) {
+            logger.error("Failed to write JSON report: {}", reportFile, e);
+            failed = true;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            if (!failed) {
+                int successCount = statusCounts.entrySet().stream()
+                        .filter(entry -> entry.getKey().isSuccessful())
+                        .mapToInt(Map.Entry::getValue)
+                        .sum();
+                writer.write(resultCount == 0 ? "],\n" : "\n  ],\n");
+                writer.write("  \"summary\": {\"total\": " + resultCount + ", \"successful\": " + successCount
+                        + ", \"failed\": " + (resultCount - successCount) + ", \"statuses\": {");
+                String separator = "";
+                for (Map.Entry<BuildStatus, Integer> entry : statusCounts.entrySet()) {
+                    writer.write(separator + "\"" + entry.getKey().name() + "\": " + entry.getValue());
+                    separator = ", ";
+                }
+                writer.write("}}\n}\n");
+                logger.info("JSON report generated: {}", reportFile.toAbsolutePath());
+            }
+        } finally {
+            writer.close();
+        }
+    }
+
+    private void writeMetrics(BuildMetrics metrics) throws IOException {
+        writer.write(", \"queueWaitMs\": " + TimeUnit.NANOSECONDS.toMillis(metrics.queueWaitNanos()));
+        writer.write(", \"startupMs\": " + TimeUnit.NANOSECONDS.toMillis(metrics.startupNanos()));
+        writer.write(", \"phases\": [");
+        String separator = "";
+        for (BuildPhase phase : metrics.phases()) {
+            writer.write(separator + "{");
+            writeField("name", phase.name());
+            writer.write(", \"durationMs\": " + phase.durationMs() + "}");
+            separator = ", ";
+        }
+        writer.write("]");
+    }
+
+    private void writeField(String name, String value) throws IOException {
+        writer.write('"');
+        writer.write(name);
+        writer.write("\": ");
+        writeString(value);
+    }
+
+    private void writeString(String value) throws IOException {
+        writer.write(StringUtils.toJsonString(value));
+    }
+}
@@ -0,0 +1,353 @@
+package com.github.jreddondo.service;
+
+import com.github.jreddondo.model.BuildResult;
+import com.github.jreddondo.model.BuildSettings;
+import com.github.jreddondo.model.BuildStatus;
+import com.github.jreddondo.model.ProjectCoordinates;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Builds Maven projects together in one reactor build: an aggregator pom listing every project as a module is
+ * generated in a work directory, and built with -T so that Maven builds independent modules in parallel within
+ * one JVM. The status and duration of every project are then read from the Reactor Summary of the output, e.g.:
+ * <pre>
+ * [INFO] my-service 1.0.0-SNAPSHOT ........................... SUCCESS [  2.345 s]
+ * </pre>
+ * The reactor is built with --fail-at-end, so a failure only skips the modules depending on the failed one.
+ * A multi-module project fails when any of its modules failed or was skipped.
+ */
+public class MavenReactorBuilder implements AggregatedBuilder {
+    public static final String REACTOR_DIRECTORY = "maven-reactor";
+    private static final Logger logger = LoggerFactory.getLogger(MavenReactorBuilder.class);
+    private static final XMLOutputFactory XML_OUTPUT_FACTORY = XMLOutputFactory.newFactory();
+    private static final String POM_NAMESPACE = "http://maven.apache.org/POM/4.0.0";
+    private static final String REACTOR_SUMMARY = "Reactor Summary";
+    private static final String SUCCESS = "SUCCESS";
+    private static final Pattern SUMMARY_LINE =
+            Pattern.compile("^\\[INFO] (.+?) \\.* ?(SUCCESS|FAILURE|SKIPPED)(?: \\[\\s*(.+?)\\s*])?\\s*$");
+
+    private final ProjectBuilder builder;
+    private final BuildConfiguration configuration;
+    private final Path workDirectory;
+    private final int threads;
+    private final ProjectCoordinatesReader coordinatesReader = new ProjectCoordinatesReader();
+
+    /**
+     * @param workDirectory parent of the directory holding the generated aggregator pom
+     * @param threads       number of modules Maven builds in parallel, unless the configured arguments set -T
+     */
+    public MavenReactorBuilder(ProjectBuilder builder, BuildConfiguration configuration, Path workDirectory,
+                               int threads) {
+        this.builder = builder;
+        this.configuration = configuration;
+        this.workDirectory = workDirectory;
+        this.threads = threads;
+    }
+
+    @Override
+    public Set<Integer> selectProjects(DependencyGraph graph) {
+        // Maven refuses a reactor holding two projects with the same coordinates, the duplicates are built on their own
+        Set<Integer> selected = new LinkedHashSet<>();
+        Set<String> coordinates = new HashSet<>();
+        for (int index = 0; index < graph.size(); index++) {
+            ProjectCoordinates projectCoordinates = graph.getCoordinates(index);
+            if (graph.getProject(index).type() == ProjectDetector.ProjectType.MAVEN
+                    && projectCoordinates.artifactId() != null
+                    && coordinates.add(ProjectCoordinates.key(projectCoordinates.groupId(), projectCoordinates.artifactId()))) {
+                selected.add(index);
+            }
+        }
+        return selected;
+    }
+
+    @Override
+    public List<BuildResult> buildAll(DependencyGraph graph, List<Integer> projects) {
+        Path reactorDirectory = workDirectory.resolve(REACTOR_DIRECTORY);
+        try {
+            Files.createDirectories(reactorDirectory);
+            writeAggregatorPom(reactorDirectory, graph, projects);
+            BuildToolWrapper.MAVEN.copyFirst(projects.stream()
+                    .map(index -> graph.getProject(index).projectDir().toPath())
+                    .toList(), reactorDirectory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create the Maven reactor in " + reactorDirectory, e);
+        }
+
+        ProjectDetector.ProjectInfo reactor =
+                new ProjectDetector.ProjectInfo(reactorDirectory.toFile(), ProjectDetector.ProjectType.MAVEN);
+        BuildSettings settings = configuration.resolve(reactor);
+        BuildResult reactorResult = builder.buildProject(reactor, reactorArguments(settings), settings.goals());
+        ReactorSummary summary = readSummary(reactorResult.outputLog(), labels(graph, projects));
+
+        List<BuildResult> results = new ArrayList<>(projects.size());
+        for (int index : projects) {
+            BuildResult result = projectResult(graph.getProject(index), graph.getCoordinates(index), summary, index,
+                    reactorResult);
+            if (result.success()) {
+                logger.info("Build {} for project: {} in the Maven reactor ({}ms)", result.status(),
+                        result.projectName(), result.durationMs());
+            } else {
+                logger.error("Build {} for project: {} in the Maven reactor - {}", result.status(),
+                        result.projectName(), result.errorMessage());
+            }
+            results.add(result);
+        }
+        return results;
+    }
+
+    private List<String> reactorArguments(BuildSettings settings) {
+        List<String> arguments = new ArrayList<>();
+        if (settings.arguments().stream().noneMatch(argument -> argument.equals("-T") || argument.startsWith("--threads"))) {
+            arguments.add("-T");
+            arguments.add(String.valueOf(threads));
+        }
+        arguments.add("--fail-at-end");
+        return arguments;
+    }
+
+    private void writeAggregatorPom(Path reactorDirectory, DependencyGraph graph, List<Integer> projects)
+            throws IOException {
+        try (OutputStream output = Files.newOutputStream(reactorDirectory.resolve("pom.xml"))) {
+            XMLStreamWriter xml = XML_OUTPUT_FACTORY.createXMLStreamWriter(output, "UTF-8");
+            try {
+                xml.writeStartDocument("UTF-8", "1.0");
+                xml.writeCharacters("\n");
+                xml.writeStartElement("project");
+                xml.writeDefaultNamespace(POM_NAMESPACE);
+                writeElement(xml, "modelVersion", "4.0.0");
+                writeElement(xml, "groupId", "multiple-builder");
+                writeElement(xml, "artifactId", REACTOR_DIRECTORY);
+                writeElement(xml, "version", "0");
+                writeElement(xml, "packaging", "pom");
+                xml.writeCharacters("\n  ");
+                xml.writeStartElement("modules");
+                for (int index : projects) {
+                    Path projectDir = graph.getProject(index).projectDir().getAbsoluteFile().toPath();
+                    String module = reactorDirectory.toAbsolutePath().relativize(projectDir).toString();
+                    xml.writeCharacters("\n    ");
+                    xml.writeStartElement("module");
+                    xml.writeCharacters(module.replace(File.separatorChar, '/'));
+                    xml.writeEndElement();
+                }
+                xml.writeCharacters("\n  ");
+                xml.writeEndElement();
+                xml.writeCharacters("\n");
+                xml.writeEndElement();
+                xml.writeCharacters("\n");
+                xml.writeEndDocument();
+            } finally {
+                xml.close();
+            }
+        } catch (XMLStreamException e) {
+            throw new IOException("Cannot write the aggregator pom", e);
+        }
+    }
+
+    private static void writeElement(XMLStreamWriter xml, String name, String value) throws XMLStreamException {
+        xml.writeCharacters("\n  ");
+        xml.writeStartElement(name);
+        xml.writeCharacters(value);
+        xml.writeEndElement();
+    }
+
+    /**
+     * Returns the labels Maven may print for every project and its modules in the Reactor Summary: their name,
+     * which defaults to the artifactId, followed by their version when it differs from the version of the
+     * aggregator. Only the artifactId of the modules is known. Labels shared by several projects cannot be mapped
+     * back and are left out, and the aggregator itself is ignored.
+     */
+    private Map<String, Label> labels(DependencyGraph graph, List<Integer> projects) {
+        Map<String, Label> labels = new HashMap<>();
+        Set<String> ambiguous = new HashSet<>();
+        for (int index : projects) {
+            ProjectCoordinates coordinates = graph.getCoordinates(index);
+            Set<String> names = new LinkedHashSet<>();
+            String name = coordinatesReader.readMavenName(graph.getProject(index).projectDir());
+            if (name != null && !name.isEmpty() && !name.contains("${")) {
+                names.add(name);
+            }
+            names.add(coordinates.artifactId());
+            addLabels(labels, ambiguous, names, coordinates.version(), new Label(index, false));
+            Set<String> modules = new LinkedHashSet<>();
+            for (String artifact : coordinates.producedArtifacts()) {
+                String artifactId = artifact.substring(artifact.indexOf(':') + 1);
+                if (!names.contains(artifactId)) {
+                    modules.add(artifactId);
+                }
+            }
+            addLabels(labels, ambiguous, modules, coordinates.version(), new Label(index, true));
+        }
+        ambiguous.forEach(labels::remove);
+        addLabels(labels, new HashSet<>(), Set.of(REACTOR_DIRECTORY), "0", Label.AGGREGATOR);
+        return labels;
+    }
+
+    private static void addLabels(Map<String, Label> labels, Set<String> ambiguous, Set<String> names, String version,
+                                  Label label) {
+        for (String projectName : names) {
+            for (String text : version != null ? List.of(projectName, projectName + " " + version)
+                    : List.of(projectName)) {
+                Label previous = labels.putIfAbsent(text, label);
+                if (previous != null && previous.index() != label.index()) {
+                    ambiguous.add(text);
+                }
+            }
+        }
+    }
+
+    private ReactorSummary readSummary(String outputLog, Map<String, Label> labels) {
+        ReactorSummary summary = new ReactorSummary();
+        if (outputLog == null) {
+            return summary;
+        }
+        // Decoding replaces malformed bytes instead of failing, build output is not always UTF-8
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(Files.newInputStream(Path.of(outputLog)), StandardCharsets.UTF_8))) {
+            boolean inSummary = false;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!inSummary) {
+                    inSummary = line.contains(REACTOR_SUMMARY);
+                    continue;
+                }
+                Matcher matcher = SUMMARY_LINE.matcher(line);
+                if (!matcher.matches()) {
+                    continue;
+                }
+                String status = matcher.group(2);
+                Label label = labels.get(matcher.group(1).trim());
+                if (label == null) {
+                    if (!SUCCESS.equals(status)) {
+                        // e.g. a module whose name differs from its artifactId
+                        summary.unattributedFailures++;
+                    }
+                } else if (label.module()) {
+                    summary.moduleEntries.merge(label.index(), 1, Integer::sum);
+                    if (!SUCCESS.equals(status)) {
+                        summary.moduleFailures.putIfAbsent(label.index(), "Module " + matcher.group(1).trim()
+                                + ("FAILURE".equals(status) ? " failed" : " was skipped")
+                                + " in the Maven reactor");
+                    }
+                } else if (label != Label.AGGREGATOR) {
+                    summary.projects.put(label.index(), new SummaryEntry(status, parseDuration(matcher.group(3))));
+                }
+            }
+        } catch (IOException e) {
+            logger.error("Failed to read the Maven reactor output: {}", outputLog, e);
+        }
+        return summary;
+    }
+
+    /**
+     * Parses a Reactor Summary duration: "1.234 s", "01:02 min" or "01:02 h". Returns -1 when it cannot be parsed.
+     */
+    static long parseDuration(String duration) {
+        if (duration == null) {
+            return -1;
+        }
+        String[] parts = duration.trim().split("\\s+");
+        if (parts.length != 2) {
+            return -1;
+        }
+        try {
+            String[] clock = parts[0].split(":");
+            return switch (parts[1]) {
+                case "s" -> Math.round(Double.parseDouble(parts[0].replace(',', '.')) * 1000);
+                case "min" -> (Long.parseLong(clock[0]) * 60 + Long.parseLong(clock[1])) * 1000;
+                case "h" -> (Long.parseLong(clock[0]) * 60 + Long.parseLong(clock[1])) * 60_000;
+                default -> -1;
+            };
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            return -1;
+        }
+    }
+
+    private BuildResult projectResult(ProjectDetector.ProjectInfo project, ProjectCoordinates coordinates,
+                                      ReactorSummary summary, int index, BuildResult reactorResult) {
+        SummaryEntry entry = summary.projects.get(index);
+        BuildStatus status;
+        String errorMessage;
+        long duration = entry != null && entry.durationMs() >= 0 ? entry.durationMs() : 0;
+        if (entry == null) {
+            // Not listed: the reactor did not get to the summary, or the project name could not be matched
+            status = reactorResult.success() ? BuildStatus.SUCCESS : reactorResult.status();
+            errorMessage = reactorResult.success() ? null : "Maven reactor build: " + reactorResult.errorMessage();
+            duration = reactorResult.success() ? reactorResult.durationMs() : 0;
+        } else {
+            switch (entry.status()) {
+                case "SUCCESS" -> {
+                    status = BuildStatus.SUCCESS;
+                    errorMessage = null;
+                }
+                case "SKIPPED" -> {
+                    status = BuildStatus.SKIPPED;
+                    errorMessage = "Skipped by the Maven reactor after a failure";
+                }
+                default -> {
+                    status = BuildStatus.FAILED;
+                    errorMessage = "Build failed in the Maven reactor";
+                }
+            }
+        }
+        if (status.isSuccessful()) {
+            String moduleFailure = summary.moduleFailures.get(index);
+            // The modules that could not be matched may be the failed ones when the reactor failed
+            int modules = coordinates.producedArtifacts().size() - 1;
+            boolean unmatchedModules = summary.moduleEntries.getOrDefault(index, 0) < modules
+                    && summary.unattributedFailures > 0 && !reactorResult.success();
+            if (moduleFailure != null) {
+                status = BuildStatus.FAILED;
+                errorMessage = moduleFailure;
+            } else if (unmatchedModules) {
+                status = BuildStatus.FAILED;
+                errorMessage = "Maven reactor build failed, and not all modules of the project succeeded";
+            }
+        }
+        return new BuildResult(project.getName(), project.projectDir().getAbsolutePath(), status,
+                project.type().name(), duration, errorMessage, reactorResult.outputLog());
+    }
+
+    private record SummaryEntry(String status, long durationMs) {
+    }
+
+    /**
+     * Project, or one of its modules, a Reactor Summary label stands for.
+     */
+    private record Label(int index, boolean module) {
+        static final Label AGGREGATOR = new Label(-1, false);
+    }
+
+    /**
+     * Entries of the Reactor Summary: the own entry of every project, the number of entries and the first failure
+     * among its modules, and the number of failed or skipped entries matching no project.
+     */
+    private static final class ReactorSummary {
+        private final Map<Integer, SummaryEntry> projects = new HashMap<>();
+        private final Map<Integer, Integer> moduleEntries = new HashMap<>();
+        private final Map<Integer, String> moduleFailures = new HashMap<>();
+        private int unattributedFailures;
+    }
+}
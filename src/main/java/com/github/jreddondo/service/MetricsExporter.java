@@ -0,0 +1,166 @@
+package com.github.jreddondo.service;
+
+import com.github.jreddondo.model.BuildMetrics;
+import com.github.jreddondo.model.BuildPhase;
+import com.github.jreddondo.model.BuildResult;
+import com.github.jreddondo.model.BuildStatus;
+import com.github.jreddondo.util.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Exports the timings of a run: a Prometheus text file (e.g. for the node exporter textfile collector) with the
+ * duration, queue wait, startup and step durations of every project, and a timeline in the Chrome trace event format,
+ * which chrome://tracing and Perfetto display with one row per concurrently running build.
+ */
+public class MetricsExporter {
+    private static final Logger logger = LoggerFactory.getLogger(MetricsExporter.class);
+    private static final String METRIC_PREFIX = "multiple_builder_";
+
+    private final long runStartNanos;
+    private final long runEndNanos;
+
+    /**
+     * @param runStartNanos System.nanoTime() when the run started, the origin of the timeline
+     * @param runEndNanos   System.nanoTime() when the run ended
+     */
+    public MetricsExporter(long runStartNanos, long runEndNanos) {
+        this.runStartNanos = runStartNanos;
+        this.runEndNanos = runEndNanos;
+    }
+
+    public void writePrometheus(List<BuildResult> results, Path file) {
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writeHeader(writer, "run_duration_seconds", "Wall-clock duration of the whole run");
+            writeSample(writer, "run_duration_seconds", "", runEndNanos - runStartNanos);
+
+            Map<BuildStatus, Integer> statusCounts = new EnumMap<>(BuildStatus.class);
+            for (BuildResult result : results) {
+                statusCounts.merge(result.status(), 1, Integer::sum);
+            }
+            writeHeader(writer, "projects", "Number of projects by build status");
+            for (Map.Entry<BuildStatus, Integer> entry : statusCounts.entrySet()) {
+                writer.write(METRIC_PREFIX + "projects{status=\"" + entry.getKey() + "\"} " + entry.getValue() + "\n");
+            }
+
+            writeHeader(writer, "build_duration_seconds", "Duration of the build of a project");
+            for (BuildResult result : results) {
+                if (result.hasMetrics()) {
+                    writeSample(writer, "build_duration_seconds", projectLabels(result), result.metrics().durationNanos());
+                }
+            }
+            writeHeader(writer, "build_queue_wait_seconds",
+                    "Time a project waited for a free worker once its dependencies were built");
+            for (BuildResult result : results) {
+                if (result.hasMetrics()) {
+                    writeSample(writer, "build_queue_wait_seconds", projectLabels(result), result.metrics().queueWaitNanos());
+                }
+            }
+            writeHeader(writer, "build_startup_seconds", "Time between the launch of the build tool and its first output");
+            for (BuildResult result : results) {
+                if (result.hasMetrics()) {
+                    writeSample(writer, "build_startup_seconds", projectLabels(result), result.metrics().startupNanos());
+                }
+            }
+            writeHeader(writer, "build_phase_seconds", "Time spent in a Maven plugin goal or Gradle task of a project");
+            for (BuildResult result : results) {
+                if (result.hasMetrics()) {
+                    for (Map.Entry<String, Long> phase : phaseTotals(result.metrics()).entrySet()) {
+                        writeSample(writer, "build_phase_seconds",
+                                projectLabels(result) + ",phase=\"" + escapeLabel(phase.getKey()) + "\"",
+                                phase.getValue());
+                    }
+                }
+            }
+            logger.info("Metrics file generated: {}", file.toAbsolutePath());
+        } catch (IOException e) {
+            logger.error("Failed to write metrics file: {}", file, e);
+        }
+    }
+
+    public void writeTrace(List<BuildResult> results, Path file) {
+        List<BuildResult> built = results.stream()
+                .filter(BuildResult::hasMetrics)
+                .sorted(Comparator.comparingLong(result -> result.metrics().startNanos()))
+                .toList();
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write("{\"displayTimeUnit\": \"ms\", \"traceEvents\": [\n");
+            writer.write("  {\"name\": \"process_name\", \"ph\": \"M\", \"pid\": 1, \"args\": {\"name\": \"multiple-builder\"}}");
+            // Builds are laid out on the first row free when they start, so a row is never used twice at the same time
+            List<Long> rowEnds = new ArrayList<>();
+            for (BuildResult result : built) {
+                BuildMetrics metrics = result.metrics();
+                int row = 0;
+                while (row < rowEnds.size() && rowEnds.get(row) > metrics.startNanos()) {
+                    row++;
+                }
+                if (row == rowEnds.size()) {
+                    rowEnds.add(metrics.endNanos());
+                } else {
+                    rowEnds.set(row, metrics.endNanos());
+                }
+                String args = "{\"status\": \"" + result.status() + "\""
+                        + ", \"path\": " + StringUtils.toJsonString(result.projectPath())
+                        + ", \"queueWaitMs\": " + metrics.queueWaitNanos() / 1_000_000
+                        + ", \"startupMs\": " + metrics.startupNanos() / 1_000_000 + "}";
+                writeEvent(writer, result.projectName(), "build", metrics.startNanos(), metrics.durationNanos(), row, args);
+                for (BuildPhase phase : metrics.phases()) {
+                    writeEvent(writer, phase.name(), "phase", phase.startNanos(), phase.durationNanos(), row,
+                            "{\"project\": " + StringUtils.toJsonString(result.projectName()) + "}");
+                }
+            }
+            writer.write("\n]}\n");
+            logger.info("Trace file generated: {}", file.toAbsolutePath());
+        } catch (IOException e) {
+            logger.error("Failed to write trace file: {}", file, e);
+        }
+    }
+
+    private static Map<String, Long> phaseTotals(BuildMetrics metrics) {
+        // A goal or task may run several times, e.g. for the main and test sources
+        Map<String, Long> totals = new LinkedHashMap<>();
+        for (BuildPhase phase : metrics.phases()) {
+            totals.merge(phase.name(), phase.durationNanos(), Long::sum);
+        }
+        return totals;
+    }
+
+    private void writeEvent(BufferedWriter writer, String name, String category, long startNanos, long durationNanos,
+                            int row, String args) throws IOException {
+        writer.write(",\n  {\"name\": " + StringUtils.toJsonString(name) + ", \"cat\": \"" + category + "\""
+                + ", \"ph\": \"X\", \"ts\": " + (startNanos - runStartNanos) / 1000 + ", \"dur\": " + durationNanos / 1000
+                + ", \"pid\": 1, \"tid\": " + (row + 1) + ", \"args\": " + args + "}");
+    }
+
+    private static void writeHeader(BufferedWriter writer, String name, String help) throws IOException {
+        writer.write("# HELP " + METRIC_PREFIX + name + " " + help + "\n");
+        writer.write("# TYPE " + METRIC_PREFIX + name + " gauge\n");
+    }
+
+    private static void writeSample(BufferedWriter writer, String name, String labels, long nanos) throws IOException {
+        String value = String.format(Locale.ROOT, "%.3f", nanos / 1_000_000_000.0);
+        writer.write(METRIC_PREFIX + name + (labels.isEmpty() ? "" : "{" + labels + "}") + " " + value + "\n");
+    }
+
+    private static String projectLabels(BuildResult result) {
+        return "project=\"" + escapeLabel(result.projectName()) + "\",path=\"" + escapeLabel(result.projectPath())
+                + "\",type=\"" + result.buildType() + "\",status=\"" + result.status() + "\"";
+    }
+
+    private static String escapeLabel(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
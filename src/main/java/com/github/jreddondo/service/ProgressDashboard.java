@@ -0,0 +1,373 @@
+package com.github.jreddondo.service;
+
+import com.github.jreddondo.model.BuildResult;
+import com.github.jreddondo.util.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.Console;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.reflect.InvocationTargetException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Follows the progress of the runs: running, queued and finished builds, throughput and an ETA computed from the
+ * predicted durations of the remaining builds.
+ * <p>
+ * On a terminal, the progress is drawn below the log and redrawn in place every second; otherwise it is logged
+ * periodically. Notifications only update counters, the rendering happens on its own thread, so builds are never
+ * slowed down by the display.
+ */
+public class ProgressDashboard implements BuildListener, Closeable {
+    private static final Logger logger = LoggerFactory.getLogger(ProgressDashboard.class);
+    private static final Duration TERMINAL_REFRESH = Duration.ofSeconds(1);
+    private static final int MAX_RUNNING_LINES = 8;
+    private static final int DEFAULT_TERMINAL_WIDTH = 120;
+
+    private final ScheduledExecutorService refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "progress-dashboard");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile TerminalFooter footer;
+    private PrintStream originalOut;
+
+    // Predicted duration of the projects not built yet, by path
+    private final Map<String, Long> queued = new HashMap<>();
+    private final Map<String, RunningBuild> running = new LinkedHashMap<>();
+    private int total;
+    private int finished;
+    private int failed;
+    private int workers = 1;
+    private long runStartNanos = System.nanoTime();
+    private long knownPredictionTotal;
+    private int knownPredictions;
+    private long builtDurationTotal;
+    private int built;
+
+    /**
+     * Progress of the current run.
+     *
+     * @param running   running builds, longest running first
+     * @param etaMs     estimated time until the end of the run, or -1 when no build duration is known yet
+     */
+    public record Progress(int total, int finished, int failed, int queued, List<RunningProject> running,
+                           double buildsPerMinute, long elapsedMs, long etaMs) {
+
+        public boolean isActive() {
+            return finished < total;
+        }
+
+        public String summary() {
+            return String.format("%d/%d done (%d failed), %d running, %d queued | %.1f builds/min | elapsed %s | ETA %s",
+                    finished, total, failed, running.size(), queued, buildsPerMinute, formatTime(elapsedMs),
+                    etaMs >= 0 ? formatTime(etaMs) : "unknown");
+        }
+
+        public String toJson() {
+            StringBuilder json = new StringBuilder()
+                    .append("{\"total\": ").append(total)
+                    .append(", \"finished\": ").append(finished)
+                    .append(", \"failed\": ").append(failed)
+                    .append(", \"queued\": ").append(queued)
+                    .append(", \"buildsPerMinute\": ").append(String.format(Locale.ROOT, "%.2f", buildsPerMinute))
+                    .append(", \"elapsedMs\": ").append(elapsedMs)
+                    .append(", \"etaMs\": ").append(etaMs)
+                    .append(", \"running\": [");
+            for (int i = 0; i < running.size(); i++) {
+                RunningProject project = running.get(i);
+                json.append(i == 0 ? "" : ", ")
+                        .append("{\"project\": ").append(StringUtils.toJsonString(project.name()))
+                        .append(", \"elapsedMs\": ").append(project.elapsedMs());
+                if (project.predictedMs() != BuildResult.NO_PREDICTION) {
+                    json.append(", \"predictedDurationMs\": ").append(project.predictedMs());
+                }
+                json.append('}');
+            }
+            return json.append("]}").toString();
+        }
+    }
+
+    /**
+     * @param predictedMs predicted duration of the build, or {@link BuildResult#NO_PREDICTION}
+     */
+    public record RunningProject(String name, long elapsedMs, long predictedMs) {
+
+        @Override
+        public String toString() {
+            return name + " " + formatTime(elapsedMs)
+                    + (predictedMs != BuildResult.NO_PREDICTION ? " / ~" + formatTime(predictedMs) : "");
+        }
+    }
+
+    private record RunningBuild(String name, long startNanos, long predictedMs) {
+    }
+
+    /**
+     * Returns whether the standard output is an interactive terminal able to redraw the progress in place.
+     */
+    public static boolean isTerminal() {
+        Console console = System.console();
+        if (console == null || "dumb".equals(System.getenv("TERM"))) {
+            return false;
+        }
+        try {
+            // Since Java 22, System.console() is also returned when the output is redirected
+            return (Boolean) Console.class.getMethod("isTerminal").invoke(console);
+        } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
+            return true;
+        }
+    }
+
+    /**
+     * Starts displaying the progress: redrawn in place below the log on a terminal, else logged every interval
+     * while builds run.
+     */
+    public void start(boolean terminal, Duration logInterval) {
+        if (terminal) {
+            originalOut = System.out;
+            footer = new TerminalFooter(originalOut, terminalWidth());
+            // Log lines go through the footer, which moves itself below them
+            System.setOut(new PrintStream(footer, true, originalOut.charset()));
+            refresher.scheduleAtFixedRate(this::redraw, 0, TERMINAL_REFRESH.toMillis(), TimeUnit.MILLISECONDS);
+        } else {
+            refresher.scheduleAtFixedRate(this::logProgress, logInterval.toMillis(), logInterval.toMillis(),
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public synchronized void onRunStarted(List<ProjectDetector.ProjectInfo> projects, long[] predictedDurationsMs,
+                                          int workers) {
+        queued.clear();
+        running.clear();
+        total = projects.size();
+        finished = 0;
+        failed = 0;
+        this.workers = workers;
+        runStartNanos = System.nanoTime();
+        knownPredictionTotal = 0;
+        knownPredictions = 0;
+        builtDurationTotal = 0;
+        built = 0;
+        for (int index = 0; index < projects.size(); index++) {
+            long prediction = predictedDurationsMs[index];
+            queued.put(projects.get(index).projectDir().getAbsolutePath(), prediction);
+            if (prediction != BuildResult.NO_PREDICTION) {
+                knownPredictionTotal += prediction;
+                knownPredictions++;
+            }
+        }
+    }
+
+    @Override
+    public synchronized void onBuildStarted(ProjectDetector.ProjectInfo project) {
+        String path = project.projectDir().getAbsolutePath();
+        Long prediction = queued.remove(path);
+        running.put(path, new RunningBuild(project.getName(), System.nanoTime(),
+                prediction != null ? prediction : BuildResult.NO_PREDICTION));
+    }
+
+    @Override
+    public synchronized void onResult(BuildResult result) {
+        queued.remove(result.projectPath());
+        RunningBuild build = running.remove(result.projectPath());
+        finished++;
+        if (!result.success()) {
+            failed++;
+        }
+        if (build != null && result.durationMs() > 0) {
+            builtDurationTotal += result.durationMs();
+            built++;
+        }
+        TerminalFooter runFooter = footer;
+        if (finished == total && runFooter != null) {
+            // Do not leave the progress between the lines of the summary
+            runFooter.show(List.of());
+        }
+    }
+
+    public synchronized Progress progress() {
+        long now = System.nanoTime();
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(now - runStartNanos);
+        // Builds without history are assumed to take as long as the average known or finished build
+        long fallbackMs = knownPredictions > 0 ? knownPredictionTotal / knownPredictions
+                : built > 0 ? builtDurationTotal / built : BuildResult.NO_PREDICTION;
+
+        List<RunningProject> runningProjects = new ArrayList<>();
+        long remainingWorkMs = 0;
+        long longestRemainingMs = 0;
+        boolean unknown = false;
+        for (RunningBuild build : running.values()) {
+            long buildElapsedMs = TimeUnit.NANOSECONDS.toMillis(now - build.startNanos());
+            runningProjects.add(new RunningProject(build.name(), buildElapsedMs, build.predictedMs()));
+            long expectedMs = build.predictedMs() != BuildResult.NO_PREDICTION ? build.predictedMs() : fallbackMs;
+            unknown |= expectedMs == BuildResult.NO_PREDICTION;
+            long remainingMs = Math.max(0, expectedMs - buildElapsedMs);
+            remainingWorkMs += remainingMs;
+            longestRemainingMs = Math.max(longestRemainingMs, remainingMs);
+        }
+        for (long prediction : queued.values()) {
+            long expectedMs = prediction != BuildResult.NO_PREDICTION ? prediction : fallbackMs;
+            unknown |= expectedMs == BuildResult.NO_PREDICTION;
+            remainingWorkMs += Math.max(0, expectedMs);
+        }
+        runningProjects.sort((a, b) -> Long.compare(b.elapsedMs(), a.elapsedMs()));
+
+        int remainingBuilds = running.size() + queued.size();
+        long etaMs;
+        if (remainingBuilds == 0) {
+            etaMs = 0;
+        } else if (unknown) {
+            etaMs = -1;
+        } else {
+            etaMs = Math.max(longestRemainingMs, remainingWorkMs / Math.min(workers, remainingBuilds));
+        }
+        double buildsPerMinute = elapsedMs > 0 ? finished * 60_000.0 / elapsedMs : 0;
+        return new Progress(total, finished, failed, queued.size(), runningProjects, buildsPerMinute, elapsedMs, etaMs);
+    }
+
+    private void redraw() {
+        TerminalFooter runFooter = footer;
+        if (runFooter == null) {
+            return;
+        }
+        try {
+            Progress progress = progress();
+            if (!progress.isActive()) {
+                runFooter.show(List.of());
+                return;
+            }
+            List<String> lines = new ArrayList<>();
+            lines.add("\033[1mProgress: " + progress.summary());
+            List<RunningProject> projects = progress.running();
+            projects.stream().limit(MAX_RUNNING_LINES).forEach(project -> lines.add("  " + project));
+            if (projects.size() > MAX_RUNNING_LINES) {
+                lines.add("  ... and " + (projects.size() - MAX_RUNNING_LINES) + " more");
+            }
+            runFooter.show(lines);
+        } catch (RuntimeException e) {
+            logger.debug("Cannot draw the progress", e);
+        }
+    }
+
+    private void logProgress() {
+        try {
+            Progress progress = progress();
+            if (progress.isActive()) {
+                logger.info("Progress: {} | running: {}", progress.summary(), progress.running().isEmpty() ? "none"
+                        : String.join(", ", progress.running().stream().map(RunningProject::toString).toList()));
+            }
+        } catch (RuntimeException e) {
+            logger.debug("Cannot log the progress", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        refresher.shutdownNow();
+        TerminalFooter runFooter = footer;
+        if (runFooter != null) {
+            footer = null;
+            runFooter.show(List.of());
+            System.setOut(originalOut);
+        }
+    }
+
+    static String formatTime(long ms) {
+        long seconds = ms / 1000;
+        if (seconds < 60) {
+            return seconds + "s";
+        }
+        if (seconds < 3600) {
+            return String.format("%dm %02ds", seconds / 60, seconds % 60);
+        }
+        return String.format("%dh %02dm", seconds / 3600, seconds % 3600 / 60);
+    }
+
+    private static int terminalWidth() {
+        try {
+            return Integer.parseInt(System.getenv().getOrDefault("COLUMNS", "" + DEFAULT_TERMINAL_WIDTH));
+        } catch (NumberFormatException e) {
+            return DEFAULT_TERMINAL_WIDTH;
+        }
+    }
+
+    /**
+     * Keeps a few lines drawn at the bottom of the terminal: the lines are erased before anything else is written,
+     * and drawn again once the output ends with a complete line.
+     */
+    private static final class TerminalFooter extends OutputStream {
+        private final PrintStream terminal;
+        private final int width;
+        private List<String> lines = List.of();
+        private int drawnLines;
+        private boolean atLineStart = true;
+
+        TerminalFooter(PrintStream terminal, int width) {
+            this.terminal = terminal;
+            this.width = width;
+        }
+
+        synchronized void show(List<String> lines) {
+            erase();
+            this.lines = lines;
+            draw();
+            terminal.flush();
+        }
+
+        @Override
+        public synchronized void write(int b) {
+            erase();
+            terminal.write(b);
+            atLineStart = b == '\n';
+        }
+
+        @Override
+        public synchronized void write(byte[] bytes, int offset, int length) {
+            if (length == 0) {
+                return;
+            }
+            erase();
+            terminal.write(bytes, offset, length);
+            atLineStart = bytes[offset + length - 1] == '\n';
+        }
+
+        @Override
+        public synchronized void flush() {
+            draw();
+            terminal.flush();
+        }
+
+        private void erase() {
+            if (drawnLines > 0) {
+                // Back to the first footer line, then clear to the end of the screen
+                terminal.print("\033[" + drawnLines + "F\033[J");
+                drawnLines = 0;
+            }
+        }
+
+        private void draw() {
+            if (drawnLines > 0 || !atLineStart) {
+                return;
+            }
+            for (String line : lines) {
+                // Lines wrapped by the terminal would not be erased entirely
+                terminal.print(line.length() >= width ? line.substring(0, width - 1) : line);
+                terminal.print("\033[0m\n");
+            }
+            drawnLines = lines.size();
+        }
+    }
+}
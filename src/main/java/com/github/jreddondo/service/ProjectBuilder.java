@@ -1,90 +1,482 @@
 package com.github.jreddondo.service;
 
+import com.github.jreddondo.model.BuildMetrics;
 import com.github.jreddondo.model.BuildResult;
+import com.github.jreddondo.model.BuildSettings;
+import com.github.jreddondo.model.BuildStatus;
+import com.github.jreddondo.model.FailureCategory;
+import com.github.jreddondo.util.DurationConverter;
+import com.github.jreddondo.util.MemorySizeConverter;
+import com.github.jreddondo.util.StringUtils;
+import com.github.jreddondo.util.SystemResources;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.InputStreamReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
-public class ProjectBuilder {
+public class ProjectBuilder implements BuildExecutor {
     public static final String CANNOT_BUILD_UNKNOWN_PROJECT_TYPE = "Cannot build UNKNOWN project type";
     private static final Logger logger = LoggerFactory.getLogger(ProjectBuilder.class);
     private static final String CMD_EXE = "cmd.exe";
 
+    private static final String MAVEN_DAEMON = "mvnd";
+    private static final String GRADLE_JVM_ARGS = "org.gradle.jvmargs";
+    private static final Duration OUTPUT_DRAIN_TIMEOUT = Duration.ofSeconds(10);
+    private static final Duration MEMORY_POLL_INTERVAL = Duration.ofSeconds(2);
+    private static final Duration MEMORY_SETTLE_DELAY = Duration.ofSeconds(30);
+
+    private final Path outputDirectory;
+    private final Map<String, List<String>> outputFileNames = new HashMap<>();
+    private final Set<String> usedOutputFileNames = new HashSet<>();
+    private final Map<String, Integer> runBuilds = new HashMap<>();
+    private final FailureClassifier failureClassifier = new FailureClassifier();
+    private final Set<Process> runningProcesses = ConcurrentHashMap.newKeySet();
+    private final Map<Process, Cancellation> cancellations = new ConcurrentHashMap<>();
+    private final Object admission = new Object();
+    private final AtomicInteger admittedBuilds = new AtomicInteger();
+    private final Map<Object, Long> memoryReservations = new ConcurrentHashMap<>();
+    private volatile Cancellation cancelAllReason;
+    private BuildConfiguration configuration = BuildConfiguration.defaults();
+    private boolean useBuildDaemons;
+    private Duration timeout;
+    private Boolean mavenDaemonAvailable;
+    private long buildHeapBytes;
+    private IsolatedRepositories isolatedRepositories;
+    private long minFreeMemoryBytes;
+
+    public ProjectBuilder() {
+        this(null);
+    }
+
+    /**
+     * @param outputDirectory directory receiving one output file per built project, or null to not keep the output
+     */
+    public ProjectBuilder(Path outputDirectory) {
+        this.outputDirectory = outputDirectory;
+    }
+
+    /**
+     * Selects the goals, arguments, JVM options and environment of the builds.
+     */
+    public void setConfiguration(BuildConfiguration configuration) {
+        this.configuration = configuration;
+    }
+
+    /**
+     * Reuses warm build tool JVMs: Gradle builds run with --daemon, and Maven builds run with mvnd when it is on the PATH.
+     */
+    public void setUseBuildDaemons(boolean useBuildDaemons) {
+        this.useBuildDaemons = useBuildDaemons;
+    }
+
+    /**
+     * Limits the duration of every build; builds running longer are killed and reported as TIMED_OUT.
+     */
+    public void setTimeout(Duration timeout) {
+        this.timeout = timeout;
+    }
+
+    /**
+     * Limits the heap of the build tool JVM: -Xmx is added to MAVEN_OPTS for Maven, unless the configured JVM options
+     * set it, and org.gradle.jvmargs is set for the Gradle daemon, unless the configured arguments or the
+     * gradle.properties of the project set it.
+     *
+     * @param buildHeapBytes maximum heap, or 0 for no limit
+     */
+    public void setBuildHeapBytes(long buildHeapBytes) {
+        this.buildHeapBytes = buildHeapBytes;
+    }
+
+    /**
+     * Builds every concurrent build with its own Maven local repository and Gradle user home.
+     */
+    public void setIsolatedRepositories(IsolatedRepositories isolatedRepositories) {
+        this.isolatedRepositories = isolatedRepositories;
+    }
+
+    /**
+     * Holds back a build while other builds run and less than the given memory is available for new processes.
+     * The builds admitted less than {@link #MEMORY_SETTLE_DELAY} ago count as using their heap, or this memory when
+     * their heap is not limited, since their JVM has not allocated it yet.
+     *
+     * @param minFreeMemoryBytes memory required to start a build, or 0 to always start builds
+     */
+    public void setMinFreeMemoryBytes(long minFreeMemoryBytes) {
+        this.minFreeMemoryBytes = minFreeMemoryBytes;
+    }
+
+    /**
+     * Kills all running builds with their whole process tree, reporting them with the given status,
+     * and makes every build started afterwards in the same run finish immediately with that status.
+     */
+    @Override
+    public void cancelAll(BuildStatus status, String reason) {
+        Cancellation cancellation = new Cancellation(status, reason);
+        cancelAllReason = cancellation;
+        for (Process process : runningProcesses) {
+            cancel(process, cancellation);
+        }
+    }
+
+    @Override
+    public void startRun() {
+        cancelAllReason = null;
+        synchronized (outputFileNames) {
+            runBuilds.clear();
+        }
+        if (isolatedRepositories != null) {
+            isolatedRepositories.startRun();
+        }
+    }
+
+    private void cancel(Process process, Cancellation cancellation) {
+        if (cancellations.putIfAbsent(process, cancellation) == null) {
+            destroyProcessTree(process);
+        }
+    }
+
+    private void destroyProcessTree(Process process) {
+        // Maven and Gradle fork compiler, test and daemon JVMs that would outlive the build tool process
+        process.descendants().forEach(ProcessHandle::destroyForcibly);
+        process.destroyForcibly();
+    }
+
+    @Override
     public BuildResult buildProject(ProjectDetector.ProjectInfo projectInfo) {
+        return buildProject(projectInfo, List.of(), configuration.resolve(projectInfo).goals());
+    }
+
+    /**
+     * Builds a project with the given goals or tasks instead of the configured ones, passing additional arguments
+     * to the build tool before the configured arguments.
+     */
+    public BuildResult buildProject(ProjectDetector.ProjectInfo projectInfo, List<String> additionalArguments,
+                                    List<String> goals) {
+        if (minFreeMemoryBytes <= 0) {
+            return build(projectInfo, additionalArguments, goals);
+        }
+        Object reservation;
+        try {
+            reservation = awaitFreeMemory(projectInfo.getName());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return result(projectInfo, BuildStatus.CANCELLED, 0, "Build interrupted while waiting for memory", null);
+        }
+        try {
+            return build(projectInfo, additionalArguments, goals);
+        } finally {
+            memoryReservations.remove(reservation);
+            admittedBuilds.decrementAndGet();
+        }
+    }
+
+    private BuildResult build(ProjectDetector.ProjectInfo projectInfo, List<String> additionalArguments,
+                              List<String> goals) {
         String projectName = projectInfo.getName();
-        String projectPath = projectInfo.projectDir().getAbsolutePath();
         ProjectDetector.ProjectType type = projectInfo.type();
 
+        Cancellation cancelled = cancelAllReason;
+        if (cancelled != null) {
+            return result(projectInfo, cancelled.status(), 0, cancelled.reason(), null);
+        }
+
         logger.info("Starting build for project: {} ({})", projectName, type);
-        long startTime = System.currentTimeMillis();
+        long startTime = System.nanoTime();
+        long startMillis = System.currentTimeMillis();
+        BuildPhaseRecorder phaseRecorder = new BuildPhaseRecorder(startTime);
+        BuildOutputCapture output = null;
+        Process process = null;
+        IsolatedRepositories.Repository repository = null;
 
         try {
-            ProcessBuilder processBuilder = createProcessBuilder(projectInfo);
+            repository = acquireRepository();
+            ProcessBuilder processBuilder = createProcessBuilder(projectInfo, additionalArguments, goals, repository);
             processBuilder.directory(projectInfo.projectDir());
             processBuilder.redirectErrorStream(true);
 
-            Process process = processBuilder.start();
-
-            // Read output
-            try (BufferedReader reader = new BufferedReader(
-                    new InputStreamReader(process.getInputStream()))) {
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    logger.debug("[{}] {}", projectName, line);
-                }
+            Path outputFile = outputFile(projectInfo);
+            process = processBuilder.start();
+            runningProcesses.add(process);
+            if (cancelAllReason != null) {
+                cancel(process, cancelAllReason);
             }
+            output = new BuildOutputCapture(projectName, outputFile, phaseRecorder);
+            output.start(process.getInputStream());
 
-            int exitCode = process.waitFor();
-            long duration = System.currentTimeMillis() - startTime;
+            if (!waitFor(process)) {
+                cancel(process, new Cancellation(BuildStatus.TIMED_OUT,
+                        "Build timed out after " + DurationConverter.format(timeout)));
+                process.waitFor();
+            }
+            long endTime = System.nanoTime();
+            int exitCode = process.exitValue();
+            if (cancellations.containsKey(process)) {
+                output.await(OUTPUT_DRAIN_TIMEOUT);
+            } else {
+                output.await();
+            }
+            long duration = TimeUnit.NANOSECONDS.toMillis(endTime - startTime);
+            BuildMetrics metrics = metrics(phaseRecorder, startTime, endTime);
 
-            if (exitCode == 0) {
+            Cancellation cancellation = cancellations.get(process);
+            if (cancellation != null) {
+                logger.error("Build {} for project: {} - {}", cancellation.status(), projectName, cancellation.reason());
+                return result(projectInfo, cancellation.status(), duration, cancellation.reason(), output)
+                        .withMetrics(metrics);
+            } else if (exitCode == 0) {
                 logger.info("Build SUCCESS for project: {} ({}ms)", projectName, duration);
-                return new BuildResult(projectName, projectPath, true, type.name(), duration, null);
+                if (repository != null) {
+                    isolatedRepositories.publish(repository, projectInfo, startMillis);
+                }
+                return result(projectInfo, BuildStatus.SUCCESS, duration, null, output).withMetrics(metrics);
             } else {
-                String errorMsg = "Build failed with exit code: " + exitCode;
-                logger.error("Build FAILED for project: {} - {}", projectName, errorMsg);
-                return new BuildResult(projectName, projectPath, false, type.name(), duration, errorMsg);
+                FailureClassifier.Failure failure = failureClassifier.classify(output.getOutputFile());
+                String errorMsg = "Build failed with exit code: " + exitCode
+                        + (failure.evidence() != null ? " - " + failure.evidence() : "");
+                logger.error("Build FAILED for project: {} - {} ({})", projectName, errorMsg, failure.category());
+                return result(projectInfo, BuildStatus.FAILED, duration, errorMsg, output).withMetrics(metrics)
+                        .withFailureCategory(failure.category());
             }
 
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
-            long duration = System.currentTimeMillis() - startTime;
+            if (process != null) {
+                destroyProcessTree(process);
+            }
+            long duration = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
             String errorMsg = "Build interrupted: " + e.getMessage();
             logger.error("Build INTERRUPTED for project: {} - {}", projectName, errorMsg, e);
-            return new BuildResult(projectName, projectPath, false, type.name(), duration, errorMsg);
+            return result(projectInfo, BuildStatus.CANCELLED, duration, errorMsg, output);
         } catch (Exception e) {
-            long duration = System.currentTimeMillis() - startTime;
+            long duration = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
             String errorMsg = e.getMessage();
             logger.error("Build FAILED for project: {} - Exception: {}", projectName, errorMsg, e);
-            return new BuildResult(projectName, projectPath, false, type.name(), duration, errorMsg);
+            return result(projectInfo, BuildStatus.FAILED, duration, errorMsg, output)
+                    .withFailureCategory(FailureCategory.UNKNOWN);
+        } finally {
+            if (process != null) {
+                runningProcesses.remove(process);
+                cancellations.remove(process);
+            }
+            if (repository != null) {
+                isolatedRepositories.release(repository);
+            }
         }
     }
 
-    private ProcessBuilder createProcessBuilder(ProjectDetector.ProjectInfo projectInfo) {
-        List<String> command = buildCommand(projectInfo);
-        return new ProcessBuilder(command);
+    /**
+     * Waits until enough memory is available to start a build, or no other build runs: a build is always started
+     * when it is the only one, so that the run makes progress. Counts the build as admitted and returns its memory
+     * reservation.
+     */
+    private Object awaitFreeMemory(String projectName) throws InterruptedException {
+        // One build is admitted at a time, and the memory of the builds just admitted is reserved, so that builds
+        // waiting together do not all start on the same free memory
+        synchronized (admission) {
+            boolean holding = false;
+            while (admittedBuilds.get() > 0 && cancelAllReason == null) {
+                long availableMemory = Math.max(0, SystemResources.availableMemoryBytes() - reservedMemory());
+                if (availableMemory >= minFreeMemoryBytes) {
+                    break;
+                }
+                if (!holding) {
+                    logger.info("Holding back build of project {}: {}MB of memory available, {}MB required",
+                            projectName, availableMemory / (1024 * 1024), minFreeMemoryBytes / (1024 * 1024));
+                    holding = true;
+                }
+                Thread.sleep(MEMORY_POLL_INTERVAL.toMillis());
+            }
+            if (holding) {
+                logger.info("Releasing build of project {}", projectName);
+            }
+            Object reservation = new Object();
+            memoryReservations.put(reservation, System.nanoTime());
+            admittedBuilds.incrementAndGet();
+            return reservation;
+        }
     }
 
-    private List<String> buildCommand(ProjectDetector.ProjectInfo projectInfo) {
+    /**
+     * Returns the memory reserved for the builds admitted less than {@link #MEMORY_SETTLE_DELAY} ago, whose JVM heap
+     * is still growing and not yet accounted for in the available memory.
+     */
+    private long reservedMemory() {
+        long settled = System.nanoTime() - MEMORY_SETTLE_DELAY.toNanos();
+        long starting = memoryReservations.values().stream().filter(admitted -> admitted - settled > 0).count();
+        return starting * (buildHeapBytes > 0 ? buildHeapBytes : minFreeMemoryBytes);
+    }
+
+    private IsolatedRepositories.Repository acquireRepository() {
+        if (isolatedRepositories == null) {
+            return null;
+        }
+        try {
+            return isolatedRepositories.acquire();
+        } catch (IOException e) {
+            logger.warn("Cannot prepare an isolated repository, building with the shared one: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private boolean waitFor(Process process) throws InterruptedException {
+        if (timeout == null) {
+            process.waitFor();
+            return true;
+        }
+        return process.waitFor(timeout.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private BuildMetrics metrics(BuildPhaseRecorder phaseRecorder, long startTime, long endTime) {
+        long firstOutput = phaseRecorder.getFirstOutputNanos();
+        long startup = firstOutput >= 0 ? firstOutput - startTime : endTime - startTime;
+        return new BuildMetrics(0, startup, startTime, endTime, phaseRecorder.finish(endTime));
+    }
+
+    private BuildResult result(ProjectDetector.ProjectInfo projectInfo, BuildStatus status, long duration,
+                               String errorMsg, BuildOutputCapture output) {
+        String outputLog = output != null && output.getOutputFile() != null
+                ? output.getOutputFile().toAbsolutePath().toString()
+                : null;
+        return new BuildResult(projectInfo.getName(), projectInfo.projectDir().getAbsolutePath(), status,
+                projectInfo.type().name(), duration, errorMsg, outputLog);
+    }
+
+    /**
+     * Returns the output file of the next build of the project in this run: every attempt has its own file, and
+     * the builds of the next run, e.g. a watch mode rebuild, overwrite the files of the previous one.
+     */
+    private Path outputFile(ProjectDetector.ProjectInfo projectInfo) throws IOException {
+        if (outputDirectory == null) {
+            return null;
+        }
+        Files.createDirectories(outputDirectory);
+        String projectPath = projectInfo.projectDir().getAbsolutePath();
+        String fileName;
+        synchronized (outputFileNames) {
+            int build = runBuilds.merge(projectPath, 1, Integer::sum) - 1;
+            List<String> fileNames = outputFileNames.computeIfAbsent(projectPath, path -> new ArrayList<>());
+            if (build < fileNames.size()) {
+                fileName = fileNames.get(build);
+            } else {
+                // Projects found in different groups may share a directory name
+                String baseName = StringUtils.toFileName(projectInfo.getName());
+                fileName = baseName + ".log";
+                for (int suffix = 2; !usedOutputFileNames.add(fileName); suffix++) {
+                    fileName = baseName + "_" + suffix + ".log";
+                }
+                fileNames.add(fileName);
+            }
+        }
+        return outputDirectory.resolve(fileName);
+    }
+
+    private static boolean setsGradleJvmArgs(File projectDir) {
+        Path gradleProperties = projectDir.toPath().resolve("gradle.properties");
+        if (!Files.isRegularFile(gradleProperties)) {
+            return false;
+        }
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(gradleProperties, StandardCharsets.ISO_8859_1)) {
+            properties.load(reader);
+        } catch (IOException | IllegalArgumentException e) {
+            logger.debug("Cannot read {}: {}", gradleProperties, e.getMessage());
+            return false;
+        }
+        return properties.containsKey(GRADLE_JVM_ARGS);
+    }
+
+    private ProcessBuilder createProcessBuilder(ProjectDetector.ProjectInfo projectInfo,
+                                                List<String> additionalArguments, List<String> goals,
+                                                IsolatedRepositories.Repository repository) {
+        BuildSettings settings = configuration.resolve(projectInfo);
+        List<String> arguments = new ArrayList<>(additionalArguments);
+        Map<String, String> environment = new HashMap<>();
+        if (projectInfo.type() == ProjectDetector.ProjectType.MAVEN) {
+            if (repository != null) {
+                arguments.add("-Dmaven.repo.local=" + repository.mavenRepository());
+            }
+        } else if (projectInfo.type() == ProjectDetector.ProjectType.GRADLE) {
+            if (buildHeapBytes > 0 && settings.arguments().stream().noneMatch(arg -> arg.contains(GRADLE_JVM_ARGS))) {
+                if (setsGradleJvmArgs(projectInfo.projectDir())) {
+                    // The property would replace all the JVM arguments of the project, not only its heap
+                    logger.warn("Not limiting the heap of project {}: its gradle.properties sets {}",
+                            projectInfo.getName(), GRADLE_JVM_ARGS);
+                } else {
+                    arguments.add("-D" + GRADLE_JVM_ARGS + "=-Xmx" + MemorySizeConverter.format(buildHeapBytes));
+                }
+            }
+            if (repository != null) {
+                environment.put("GRADLE_USER_HOME", repository.gradleUserHome().toString());
+                Path sharedCache = isolatedRepositories.sharedGradleCache();
+                if (sharedCache != null) {
+                    environment.put("GRADLE_RO_DEP_CACHE", sharedCache.toString());
+                }
+            }
+        }
+        List<String> command = buildCommand(projectInfo, settings, arguments, goals);
+        logger.debug("Build command for project {}: {}", projectInfo.getName(), String.join(" ", command));
+        ProcessBuilder processBuilder = new ProcessBuilder(command);
+        if (settings.jvmOptions() != null) {
+            processBuilder.environment().put(jvmOptionsVariable(projectInfo.type()), settings.jvmOptions());
+        }
+        if (buildHeapBytes > 0 && projectInfo.type() == ProjectDetector.ProjectType.MAVEN
+                && (settings.jvmOptions() == null || !settings.jvmOptions().contains("-Xmx"))) {
+            // The last -Xmx wins over an inherited one
+            String jvmOptions = processBuilder.environment().getOrDefault("MAVEN_OPTS", "");
+            processBuilder.environment().put("MAVEN_OPTS",
+                    (jvmOptions + " -Xmx" + MemorySizeConverter.format(buildHeapBytes)).trim());
+        }
+        // Configured variables win over the isolation ones
+        processBuilder.environment().putAll(environment);
+        processBuilder.environment().putAll(settings.environment());
+        return processBuilder;
+    }
+
+    private List<String> buildCommand(ProjectDetector.ProjectInfo projectInfo, BuildSettings settings,
+                                      List<String> additionalArguments, List<String> goals) {
         List<String> command = new ArrayList<>();
         boolean isWindows = isWindows();
 
         addBuildToolCommand(command, projectInfo.projectDir(), projectInfo.type(), isWindows);
-        addBuildGoals(command, projectInfo.type());
+        addBuildGoals(command, projectInfo.type(), settings, additionalArguments, goals);
 
         return command;
     }
 
+    private String jvmOptionsVariable(ProjectDetector.ProjectType type) {
+        return switch (type) {
+            case MAVEN -> "MAVEN_OPTS";
+            case GRADLE -> "GRADLE_OPTS";
+            default -> throw new IllegalArgumentException(CANNOT_BUILD_UNKNOWN_PROJECT_TYPE);
+        };
+    }
+
     private boolean isWindows() {
         return System.getProperty("os.name").toLowerCase().contains("win");
     }
 
     private void addBuildToolCommand(List<String> command, File projectDir, ProjectDetector.ProjectType type, boolean isWindows) {
+        if (useBuildDaemons && type == ProjectDetector.ProjectType.MAVEN && isMavenDaemonAvailable(isWindows)) {
+            // mvnd is a drop-in replacement for mvn keeping warm Maven JVMs between builds
+            addPlatformCommand(command, projectDir, MAVEN_DAEMON, MAVEN_DAEMON, isWindows);
+            return;
+        }
         String wrapperScript = getWrapperScript(type, isWindows);
         String fallbackCommand = getFallbackCommand(type);
 
@@ -112,6 +504,37 @@ public class ProjectBuilder {
         return "./" + wrapperScript;
     }
 
+    private synchronized boolean isMavenDaemonAvailable(boolean isWindows) {
+        if (mavenDaemonAvailable == null) {
+            mavenDaemonAvailable = isOnPath(MAVEN_DAEMON, isWindows);
+            if (mavenDaemonAvailable) {
+                logger.info("Using Maven daemon ({}) for Maven builds", MAVEN_DAEMON);
+            } else {
+                logger.info("Maven daemon ({}) not found on PATH, using Maven", MAVEN_DAEMON);
+            }
+        }
+        return mavenDaemonAvailable;
+    }
+
+    private boolean isOnPath(String executable, boolean isWindows) {
+        String path = System.getenv("PATH");
+        if (path == null) {
+            return false;
+        }
+        List<String> names = isWindows
+                ? List.of(executable + ".cmd", executable + ".exe", executable + ".bat")
+                : List.of(executable);
+        for (String dir : path.split(File.pathSeparator)) {
+            for (String name : names) {
+                File candidate = new File(dir, name);
+                if (candidate.isFile() && candidate.canExecute()) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
     private String getWrapperScript(ProjectDetector.ProjectType type, boolean isWindows) {
         if (type == ProjectDetector.ProjectType.MAVEN) {
             return isWindows ? "mvnw.cmd" : "mvnw";
@@ -130,18 +553,28 @@ public class ProjectBuilder {
         };
     }
 
-    private void addBuildGoals(List<String> command, ProjectDetector.ProjectType type) {
+    private void addBuildGoals(List<String> command, ProjectDetector.ProjectType type, BuildSettings settings,
+                               List<String> additionalArguments, List<String> goals) {
         switch (type) {
             case MAVEN -> {
-                command.add("clean");
-                command.add("install");
+                // Batch mode keeps the step headers free of colors and download progress
+                command.add("-B");
             }
             case GRADLE -> {
-                command.add("clean");
-                command.add("build");
+                // The plain console prints every task header, which the rich console only shows while it runs
+                command.add("--console=plain");
+                if (useBuildDaemons) {
+                    command.add("--daemon");
+                }
             }
             default -> throw new IllegalArgumentException(CANNOT_BUILD_UNKNOWN_PROJECT_TYPE);
         }
+        // Configured arguments come last, so they win over the additional ones when both set the same option
+        command.addAll(additionalArguments);
+        command.addAll(settings.arguments());
+        command.addAll(goals);
     }
-}
 
+    private record Cancellation(BuildStatus status, String reason) {
+    }
+}
@@ -0,0 +1,273 @@
+package com.github.jreddondo.service;
+
+import com.github.jreddondo.model.ProjectCoordinates;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Reads the coordinates and declared dependencies of Maven and Gradle projects.
+ * Parsing is best effort: anything that cannot be determined statically is ignored.
+ */
+public class ProjectCoordinatesReader {
+    private static final Logger logger = LoggerFactory.getLogger(ProjectCoordinatesReader.class);
+    private static final Pattern PROPERTY_REFERENCE = Pattern.compile("\\$\\{([^}]+)}");
+    private static final Pattern GRADLE_GROUP = Pattern.compile("(?m)^\\s*group\\s*=?\\s*['\"]([^'\"]+)['\"]");
+    private static final Pattern GRADLE_VERSION = Pattern.compile("(?m)^\\s*version\\s*=?\\s*['\"]([^'\"]+)['\"]");
+    private static final Pattern GRADLE_ROOT_NAME = Pattern.compile("rootProject\\.name\\s*=\\s*['\"]([^'\"]+)['\"]");
+    private static final Pattern GRADLE_INCLUDE = Pattern.compile("(?m)^\\s*include\\s*\\(?(.+?)\\)?\\s*$");
+    private static final Pattern QUOTED = Pattern.compile("['\"]([^'\"]+)['\"]");
+    private static final Pattern GRADLE_STRING_NOTATION =
+            Pattern.compile("['\"]([\\w.\\-]+):([\\w.\\-]+)(?::[^'\"]*)?['\"]");
+    private static final Pattern GRADLE_MAP_NOTATION =
+            Pattern.compile("group\\s*:\\s*['\"]([^'\"]+)['\"]\\s*,\\s*name\\s*:\\s*['\"]([^'\"]+)['\"]");
+
+    public ProjectCoordinates read(ProjectDetector.ProjectInfo projectInfo) {
+        try {
+            return switch (projectInfo.type()) {
+                case MAVEN -> readMaven(projectInfo.projectDir());
+                case GRADLE -> readGradle(projectInfo.projectDir());
+                default -> unresolved(projectInfo.projectDir());
+            };
+        } catch (Exception e) {
+            logger.warn("Could not read dependencies of project: {} - {}", projectInfo.getName(), e.getMessage());
+            return unresolved(projectInfo.projectDir());
+        }
+    }
+
+    /**
+     * Returns the name of a Maven project as declared by its pom, or null when it declares none or cannot be read.
+     */
+    public String readMavenName(File projectDir) {
+        try {
+            Document document = newDocumentBuilder().parse(new File(projectDir, "pom.xml"));
+            return text(document.getDocumentElement(), "name");
+        } catch (Exception e) {
+            logger.debug("Could not read name of project: {} - {}", projectDir.getName(), e.getMessage());
+            return null;
+        }
+    }
+
+    private ProjectCoordinates unresolved(File projectDir) {
+        return new ProjectCoordinates("", projectDir.getName(), null, Set.of(), Set.of());
+    }
+
+    private ProjectCoordinates readMaven(File projectDir) throws Exception {
+        DocumentBuilder documentBuilder = newDocumentBuilder();
+        Set<String> produced = new LinkedHashSet<>();
+        Set<String> required = new LinkedHashSet<>();
+        PomInfo root = readPom(documentBuilder, new File(projectDir, "pom.xml"), produced, required, new HashSet<>());
+        if (root == null) {
+            return unresolved(projectDir);
+        }
+        required.removeAll(produced);
+        return new ProjectCoordinates(root.groupId(), root.artifactId(), root.version(), produced, required);
+    }
+
+    private PomInfo readPom(DocumentBuilder documentBuilder, File pomFile, Set<String> produced, Set<String> required,
+                            Set<File> visited) throws Exception {
+        File canonical = pomFile.getCanonicalFile();
+        if (!visited.add(canonical) || !canonical.isFile()) {
+            return null;
+        }
+        Document document = documentBuilder.parse(canonical);
+        Element project = document.getDocumentElement();
+        Element parent = child(project, "parent");
+
+        String groupId = text(project, "groupId");
+        String version = text(project, "version");
+        if (parent != null) {
+            groupId = groupId != null ? groupId : text(parent, "groupId");
+            version = version != null ? version : text(parent, "version");
+        }
+        String artifactId = text(project, "artifactId");
+
+        Map<String, String> properties = new HashMap<>();
+        Element propertiesElement = child(project, "properties");
+        if (propertiesElement != null) {
+            for (Element property : children(propertiesElement)) {
+                properties.put(property.getTagName(), property.getTextContent().trim());
+            }
+        }
+        properties.put("project.groupId", groupId);
+        properties.put("pom.groupId", groupId);
+        properties.put("groupId", groupId);
+
+        produced.add(ProjectCoordinates.key(groupId, artifactId));
+
+        if (parent != null) {
+            required.add(ProjectCoordinates.key(text(parent, "groupId"), text(parent, "artifactId")));
+        }
+        addDependencies(child(project, "dependencies"), "dependency", properties, required);
+        Element build = child(project, "build");
+        if (build != null) {
+            addDependencies(child(build, "plugins"), "plugin", properties, required);
+        }
+
+        Element modules = child(project, "modules");
+        if (modules != null) {
+            for (Element module : children(modules)) {
+                File moduleDir = new File(canonical.getParentFile(), module.getTextContent().trim());
+                File modulePom = moduleDir.isDirectory() ? new File(moduleDir, "pom.xml") : moduleDir;
+                readPom(documentBuilder, modulePom, produced, required, visited);
+            }
+        }
+        return new PomInfo(groupId, artifactId, version);
+    }
+
+    private void addDependencies(Element container, String tagName, Map<String, String> properties, Set<String> required) {
+        if (container == null) {
+            return;
+        }
+        for (Element dependency : children(container)) {
+            if (!tagName.equals(dependency.getTagName())) {
+                continue;
+            }
+            String groupId = resolve(text(dependency, "groupId"), properties);
+            String artifactId = resolve(text(dependency, "artifactId"), properties);
+            if (artifactId != null) {
+                // Maven plugins without a groupId default to org.apache.maven.plugins
+                if (groupId == null && "plugin".equals(tagName)) {
+                    groupId = "org.apache.maven.plugins";
+                }
+                required.add(ProjectCoordinates.key(groupId, artifactId));
+            }
+        }
+    }
+
+    private String resolve(String value, Map<String, String> properties) {
+        if (value == null || !value.contains("${")) {
+            return value;
+        }
+        Matcher matcher = PROPERTY_REFERENCE.matcher(value);
+        StringBuilder resolved = new StringBuilder();
+        while (matcher.find()) {
+            String replacement = properties.getOrDefault(matcher.group(1), matcher.group());
+            matcher.appendReplacement(resolved, Matcher.quoteReplacement(replacement == null ? "" : replacement));
+        }
+        matcher.appendTail(resolved);
+        return resolved.toString();
+    }
+
+    private ProjectCoordinates readGradle(File projectDir) throws IOException {
+        String buildScript = readFirstExisting(projectDir, "build.gradle", "build.gradle.kts");
+        String settingsScript = readFirstExisting(projectDir, "settings.gradle", "settings.gradle.kts");
+
+        String groupId = firstGroup(GRADLE_GROUP, buildScript, "");
+        String version = firstGroup(GRADLE_VERSION, buildScript, null);
+        String name = firstGroup(GRADLE_ROOT_NAME, settingsScript, projectDir.getName());
+
+        Set<String> produced = new LinkedHashSet<>();
+        produced.add(ProjectCoordinates.key(groupId, name));
+        for (String include : includedProjects(settingsScript)) {
+            produced.add(ProjectCoordinates.key(groupId, include));
+        }
+
+        Set<String> required = new LinkedHashSet<>();
+        addGradleDependencies(buildScript, required);
+        for (String include : includedProjects(settingsScript)) {
+            File subprojectDir = new File(projectDir, include.replace(':', File.separatorChar));
+            addGradleDependencies(readFirstExisting(subprojectDir, "build.gradle", "build.gradle.kts"), required);
+        }
+        required.removeAll(produced);
+        return new ProjectCoordinates(groupId, name, version, produced, required);
+    }
+
+    private void addGradleDependencies(String script, Set<String> required) {
+        Matcher stringNotation = GRADLE_STRING_NOTATION.matcher(script);
+        while (stringNotation.find()) {
+            required.add(ProjectCoordinates.key(stringNotation.group(1), stringNotation.group(2)));
+        }
+        Matcher mapNotation = GRADLE_MAP_NOTATION.matcher(script);
+        while (mapNotation.find()) {
+            required.add(ProjectCoordinates.key(mapNotation.group(1), mapNotation.group(2)));
+        }
+    }
+
+    private List<String> includedProjects(String settingsScript) {
+        List<String> included = new ArrayList<>();
+        Matcher includeMatcher = GRADLE_INCLUDE.matcher(settingsScript);
+        while (includeMatcher.find()) {
+            Matcher quoted = QUOTED.matcher(includeMatcher.group(1));
+            while (quoted.find()) {
+                String path = quoted.group(1);
+                String name = path.substring(path.lastIndexOf(':') + 1);
+                if (!name.isEmpty()) {
+                    included.add(path.startsWith(":") ? path.substring(1) : path);
+                }
+            }
+        }
+        return included;
+    }
+
+    private String firstGroup(Pattern pattern, String text, String defaultValue) {
+        Matcher matcher = pattern.matcher(text);
+        return matcher.find() ? matcher.group(1) : defaultValue;
+    }
+
+    private String readFirstExisting(File dir, String... fileNames) throws IOException {
+        for (String fileName : fileNames) {
+            File file = new File(dir, fileName);
+            if (file.isFile()) {
+                return Files.readString(file.toPath());
+            }
+        }
+        return "";
+    }
+
+    private DocumentBuilder newDocumentBuilder() throws Exception {
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+        factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+        factory.setNamespaceAware(false);
+        return factory.newDocumentBuilder();
+    }
+
+    private static Element child(Element parent, String tagName) {
+        for (Element element : children(parent)) {
+            if (tagName.equals(element.getTagName())) {
+                return element;
+            }
+        }
+        return null;
+    }
+
+    private static List<Element> children(Element parent) {
+        List<Element> elements = new ArrayList<>();
+        NodeList nodes = parent.getChildNodes();
+        for (int i = 0; i < nodes.getLength(); i++) {
+            Node node = nodes.item(i);
+            if (node instanceof Element element) {
+                elements.add(element);
+            }
+        }
+        return elements;
+    }
+
+    private static String text(Element parent, String tagName) {
+        Element element = child(parent, tagName);
+        return element == null ? null : element.getTextContent().trim();
+    }
+
+    private record PomInfo(String groupId, String artifactId, String version) {
+    }
+}
@@ -4,13 +4,55 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
 
 public class ProjectDetector {
+    public static final List<String> DEFAULT_IGNORE_PATTERNS =
+            List.of(".*", "node_modules", "target", "build", "out");
+    // The default patterns applied in the root directory too: the others only name build outputs below it
+    private static final List<String> ROOT_DEFAULT_IGNORE_PATTERNS = List.of(".*");
     private static final Logger logger = LoggerFactory.getLogger(ProjectDetector.class);
+    private static final String POM_XML = "pom.xml";
+    private static final String BUILD_GRADLE = "build.gradle";
+    private static final String BUILD_GRADLE_KTS = "build.gradle.kts";
 
     public List<ProjectInfo> detectProjects(File rootDir) {
+        return detectProjects(rootDir, DetectionOptions.topLevel());
+    }
+
+    /**
+     * Detects the projects below the root directory, walking subdirectories in parallel.
+     * The walk does not descend into a detected project (its Maven reactor modules or Gradle
+     * subprojects are built as part of it), into ignored directories, or beyond the maximum depth.
+     * Projects are returned sorted by path so the detection order is stable between runs.
+     */
+    public List<ProjectInfo> detectProjects(File rootDir, DetectionOptions options) {
+        return detectProjects(rootDir, options, null);
+    }
+
+    /**
+     * Detects the projects like {@link #detectProjects(File, DetectionOptions)}, additionally recording the
+     * modification time of every directory listed during the walk when a map is given.
+     */
+    protected List<ProjectInfo> detectProjects(File rootDir, DetectionOptions options, Map<Path, Long> directoryTimes) {
         List<ProjectInfo> projects = new ArrayList<>();
 
         if (!rootDir.exists() || !rootDir.isDirectory()) {
@@ -18,35 +60,64 @@ public class ProjectDetector {
             return projects;
         }
 
-        File[] subdirs = rootDir.listFiles(File::isDirectory);
-        if (subdirs == null) {
+        long startTime = System.currentTimeMillis();
+        List<PathMatcher> ignoreMatchers = toMatchers(DEFAULT_IGNORE_PATTERNS, options.ignorePatterns());
+        List<PathMatcher> rootIgnoreMatchers = toMatchers(ROOT_DEFAULT_IGNORE_PATTERNS, options.ignorePatterns());
+        ScanContext context = new ScanContext(options.maxDepth(), ignoreMatchers, rootIgnoreMatchers,
+                new ConcurrentLinkedQueue<>(), new AtomicInteger(), directoryTimes);
+
+        ForkJoinPool.commonPool().invoke(new DirectoryScan(rootDir.toPath(), 0, context));
+
+        projects.addAll(removeLinkedDuplicates(context.detected()));
+        projects.sort(Comparator.comparing(project -> project.projectDir().getPath()));
+        if (context.scannedDirectories().get() <= 1) {
             logger.warn("No subdirectories found in: {}", rootDir.getAbsolutePath());
-            return projects;
         }
-
-        for (File subdir : subdirs) {
-            ProjectType type = detectProjectType(subdir);
-            if (type != ProjectType.UNKNOWN) {
-                projects.add(new ProjectInfo(subdir, type));
-                logger.info("Detected {} project: {}", type, subdir.getName());
-            }
+        for (ProjectInfo project : projects) {
+            logger.info("Detected {} project: {}", project.type(), rootDir.toPath().relativize(project.projectDir().toPath()));
         }
+        logger.debug("Scanned {} directories in {}ms", context.scannedDirectories().get(),
+                System.currentTimeMillis() - startTime);
 
         return projects;
     }
 
-    private ProjectType detectProjectType(File projectDir) {
-        // Check for Maven
-        if (new File(projectDir, "pom.xml").exists()) {
-            return ProjectType.MAVEN;
+    private static List<PathMatcher> toMatchers(List<String> defaultPatterns, List<String> patterns) {
+        return Stream.concat(defaultPatterns.stream(), patterns.stream())
+                .map(pattern -> FileSystems.getDefault().getPathMatcher("glob:" + pattern))
+                .toList();
+    }
+
+    /**
+     * Keeps one project per real directory: symbolic links of the root directory are followed, so a project may be
+     * reached both directly and through a link. The project reached directly is kept.
+     */
+    private static Collection<ProjectInfo> removeLinkedDuplicates(Collection<ProjectInfo> detected) {
+        Map<Path, ProjectInfo> byRealPath = new HashMap<>();
+        for (ProjectInfo project : detected) {
+            Path path = project.projectDir().toPath().toAbsolutePath().normalize();
+            Path realPath;
+            try {
+                realPath = path.toRealPath();
+            } catch (IOException e) {
+                realPath = path;
+            }
+            ProjectInfo kept = byRealPath.get(realPath);
+            if (kept == null || (path.equals(realPath)
+                    && !kept.projectDir().toPath().toAbsolutePath().normalize().equals(realPath))) {
+                byRealPath.put(realPath, project);
+            }
         }
+        return byRealPath.values();
+    }
 
-        // Check for Gradle
-        if (new File(projectDir, "build.gradle").exists() ||
-                new File(projectDir, "build.gradle.kts").exists()) {
+    private static ProjectType detectProjectType(boolean hasPom, boolean hasGradleBuild) {
+        if (hasPom) {
+            return ProjectType.MAVEN;
+        }
+        if (hasGradleBuild) {
             return ProjectType.GRADLE;
         }
-
         return ProjectType.UNKNOWN;
     }
 
@@ -60,5 +131,98 @@ public class ProjectDetector {
             return projectDir.getName();
         }
     }
-}
 
+    /**
+     * Options of the project discovery: how deep to walk below the root directory,
+     * and the glob patterns of directory names that are never entered, in addition to
+     * {@link #DEFAULT_IGNORE_PATTERNS}.
+     */
+    public record DetectionOptions(int maxDepth, List<String> ignorePatterns) {
+
+        public static DetectionOptions topLevel() {
+            return new DetectionOptions(1, List.of());
+        }
+    }
+
+    private record ScanContext(int maxDepth, List<PathMatcher> ignoreMatchers, List<PathMatcher> rootIgnoreMatchers,
+                               Queue<ProjectInfo> detected,
+                               AtomicInteger scannedDirectories, Map<Path, Long> directoryTimes) {
+    }
+
+    /**
+     * Lists a directory once, detecting from its entries whether it is a project
+     * and forking a scan for every subdirectory when it is not.
+     */
+    private static final class DirectoryScan extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        // Tasks are never serialized, they only run in the common pool
+        private final transient Path dir;
+        private final int depth;
+        private final transient ScanContext context;
+
+        private DirectoryScan(Path dir, int depth, ScanContext context) {
+            this.dir = dir;
+            this.depth = depth;
+            this.context = context;
+        }
+
+        @Override
+        protected void compute() {
+            context.scannedDirectories().incrementAndGet();
+            boolean hasPom = false;
+            boolean hasGradleBuild = false;
+            List<Path> candidates = new ArrayList<>();
+
+            try {
+                if (context.directoryTimes() != null) {
+                    context.directoryTimes().put(dir, Files.getLastModifiedTime(dir).toMillis());
+                }
+                try (DirectoryStream<Path> entries = Files.newDirectoryStream(dir)) {
+                    for (Path entry : entries) {
+                        String name = entry.getFileName().toString();
+                        switch (name) {
+                            case POM_XML -> hasPom = true;
+                            case BUILD_GRADLE, BUILD_GRADLE_KTS -> hasGradleBuild = true;
+                            default -> {
+                                if (depth < context.maxDepth() && !isIgnored(entry.getFileName())) {
+                                    candidates.add(entry);
+                                }
+                            }
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                logger.debug("Cannot list directory: {} - {}", dir, e.getMessage());
+                return;
+            }
+
+            // The root directory itself is never built, only its subdirectories
+            ProjectType type = detectProjectType(hasPom, hasGradleBuild);
+            if (depth > 0 && type != ProjectType.UNKNOWN) {
+                context.detected().add(new ProjectInfo(dir.toFile(), type));
+                return;
+            }
+
+            List<DirectoryScan> subtasks = new ArrayList<>();
+            for (Path candidate : candidates) {
+                // Links are only followed in the root directory: deeper ones could loop
+                boolean isDirectory = depth == 0 ? Files.isDirectory(candidate)
+                        : Files.isDirectory(candidate, LinkOption.NOFOLLOW_LINKS);
+                if (isDirectory) {
+                    subtasks.add(new DirectoryScan(candidate, depth + 1, context));
+                }
+            }
+            invokeAll(subtasks);
+        }
+
+        private boolean isIgnored(Path name) {
+            for (PathMatcher matcher : depth == 0 ? context.rootIgnoreMatchers() : context.ignoreMatchers()) {
+                if (matcher.matches(name)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
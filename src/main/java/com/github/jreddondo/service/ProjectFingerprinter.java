@@ -0,0 +1,138 @@
+package com.github.jreddondo.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Computes a content fingerprint of the sources and build files of a project.
+ * Files whose size and modification time match the previous run reuse their recorded hash,
+ * so only changed files are read; those are hashed in parallel.
+ */
+public class ProjectFingerprinter {
+    private static final Set<String> IGNORED_DIRECTORIES =
+            Set.of(".git", ".gradle", ".idea", ".multiple-builder", "node_modules");
+    // Only ignored at the root of a project or module, as a source package may have the same name
+    private static final Set<String> OUTPUT_DIRECTORIES = Set.of("build", "out", "target");
+    private static final List<String> BUILD_FILES =
+            List.of("pom.xml", "build.gradle", "build.gradle.kts", "settings.gradle", "settings.gradle.kts");
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final ThreadLocal<byte[]> BUFFER = ThreadLocal.withInitial(() -> new byte[BUFFER_SIZE]);
+
+    public Fingerprint fingerprint(Path projectDir, Map<String, FileState> previousFiles) throws IOException {
+        List<FileEntry> entries = listFiles(projectDir);
+
+        Map<String, FileState> files = new ConcurrentSkipListMap<>();
+        try {
+            entries.parallelStream().forEach(entry -> {
+                FileState previous = previousFiles.get(entry.relativePath());
+                if (previous != null && previous.size() == entry.size() && previous.lastModified() == entry.lastModified()) {
+                    files.put(entry.relativePath(), previous);
+                } else {
+                    files.put(entry.relativePath(),
+                            new FileState(entry.size(), entry.lastModified(), hashFile(entry.file())));
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        MessageDigest digest = newDigest();
+        files.forEach((relativePath, state) -> {
+            digest.update(relativePath.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(state.hash().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) '\n');
+        });
+        return new Fingerprint(HexFormat.of().formatHex(digest.digest()), new TreeMap<>(files));
+    }
+
+    private List<FileEntry> listFiles(Path projectDir) throws IOException {
+        List<FileEntry> entries = new ArrayList<>();
+        Files.walkFileTree(projectDir, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                if (!dir.equals(projectDir) && isIgnoredDirectory(dir)) {
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                if (attrs.isRegularFile()) {
+                    String relativePath = projectDir.relativize(file).toString().replace('\\', '/');
+                    entries.add(new FileEntry(file, relativePath, attrs.size(), attrs.lastModifiedTime().toMillis()));
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                // Unreadable files (e.g. broken links) are not part of the inputs
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        return entries;
+    }
+
+    /**
+     * Whether a directory holds no input of a project: version control and IDE files, dependencies, and the output
+     * directories of the build tools next to a build file.
+     */
+    public static boolean isIgnoredDirectory(Path dir) {
+        String name = dir.getFileName().toString();
+        if (IGNORED_DIRECTORIES.contains(name)) {
+            return true;
+        }
+        Path parent = dir.getParent();
+        return OUTPUT_DIRECTORIES.contains(name) && parent != null
+                && BUILD_FILES.stream().anyMatch(buildFile -> Files.isRegularFile(parent.resolve(buildFile)));
+    }
+
+    private String hashFile(Path file) {
+        MessageDigest digest = newDigest();
+        byte[] buffer = BUFFER.get();
+        try (InputStream input = Files.newInputStream(file)) {
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    public record FileState(long size, long lastModified, String hash) {
+    }
+
+    public record Fingerprint(String hash, Map<String, FileState> files) {
+    }
+
+    private record FileEntry(Path file, String relativePath, long size, long lastModified) {
+    }
+}
@@ -0,0 +1,157 @@
+package com.github.jreddondo.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watches the files of the projects and reports the projects whose inputs changed. The directories excluded from
+ * the project fingerprints (target, build, .git, ...) are not watched, so the outputs written by the builds are not
+ * reported. Bursts of events, e.g. a branch checkout or a save-all in an IDE, are coalesced: changes are reported once
+ * no event arrived for the quiet period. A project is only reported when its fingerprint differs from the one
+ * recorded before its last build, which filters out events leaving the content unchanged.
+ */
+public class ProjectWatcher implements Closeable {
+    private static final Logger logger = LoggerFactory.getLogger(ProjectWatcher.class);
+
+    private final WatchService watchService;
+    private final Duration quietPeriod;
+    private final ProjectFingerprinter fingerprinter = new ProjectFingerprinter();
+    private final Map<WatchKey, WatchedDirectory> watchedDirectories = new HashMap<>();
+    private final Map<ProjectDetector.ProjectInfo, ProjectFingerprinter.Fingerprint> builtFingerprints = new HashMap<>();
+
+    public ProjectWatcher(List<ProjectDetector.ProjectInfo> projects, Duration quietPeriod) throws IOException {
+        this.watchService = FileSystems.getDefault().newWatchService();
+        this.quietPeriod = quietPeriod;
+        for (ProjectDetector.ProjectInfo project : projects) {
+            register(project, project.projectDir().toPath());
+        }
+        logger.debug("Watching {} directories", watchedDirectories.size());
+    }
+
+    /**
+     * Records the inputs of projects about to be built: later changes are reported relative to them.
+     */
+    public void snapshot(Collection<ProjectDetector.ProjectInfo> projects) {
+        for (ProjectDetector.ProjectInfo project : projects) {
+            ProjectFingerprinter.Fingerprint fingerprint = fingerprint(project);
+            if (fingerprint != null) {
+                builtFingerprints.put(project, fingerprint);
+            } else {
+                builtFingerprints.remove(project);
+            }
+        }
+    }
+
+    /**
+     * Waits for the next burst of changes and returns the projects whose inputs changed, in detection order of
+     * their first event. Returns an empty set when the events did not change any input.
+     */
+    public Set<ProjectDetector.ProjectInfo> awaitChanges() throws InterruptedException {
+        Set<ProjectDetector.ProjectInfo> candidates = new LinkedHashSet<>();
+        collect(watchService.take(), candidates);
+        WatchKey key;
+        while ((key = watchService.poll(quietPeriod.toMillis(), TimeUnit.MILLISECONDS)) != null) {
+            collect(key, candidates);
+        }
+
+        Set<ProjectDetector.ProjectInfo> changed = new LinkedHashSet<>();
+        for (ProjectDetector.ProjectInfo project : candidates) {
+            ProjectFingerprinter.Fingerprint built = builtFingerprints.get(project);
+            ProjectFingerprinter.Fingerprint current = fingerprint(project);
+            if (built == null || current == null || !built.hash().equals(current.hash())) {
+                changed.add(project);
+            }
+        }
+        return changed;
+    }
+
+    private void collect(WatchKey key, Set<ProjectDetector.ProjectInfo> candidates) {
+        WatchedDirectory watched = watchedDirectories.get(key);
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (watched == null) {
+                continue;
+            }
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                candidates.add(watched.project());
+                continue;
+            }
+            Path changed = watched.directory().resolve((Path) event.context());
+            if (ProjectFingerprinter.isIgnoredDirectory(changed)) {
+                continue;
+            }
+            candidates.add(watched.project());
+            if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(changed)) {
+                // New directories, e.g. a new package, are watched too
+                register(watched.project(), changed);
+            }
+        }
+        if (!key.reset()) {
+            watchedDirectories.remove(key);
+        }
+    }
+
+    private void register(ProjectDetector.ProjectInfo project, Path start) {
+        try {
+            Files.walkFileTree(start, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                    if (!dir.equals(project.projectDir().toPath())
+                            && ProjectFingerprinter.isIgnoredDirectory(dir)) {
+                        return FileVisitResult.SKIP_SUBTREE;
+                    }
+                    WatchKey key = dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                            StandardWatchEventKinds.ENTRY_DELETE, StandardWatchEventKinds.ENTRY_MODIFY);
+                    watchedDirectories.put(key, new WatchedDirectory(project, dir));
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            // e.g. the limit of inotify watches is reached, or the directory was deleted meanwhile
+            logger.warn("Cannot watch all the files of project {}: {}", project.getName(), e.getMessage());
+        }
+    }
+
+    private ProjectFingerprinter.Fingerprint fingerprint(ProjectDetector.ProjectInfo project) {
+        ProjectFingerprinter.Fingerprint previous = builtFingerprints.get(project);
+        try {
+            return fingerprinter.fingerprint(project.projectDir().toPath(), previous != null ? previous.files() : Map.of());
+        } catch (IOException e) {
+            logger.warn("Cannot read the files of project {}: {}", project.getName(), e.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        watchService.close();
+    }
+
+    private record WatchedDirectory(ProjectDetector.ProjectInfo project, Path directory) {
+    }
+}
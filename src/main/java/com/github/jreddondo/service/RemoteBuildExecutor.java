@@ -0,0 +1,393 @@
+package com.github.jreddondo.service;
+
+import com.github.jreddondo.model.BuildResult;
+import com.github.jreddondo.model.BuildStatus;
+import com.github.jreddondo.model.FailureCategory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Coordinator handing the builds out to {@link BuildWorker}s connecting over TCP, see {@link WorkerProtocol}.
+ * Builds wait in one queue and every idle worker pulls the next one, so fast workers take more builds than slow ones.
+ * A build whose worker disconnects or stops sending heartbeats is queued again for another worker, up to
+ * {@value #MAX_ATTEMPTS} times. The workers build the projects at the same path relative to their own root directory,
+ * which must hold the same projects as the root of the coordinator. Workers authenticate with a token shared with the
+ * coordinator; connections sending another token are answered {@value WorkerProtocol#DENIED} and closed.
+ */
+public class RemoteBuildExecutor implements BuildExecutor, Closeable {
+    static final Duration HEARTBEAT_INTERVAL = Duration.ofSeconds(5);
+    static final Duration HEARTBEAT_TIMEOUT = Duration.ofSeconds(30);
+    private static final Logger logger = LoggerFactory.getLogger(RemoteBuildExecutor.class);
+    private static final int MAX_ATTEMPTS = 3;
+    private static final long QUEUE_POLL_MS = 500;
+    private static final Duration CLOSE_TIMEOUT = Duration.ofSeconds(10);
+    private static final Duration HELLO_TIMEOUT = Duration.ofSeconds(10);
+
+    private final Path rootDirectory;
+    private final InetAddress bindAddress;
+    private final int port;
+    private final byte[] token;
+    private final BlockingDeque<RemoteBuild> queue = new LinkedBlockingDeque<>();
+    private final Map<Integer, RemoteBuild> runningBuilds = new ConcurrentHashMap<>();
+    private final Set<Thread> sessions = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger buildIds = new AtomicInteger(1);
+    private ServerSocket server;
+    private volatile Cancellation cancelAllReason;
+    private volatile boolean closed;
+
+    /**
+     * @param rootDirectory root directory the project paths sent to the workers are relative to
+     * @param bindAddress   address the workers connect to, or null for every network interface
+     * @param port          port the workers connect to, or 0 for any free port
+     * @param token         secret the workers must send to be handed builds
+     */
+    public RemoteBuildExecutor(Path rootDirectory, InetAddress bindAddress, int port, String token) {
+        this.rootDirectory = rootDirectory.toAbsolutePath().normalize();
+        this.bindAddress = bindAddress;
+        this.port = port;
+        this.token = token.getBytes(StandardCharsets.UTF_8);
+    }
+
+    public void start() throws IOException {
+        server = new ServerSocket(port, 50, bindAddress);
+        logger.info("Coordinator listening on {}, waiting for workers", server.getLocalSocketAddress());
+        Thread acceptor = new Thread(this::accept, "coordinator-accept");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    /**
+     * Returns the port the workers connect to, once started.
+     */
+    public int getPort() {
+        return server.getLocalPort();
+    }
+
+    @Override
+    public BuildResult buildProject(ProjectDetector.ProjectInfo projectInfo) {
+        Cancellation cancelled = cancelAllReason;
+        if (cancelled != null) {
+            return result(projectInfo, cancelled.status(), cancelled.reason());
+        }
+        RemoteBuild build = new RemoteBuild(buildIds.getAndIncrement(), projectInfo, relativePath(projectInfo));
+        logger.info("Queued build for project: {} ({})", projectInfo.getName(), projectInfo.type());
+        queue.add(build);
+        // cancelAll may have drained the queue before the build was added
+        cancelled = cancelAllReason;
+        if (cancelled != null) {
+            build.complete(result(projectInfo, cancelled.status(), cancelled.reason()));
+        }
+        try {
+            return build.result().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            build.complete(result(projectInfo, BuildStatus.CANCELLED, "Build interrupted: " + e.getMessage()));
+            return build.result().join();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Unexpected remote build failure", e.getCause());
+        }
+    }
+
+    @Override
+    public void cancelAll(BuildStatus status, String reason) {
+        Cancellation cancellation = new Cancellation(status, reason);
+        cancelAllReason = cancellation;
+        RemoteBuild queued;
+        while ((queued = queue.poll()) != null) {
+            queued.complete(result(queued.project(), status, reason));
+        }
+        // The workers kill the builds and report them, then are free for the next build
+        for (RemoteBuild running : runningBuilds.values()) {
+            running.complete(result(running.project(), status, reason));
+            running.cancel();
+        }
+    }
+
+    @Override
+    public void startRun() {
+        // A closed coordinator stays cancelled
+        if (!closed) {
+            cancelAllReason = null;
+        }
+    }
+
+    /**
+     * Cancels the remaining builds, stops accepting workers and sends {@value WorkerProtocol#DONE} to the connected
+     * ones, so that they exit.
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        cancelAll(BuildStatus.CANCELLED, "Coordinator stopped");
+        if (server != null) {
+            server.close();
+        }
+        long deadline = System.nanoTime() + CLOSE_TIMEOUT.toNanos();
+        for (Thread session : sessions) {
+            try {
+                session.join(Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime())));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void accept() {
+        while (!closed) {
+            try {
+                Socket socket = server.accept();
+                Thread session = new Thread(() -> serve(socket), "coordinator-" + socket.getRemoteSocketAddress());
+                session.setDaemon(true);
+                sessions.add(session);
+                session.start();
+            } catch (IOException e) {
+                if (!closed) {
+                    logger.warn("Cannot accept worker connection: {}", e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        String worker = String.valueOf(socket.getRemoteSocketAddress());
+        try (socket) {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            PrintWriter writer = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.UTF_8);
+            socket.setSoTimeout((int) HELLO_TIMEOUT.toMillis());
+            String hello = reader.readLine();
+            List<String> fields = hello != null ? WorkerProtocol.decode(hello) : List.of();
+            if (fields.size() != 3 || !WorkerProtocol.HELLO.equals(fields.get(0))) {
+                logger.warn("Rejected connection from {}: not a worker", worker);
+                return;
+            }
+            if (fields.get(2) == null || !MessageDigest.isEqual(token, fields.get(2).getBytes(StandardCharsets.UTF_8))) {
+                logger.warn("Rejected worker {}: wrong worker token", worker);
+                writer.println(WorkerProtocol.DENIED);
+                // Reads until the worker closes, since closing with its READY unread would reset the connection
+                // and could drop the answer
+                socket.shutdownOutput();
+                while (reader.readLine() != null) {
+                    // Discarded
+                }
+                return;
+            }
+            socket.setSoTimeout(0);
+            worker = fields.get(1) + " (" + socket.getRemoteSocketAddress() + ")";
+            logger.info("Worker {} connected", worker);
+
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!WorkerProtocol.READY.equals(WorkerProtocol.decode(line).get(0))) {
+                    // e.g. a late heartbeat of the previous build
+                    continue;
+                }
+                RemoteBuild build = nextBuild();
+                if (build == null) {
+                    writer.println(WorkerProtocol.DONE);
+                    return;
+                }
+                if (!run(build, worker, socket, reader, writer)) {
+                    return;
+                }
+            }
+            logger.warn("Worker {} disconnected", worker);
+        } catch (IOException e) {
+            logger.warn("Worker {} disconnected: {}", worker, e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            sessions.remove(Thread.currentThread());
+        }
+    }
+
+    /**
+     * Takes the next build still waiting for its result, or returns null once the coordinator is closed.
+     */
+    private RemoteBuild nextBuild() throws InterruptedException {
+        while (!closed) {
+            RemoteBuild build = queue.poll(QUEUE_POLL_MS, TimeUnit.MILLISECONDS);
+            if (build != null && !build.result().isDone()) {
+                return build;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Sends the build to the worker and waits for its result. Returns false when the worker was lost, the build
+     * then being queued again.
+     */
+    private boolean run(RemoteBuild build, String worker, Socket socket, BufferedReader reader, PrintWriter writer) {
+        String id = String.valueOf(build.id());
+        build.assign(writer);
+        runningBuilds.put(build.id(), build);
+        Cancellation cancelled = cancelAllReason;
+        if (cancelled != null) {
+            // cancelAll ran after the build was taken from the queue
+            build.complete(result(build.project(), cancelled.status(), cancelled.reason()));
+            runningBuilds.remove(build.id());
+            return true;
+        }
+        boolean started = false;
+        try {
+            socket.setSoTimeout((int) HEARTBEAT_TIMEOUT.toMillis());
+            writer.println(WorkerProtocol.encode(WorkerProtocol.BUILD, id, build.project().type().name(),
+                    build.relativePath()));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                List<String> fields = WorkerProtocol.decode(line);
+                if (WorkerProtocol.HEARTBEAT.equals(fields.get(0))) {
+                    if (!started) {
+                        logger.info("Build of project {} started on worker {}", build.project().getName(), worker);
+                        started = true;
+                    }
+                } else if (WorkerProtocol.RESULT.equals(fields.get(0)) && fields.size() == 7 && id.equals(fields.get(1))) {
+                    build.complete(workerResult(build.project(), worker, fields));
+                    socket.setSoTimeout(0);
+                    return true;
+                }
+            }
+            requeue(build, worker, started, "connection closed");
+        } catch (SocketTimeoutException e) {
+            requeue(build, worker, started, "no heartbeat for " + HEARTBEAT_TIMEOUT.toSeconds() + "s");
+        } catch (IOException e) {
+            requeue(build, worker, started, e.getMessage());
+        } finally {
+            runningBuilds.remove(build.id());
+        }
+        return false;
+    }
+
+    private void requeue(RemoteBuild build, String worker, boolean started, String reason) {
+        if (build.result().isDone()) {
+            return;
+        }
+        // A worker lost before starting the build, e.g. one stopped while idle, does not count as an attempt
+        int attempts = started ? build.attempts().incrementAndGet() : build.attempts().get();
+        if (closed) {
+            build.complete(result(build.project(), BuildStatus.CANCELLED, "Coordinator stopped"));
+        } else if (attempts >= MAX_ATTEMPTS) {
+            String errorMsg = "Lost the worker building the project " + attempts + " times, last: " + worker
+                    + " (" + reason + ")";
+            logger.error("Build FAILED for project: {} - {}", build.project().getName(), errorMsg);
+            build.complete(result(build.project(), BuildStatus.FAILED, errorMsg));
+        } else {
+            logger.warn("Lost worker {} while building project {} ({}), queuing the build again",
+                    worker, build.project().getName(), reason);
+            queue.addFirst(build);
+        }
+    }
+
+    private BuildResult workerResult(ProjectDetector.ProjectInfo project, String worker, List<String> fields) {
+        BuildStatus status;
+        long duration;
+        FailureCategory failureCategory;
+        try {
+            status = BuildStatus.valueOf(fields.get(2));
+            duration = Long.parseLong(fields.get(3));
+            failureCategory = fields.get(6) != null ? FailureCategory.valueOf(fields.get(6)) : null;
+        } catch (IllegalArgumentException | NullPointerException e) {
+            return result(project, BuildStatus.FAILED, "Invalid result from worker " + worker + ": " + fields);
+        }
+        String errorMsg = fields.get(4);
+        if (status.isSuccessful()) {
+            logger.info("Build {} for project: {} on worker {} ({}ms)", status, project.getName(), worker, duration);
+        } else {
+            logger.error("Build {} for project: {} on worker {} - {}", status, project.getName(), worker, errorMsg);
+        }
+        // The output file stays on the worker
+        String outputLog = fields.get(5) != null ? worker + ": " + fields.get(5) : null;
+        return new BuildResult(project.getName(), project.projectDir().getAbsolutePath(), status,
+                project.type().name(), duration, errorMsg, outputLog).withFailureCategory(failureCategory);
+    }
+
+    private String relativePath(ProjectDetector.ProjectInfo projectInfo) {
+        Path projectDir = projectInfo.projectDir().getAbsoluteFile().toPath().normalize();
+        String path = rootDirectory.relativize(projectDir).toString().replace(File.separatorChar, '/');
+        return path.isEmpty() ? "." : path;
+    }
+
+    private static BuildResult result(ProjectDetector.ProjectInfo project, BuildStatus status, String errorMessage) {
+        return new BuildResult(project.getName(), project.projectDir().getAbsolutePath(), status,
+                project.type().name(), 0, errorMessage, null);
+    }
+
+    private record Cancellation(BuildStatus status, String reason) {
+    }
+
+    private static final class RemoteBuild {
+        private final int id;
+        private final ProjectDetector.ProjectInfo project;
+        private final String relativePath;
+        private final CompletableFuture<BuildResult> result = new CompletableFuture<>();
+        private final AtomicInteger attempts = new AtomicInteger();
+        private volatile PrintWriter writer;
+
+        private RemoteBuild(int id, ProjectDetector.ProjectInfo project, String relativePath) {
+            this.id = id;
+            this.project = project;
+            this.relativePath = relativePath;
+        }
+
+        int id() {
+            return id;
+        }
+
+        ProjectDetector.ProjectInfo project() {
+            return project;
+        }
+
+        String relativePath() {
+            return relativePath;
+        }
+
+        CompletableFuture<BuildResult> result() {
+            return result;
+        }
+
+        AtomicInteger attempts() {
+            return attempts;
+        }
+
+        void assign(PrintWriter writer) {
+            this.writer = writer;
+        }
+
+        void complete(BuildResult buildResult) {
+            result.complete(buildResult);
+        }
+
+        void cancel() {
+            PrintWriter assigned = writer;
+            if (assigned != null) {
+                assigned.println(WorkerProtocol.encode(WorkerProtocol.CANCEL, String.valueOf(id)));
+            }
+        }
+    }
+}
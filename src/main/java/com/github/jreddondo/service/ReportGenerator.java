@@ -1,6 +1,9 @@
 package com.github.jreddondo.service;
 
+import com.github.jreddondo.model.BuildMetrics;
+import com.github.jreddondo.model.BuildPhase;
 import com.github.jreddondo.model.BuildResult;
+import com.github.jreddondo.model.BuildStatus;
 import com.github.jreddondo.util.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -11,12 +14,44 @@ import java.io.IOException;
 import java.io.PrintWriter;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 public class ReportGenerator {
     private static final Logger logger = LoggerFactory.getLogger(ReportGenerator.class);
     private static final DateTimeFormatter FILENAME_FORMATTER = DateTimeFormatter.ofPattern("yyyy_MM_dd_HH_mm");
     private static final DateTimeFormatter REPORT_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    public static final int DEFAULT_REGRESSION_THRESHOLD_PERCENT = 50;
+    // Builds slower than predicted by less than this are not reported, whatever the percentage
+    private static final long MIN_REGRESSION_MS = 1000;
+    private static final int SLOWEST_PHASES = 3;
+
+    private final int regressionThresholdPercent;
+    private Set<String> resumedProjects = Set.of();
+
+    public ReportGenerator() {
+        this(DEFAULT_REGRESSION_THRESHOLD_PERCENT);
+    }
+
+    /**
+     * @param regressionThresholdPercent how much slower than predicted a build must be to be reported as a regression
+     */
+    public ReportGenerator(int regressionThresholdPercent) {
+        this.regressionThresholdPercent = regressionThresholdPercent;
+    }
+
+    /**
+     * Marks the projects, by path, whose successful result is taken from a resumed run instead of being built.
+     */
+    public void setResumedProjects(Set<String> resumedProjects) {
+        this.resumedProjects = resumedProjects;
+    }
 
     public void generateReport(List<BuildResult> results, String appPrefix, File logPath, LocalDateTime executionTime) {
         String logFileName = generateLogFileName(appPrefix, logPath, executionTime);
@@ -55,44 +90,113 @@ public class ReportGenerator {
         writer.println("Total Projects: " + results.size());
         writer.println();
 
-        long successCount = results.stream().filter(BuildResult::success).count();
-        long failedCount = results.size() - successCount;
+        ReportSummary summary = summarize(results);
 
         writer.println("SUMMARY");
         writer.println(StringUtils.DASH_LINE);
-        writer.println("Successful Builds: " + successCount);
-        writer.println("Failed Builds: " + failedCount);
+        writer.println("Successful Builds: " + summary.successful().size());
+        if (summary.count(BuildStatus.UP_TO_DATE) > 0) {
+            writer.println("  Up-to-date (not rebuilt): " + summary.count(BuildStatus.UP_TO_DATE));
+        }
+        if (summary.count(BuildStatus.FROM_CACHE) > 0) {
+            writer.println("  Restored from build cache: " + summary.count(BuildStatus.FROM_CACHE));
+        }
+        long resumed = results.stream().filter(this::isResumed).count();
+        if (resumed > 0) {
+            writer.println("  Resumed from the previous run: " + resumed);
+        }
+        writer.println("Failed Builds: " + summary.failed().size());
+        if (summary.count(BuildStatus.TIMED_OUT) > 0) {
+            writer.println("  Timed out: " + summary.count(BuildStatus.TIMED_OUT));
+        }
+        if (summary.count(BuildStatus.CANCELLED) > 0) {
+            writer.println("  Cancelled: " + summary.count(BuildStatus.CANCELLED));
+        }
+        if (summary.count(BuildStatus.SKIPPED) > 0) {
+            writer.println("  Skipped (failed dependency): " + summary.count(BuildStatus.SKIPPED));
+        }
+        long retried = results.stream().filter(BuildResult::wasRetried).count();
+        if (retried > 0) {
+            writer.println("Retried Builds: " + retried);
+        }
         writer.println();
 
         // Successful projects
-        if (successCount > 0) {
+        if (!summary.successful().isEmpty()) {
             writer.println("SUCCESSFUL BUILDS");
             writer.println(StringUtils.DASH_LINE);
-            results.stream()
-                    .filter(BuildResult::success)
-                    .forEach(result ->
-                            writer.printf("✓ %s (%s) - Duration: %dms%n",
-                                    result.projectName(),
-                                    result.buildType(),
-                                    result.durationMs())
-                    );
+            for (BuildResult result : summary.successful()) {
+                if (isResumed(result)) {
+                    writer.printf("✓ %s (%s) - RESUMED, %s in the previous run (%dms)%n",
+                            result.projectName(),
+                            result.buildType(),
+                            result.status(),
+                            result.durationMs());
+                } else if (result.status() == BuildStatus.UP_TO_DATE) {
+                    writer.printf("✓ %s (%s) - UP-TO-DATE%n",
+                            result.projectName(),
+                            result.buildType());
+                } else if (result.status() == BuildStatus.FROM_CACHE) {
+                    writer.printf("✓ %s (%s) - FROM CACHE, restored in %dms%n",
+                            result.projectName(),
+                            result.buildType(),
+                            result.durationMs());
+                } else if (result.hasPrediction()) {
+                    writer.printf("✓ %s (%s) - Duration: %dms (predicted: %dms)%n",
+                            result.projectName(),
+                            result.buildType(),
+                            result.durationMs(),
+                            result.predictedDurationMs());
+                } else {
+                    writer.printf("✓ %s (%s) - Duration: %dms%n",
+                            result.projectName(),
+                            result.buildType(),
+                            result.durationMs());
+                }
+                if (result.wasRetried()) {
+                    writer.printf("  Succeeded after %d attempts%n", result.attempts());
+                }
+            }
             writer.println();
         }
 
         // Failed projects
-        if (failedCount > 0) {
+        if (!summary.failed().isEmpty()) {
             writer.println("FAILED BUILDS");
             writer.println(StringUtils.DASH_LINE);
-            results.stream()
-                    .filter(result -> !result.success())
-                    .forEach(result -> {
-                        writer.printf("✗ %s (%s) - Duration: %dms%n",
-                                result.projectName(),
-                                result.buildType(),
-                                result.durationMs());
-                        writer.printf("  Error: %s%n", result.errorMessage());
-                        writer.printf("  Path: %s%n", result.projectPath());
-                    });
+            for (BuildResult result : summary.failed()) {
+                writer.printf("✗ %s (%s) - Duration: %dms%n",
+                        result.projectName(),
+                        result.buildType(),
+                        result.durationMs());
+                writer.printf("  Error: %s%n", result.errorMessage());
+                if (result.failureCategory() != null) {
+                    writer.printf("  Failure: %s%n", result.failureCategory());
+                }
+                if (result.wasRetried()) {
+                    writer.printf("  Attempts: %d%n", result.attempts());
+                }
+                writer.printf("  Path: %s%n", result.projectPath());
+                if (result.outputLog() != null) {
+                    writer.printf("  Output: %s%n", result.outputLog());
+                }
+            }
+            writer.println();
+        }
+
+        // Duration regressions
+        List<BuildResult> regressions = summary.regressions();
+        if (!regressions.isEmpty()) {
+            writer.printf("DURATION REGRESSIONS (more than %d%% slower than predicted)%n", regressionThresholdPercent);
+            writer.println(StringUtils.DASH_LINE);
+            for (BuildResult result : regressions) {
+                writer.printf("! %s (%s) - Duration: %dms, predicted: %dms (+%d%%)%n",
+                        result.projectName(),
+                        result.buildType(),
+                        result.durationMs(),
+                        result.predictedDurationMs(),
+                        slowdownPercent(result));
+            }
             writer.println();
         }
 
@@ -103,11 +207,29 @@ public class ReportGenerator {
             writer.printf("Project: %s%n", result.projectName());
             writer.printf("  Path: %s%n", result.projectPath());
             writer.printf("  Type: %s%n", result.buildType());
-            writer.printf("  Status: %s%n", result.success() ? "SUCCESS" : "FAILED");
+            writer.printf("  Status: %s%n", result.status());
+            if (isResumed(result)) {
+                writer.println("  Resumed: result of the previous run");
+            }
             writer.printf("  Duration: %dms%n", result.durationMs());
+            if (result.wasRetried()) {
+                writer.printf("  Attempts: %d%n", result.attempts());
+            }
+            if (result.hasPrediction()) {
+                writer.printf("  Predicted: %dms%n", result.predictedDurationMs());
+            }
+            if (result.hasMetrics()) {
+                writeTimings(writer, result.metrics());
+            }
             if (!result.success() && result.errorMessage() != null) {
                 writer.printf("  Error: %s%n", result.errorMessage());
             }
+            if (result.failureCategory() != null) {
+                writer.printf("  Failure: %s%n", result.failureCategory());
+            }
+            if (result.outputLog() != null) {
+                writer.printf("  Output: %s%n", result.outputLog());
+            }
             writer.println();
         }
 
@@ -116,38 +238,121 @@ public class ReportGenerator {
         writer.println(StringUtils.SEPARATOR_LINE);
     }
 
+    private void writeTimings(PrintWriter writer, BuildMetrics metrics) {
+        writer.printf("  Queue wait: %dms, startup: %dms%n",
+                TimeUnit.NANOSECONDS.toMillis(metrics.queueWaitNanos()),
+                TimeUnit.NANOSECONDS.toMillis(metrics.startupNanos()));
+        List<BuildPhase> slowest = metrics.phases().stream()
+                .sorted(Comparator.comparingLong(BuildPhase::durationNanos).reversed())
+                .limit(SLOWEST_PHASES)
+                .toList();
+        if (!slowest.isEmpty()) {
+            writer.printf("  Slowest steps: %s%n", slowest.stream()
+                    .map(phase -> phase.name() + " " + phase.durationMs() + "ms")
+                    .collect(Collectors.joining(", ")));
+        }
+    }
+
     public void printConsoleSummary(List<BuildResult> results) {
-        long successCount = results.stream().filter(BuildResult::success).count();
-        long failedCount = results.size() - successCount;
+        ReportSummary summary = summarize(results);
 
         logger.info(StringUtils.SEPARATOR_LINE);
         logger.info("BUILD SUMMARY");
         logger.info(StringUtils.SEPARATOR_LINE);
         logger.info("Total Projects: {}", results.size());
-        logger.info("Successful: {}", successCount);
-        logger.info("Failed: {}", failedCount);
+        logger.info("Successful: {}", summary.successful().size());
+        logger.info("Failed: {}", summary.failed().size());
 
-        if (successCount > 0) {
+        if (!summary.successful().isEmpty()) {
             logger.info("");
             logger.info("Successful builds:");
-            results.stream()
-                    .filter(BuildResult::success)
-                    .forEach(result -> logger.info("  [OK] {} ({}ms)",
-                            result.projectName(),
-                            result.durationMs()));
+            for (BuildResult result : summary.successful()) {
+                if (isResumed(result)) {
+                    logger.info("  [RESUMED] {} ({}ms)", result.projectName(), result.durationMs());
+                } else if (result.status() == BuildStatus.UP_TO_DATE) {
+                    logger.info("  [UP-TO-DATE] {}", result.projectName());
+                } else if (result.status() == BuildStatus.FROM_CACHE) {
+                    logger.info("  [CACHED] {} ({}ms)", result.projectName(), result.durationMs());
+                } else if (result.wasRetried()) {
+                    logger.info("  [OK] {} ({}ms, {} attempts)", result.projectName(), result.durationMs(),
+                            result.attempts());
+                } else {
+                    logger.info("  [OK] {} ({}ms)", result.projectName(), result.durationMs());
+                }
+            }
         }
 
-        if (failedCount > 0) {
+        if (!summary.failed().isEmpty()) {
             logger.info("");
             logger.error("Failed builds:");
-            results.stream()
-                    .filter(result -> !result.success())
-                    .forEach(result -> logger.error("  [FAIL] {} - {}",
-                            result.projectName(),
-                            result.errorMessage()));
+            for (BuildResult result : summary.failed()) {
+                if (result.failureCategory() != null) {
+                    logger.error("  [FAIL] {} - {} [{}{}]", result.projectName(), result.errorMessage(),
+                            result.failureCategory(), result.wasRetried() ? ", " + result.attempts() + " attempts" : "");
+                } else {
+                    logger.error("  [FAIL] {} - {}", result.projectName(), result.errorMessage());
+                }
+                if (result.outputLog() != null) {
+                    logger.error("         Output: {}", result.outputLog());
+                }
+            }
+        }
+
+        List<BuildResult> regressions = summary.regressions();
+        if (!regressions.isEmpty()) {
+            logger.info("");
+            logger.warn("Duration regressions (more than {}% slower than predicted):", regressionThresholdPercent);
+            regressions.forEach(result -> logger.warn("  [SLOW] {} ({}ms, predicted {}ms)",
+                    result.projectName(),
+                    result.durationMs(),
+                    result.predictedDurationMs()));
         }
 
         logger.info(StringUtils.SEPARATOR_LINE);
     }
-}
 
+    /**
+     * Partitions the results into the lists and counts of every report section, in a single pass.
+     */
+    private ReportSummary summarize(List<BuildResult> results) {
+        List<BuildResult> successful = new ArrayList<>();
+        List<BuildResult> failed = new ArrayList<>();
+        List<BuildResult> regressions = new ArrayList<>();
+        Map<BuildStatus, Integer> statusCounts = new EnumMap<>(BuildStatus.class);
+        for (BuildResult result : results) {
+            statusCounts.merge(result.status(), 1, Integer::sum);
+            if (result.success()) {
+                successful.add(result);
+            } else {
+                failed.add(result);
+            }
+            if (isRegression(result)) {
+                regressions.add(result);
+            }
+        }
+        return new ReportSummary(successful, failed, regressions, statusCounts);
+    }
+
+    private boolean isResumed(BuildResult result) {
+        return result.success() && resumedProjects.contains(result.projectPath());
+    }
+
+    private boolean isRegression(BuildResult result) {
+        return result.status() == BuildStatus.SUCCESS && !isResumed(result) && result.hasPrediction()
+                && result.durationMs() - result.predictedDurationMs() >= MIN_REGRESSION_MS
+                && slowdownPercent(result) > regressionThresholdPercent;
+    }
+
+    private long slowdownPercent(BuildResult result) {
+        long predicted = Math.max(1, result.predictedDurationMs());
+        return (result.durationMs() - predicted) * 100 / predicted;
+    }
+
+    private record ReportSummary(List<BuildResult> successful, List<BuildResult> failed,
+                                 List<BuildResult> regressions, Map<BuildStatus, Integer> statusCounts) {
+
+        int count(BuildStatus status) {
+            return statusCounts.getOrDefault(status, 0);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.github.jreddondo.service;
+
+import com.github.jreddondo.model.BuildResult;
+import com.github.jreddondo.model.BuildStatus;
+import com.github.jreddondo.model.FailureCategory;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Which failed builds are built again, and how long to wait before: the delay doubles after every retry, so that
+ * an overloaded repository or a memory-starved machine has time to recover.
+ *
+ * @param maxRetries     number of times a build is retried at most
+ * @param categories     failure categories retried
+ * @param initialBackoff delay before the first retry
+ */
+public record RetryPolicy(int maxRetries, Set<FailureCategory> categories, Duration initialBackoff) {
+    public static final Duration DEFAULT_BACKOFF = Duration.ofSeconds(10);
+    private static final Duration MAX_BACKOFF = Duration.ofMinutes(5);
+
+    public RetryPolicy {
+        categories = categories.isEmpty() ? EnumSet.noneOf(FailureCategory.class) : EnumSet.copyOf(categories);
+    }
+
+    /**
+     * Returns the categories retried by default: the transient ones.
+     */
+    public static Set<FailureCategory> transientCategories() {
+        EnumSet<FailureCategory> categories = EnumSet.noneOf(FailureCategory.class);
+        Arrays.stream(FailureCategory.values()).filter(FailureCategory::isTransient).forEach(categories::add);
+        return categories;
+    }
+
+    /**
+     * Whether the project of the result, built {@link BuildResult#attempts()} times, is built again.
+     */
+    public boolean shouldRetry(BuildResult result) {
+        return result.status() == BuildStatus.FAILED && result.failureCategory() != null
+                && categories.contains(result.failureCategory()) && result.attempts() <= maxRetries;
+    }
+
+    /**
+     * Returns the delay before the given retry, starting at 1.
+     */
+    public Duration backoff(int retry) {
+        Duration backoff = initialBackoff.multipliedBy(1L << Math.min(retry - 1, 20));
+        return backoff.compareTo(MAX_BACKOFF) > 0 ? MAX_BACKOFF : backoff;
+    }
+}
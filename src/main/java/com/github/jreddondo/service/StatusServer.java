@@ -0,0 +1,64 @@
+package com.github.jreddondo.service;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Serves the progress of the runs on a local HTTP port: as text on {@code /}, and as JSON on {@code /status}.
+ * Only the loopback interface is bound.
+ */
+public class StatusServer implements Closeable {
+    private static final Logger logger = LoggerFactory.getLogger(StatusServer.class);
+
+    private final ProgressDashboard dashboard;
+    private final HttpServer server;
+
+    public StatusServer(ProgressDashboard dashboard, int port) throws IOException {
+        this.dashboard = dashboard;
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.createContext("/status", exchange -> respond(exchange, "application/json",
+                dashboard.progress().toJson() + "\n"));
+        server.createContext("/", exchange -> respond(exchange, "text/plain", text()));
+    }
+
+    public void start() {
+        server.start();
+        logger.info("Build progress served on http://localhost:{}/ (JSON on /status)", server.getAddress().getPort());
+    }
+
+    private String text() {
+        ProgressDashboard.Progress progress = dashboard.progress();
+        StringBuilder text = new StringBuilder("Progress: ").append(progress.summary()).append('\n');
+        progress.running().forEach(project -> text.append("  ").append(project).append('\n'));
+        return text.toString();
+    }
+
+    private static void respond(HttpExchange exchange, String contentType, String body) throws IOException {
+        try (exchange) {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", contentType + "; charset=utf-8");
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream output = exchange.getResponseBody()) {
+                output.write(bytes);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
@@ -0,0 +1,80 @@
+package com.github.jreddondo.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Messages exchanged between the coordinator and its workers: UTF-8 lines of tab-separated fields.
+ * <p>
+ * A worker connection serves one build at a time. The worker sends {@value #HELLO} with its name and the worker
+ * token, which the coordinator answers {@value #DENIED} when wrong, then {@value #READY} whenever it can take a
+ * build; the coordinator answers {@value #BUILD} with the build id, project type and project path relative to the
+ * root, or {@value #DONE} when the run is over. While building, the worker sends {@value #HEARTBEAT} periodically,
+ * then {@value #RESULT} with the build id, status, duration in milliseconds, error message, output file and failure
+ * category. The coordinator may send {@value #CANCEL} with the build id meanwhile, to have the build killed; a result
+ * is still sent.
+ */
+final class WorkerProtocol {
+    static final String HELLO = "HELLO";
+    static final String READY = "READY";
+    static final String BUILD = "BUILD";
+    static final String HEARTBEAT = "HEARTBEAT";
+    static final String RESULT = "RESULT";
+    static final String CANCEL = "CANCEL";
+    static final String DONE = "DONE";
+    static final String DENIED = "DENIED";
+
+    private WorkerProtocol() {
+    }
+
+    /**
+     * Joins the fields into one line, escaping tabs, line breaks and backslashes. Null fields are sent empty.
+     */
+    static String encode(String... fields) {
+        StringBuilder line = new StringBuilder();
+        for (int i = 0; i < fields.length; i++) {
+            if (i > 0) {
+                line.append('\t');
+            }
+            String field = fields[i] != null ? fields[i] : "";
+            for (int j = 0; j < field.length(); j++) {
+                char c = field.charAt(j);
+                switch (c) {
+                    case '\\' -> line.append("\\\\");
+                    case '\t' -> line.append("\\t");
+                    case '\n' -> line.append("\\n");
+                    case '\r' -> line.append("\\r");
+                    default -> line.append(c);
+                }
+            }
+        }
+        return line.toString();
+    }
+
+    /**
+     * Splits a line into its fields, empty fields being returned as null.
+     */
+    static List<String> decode(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '\t') {
+                fields.add(field.isEmpty() ? null : field.toString());
+                field.setLength(0);
+            } else if (c == '\\' && i + 1 < line.length()) {
+                char escaped = line.charAt(++i);
+                field.append(switch (escaped) {
+                    case 't' -> '\t';
+                    case 'n' -> '\n';
+                    case 'r' -> '\r';
+                    default -> escaped;
+                });
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.isEmpty() ? null : field.toString());
+        return fields;
+    }
+}
@@ -0,0 +1,53 @@
+package com.github.jreddondo.util;
+
+import picocli.CommandLine;
+
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * Converts command line durations such as "90s", "30m", "2h" or "500ms" into {@link Duration}s.
+ * A number without unit is a number of seconds.
+ */
+public class DurationConverter implements CommandLine.ITypeConverter<Duration> {
+
+    @Override
+    public Duration convert(String value) {
+        String text = value.trim().toLowerCase(Locale.ROOT);
+        try {
+            if (text.endsWith("ms")) {
+                return Duration.ofMillis(Long.parseLong(text.substring(0, text.length() - 2)));
+            }
+            if (text.endsWith("s")) {
+                return Duration.ofSeconds(Long.parseLong(text.substring(0, text.length() - 1)));
+            }
+            if (text.endsWith("m")) {
+                return Duration.ofMinutes(Long.parseLong(text.substring(0, text.length() - 1)));
+            }
+            if (text.endsWith("h")) {
+                return Duration.ofHours(Long.parseLong(text.substring(0, text.length() - 1)));
+            }
+            return Duration.ofSeconds(Long.parseLong(text));
+        } catch (NumberFormatException e) {
+            throw new CommandLine.TypeConversionException(
+                    "Invalid duration '" + value + "', expected a number followed by ms, s, m or h");
+        }
+    }
+
+    /**
+     * Formats a duration the way it is accepted on the command line, e.g. "30m" or "90s".
+     */
+    public static String format(Duration duration) {
+        if (duration.toMillis() % 1000 != 0) {
+            return duration.toMillis() + "ms";
+        }
+        long seconds = duration.toSeconds();
+        if (seconds % 3600 == 0) {
+            return seconds / 3600 + "h";
+        }
+        if (seconds % 60 == 0) {
+            return seconds / 60 + "m";
+        }
+        return seconds + "s";
+    }
+}
@@ -0,0 +1,45 @@
+package com.github.jreddondo.util;
+
+import picocli.CommandLine;
+
+import java.util.Locale;
+
+/**
+ * Converts command line memory sizes such as "512m", "2g" or "2048k" into bytes.
+ * A number without unit is a number of megabytes.
+ */
+public class MemorySizeConverter implements CommandLine.ITypeConverter<Long> {
+    private static final long KILOBYTE = 1024;
+    private static final long MEGABYTE = 1024 * KILOBYTE;
+    private static final long GIGABYTE = 1024 * MEGABYTE;
+
+    @Override
+    public Long convert(String value) {
+        String text = value.trim().toLowerCase(Locale.ROOT);
+        if (text.endsWith("b")) {
+            text = text.substring(0, text.length() - 1);
+        }
+        try {
+            if (text.endsWith("k")) {
+                return Long.parseLong(text.substring(0, text.length() - 1)) * KILOBYTE;
+            }
+            if (text.endsWith("m")) {
+                return Long.parseLong(text.substring(0, text.length() - 1)) * MEGABYTE;
+            }
+            if (text.endsWith("g")) {
+                return Long.parseLong(text.substring(0, text.length() - 1)) * GIGABYTE;
+            }
+            return Long.parseLong(text) * MEGABYTE;
+        } catch (NumberFormatException e) {
+            throw new CommandLine.TypeConversionException(
+                    "Invalid memory size '" + value + "', expected a number followed by k, m or g");
+        }
+    }
+
+    /**
+     * Formats a size in megabytes the way the JVM accepts it, e.g. "512m" for -Xmx.
+     */
+    public static String format(long bytes) {
+        return Math.max(1, bytes / MEGABYTE) + "m";
+    }
+}
@@ -0,0 +1,64 @@
+package com.github.jreddondo.util;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Utility class for querying the resources available on the current machine.
+ */
+public final class SystemResources {
+
+    private static final Path MEMINFO = Path.of("/proc/meminfo");
+    private static final String MEM_AVAILABLE = "MemAvailable:";
+
+    private SystemResources() {
+        // Utility class, prevent instantiation
+    }
+
+    /**
+     * Returns the number of processors available to the JVM.
+     */
+    public static int availableProcessors() {
+        return Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Returns the physical memory that can be given to new processes, in bytes.
+     * On Linux this is MemAvailable (free memory plus reclaimable caches),
+     * elsewhere the free physical memory reported by the operating system.
+     */
+    public static long availableMemoryBytes() {
+        long fromMeminfo = readMemAvailable();
+        if (fromMeminfo > 0) {
+            return fromMeminfo;
+        }
+        OperatingSystemMXBean osBean = ManagementFactory.getOperatingSystemMXBean();
+        if (osBean instanceof com.sun.management.OperatingSystemMXBean sunOsBean) {
+            return sunOsBean.getFreeMemorySize();
+        }
+        return Runtime.getRuntime().maxMemory();
+    }
+
+    private static long readMemAvailable() {
+        if (!Files.isReadable(MEMINFO)) {
+            return -1;
+        }
+        try {
+            List<String> lines = Files.readAllLines(MEMINFO);
+            for (String line : lines) {
+                if (line.startsWith(MEM_AVAILABLE)) {
+                    // Format: "MemAvailable:   12345678 kB"
+                    String value = line.substring(MEM_AVAILABLE.length()).trim().split("\\s+")[0];
+                    return Long.parseLong(value) * 1024;
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            return -1;
+        }
+        return -1;
+    }
+}
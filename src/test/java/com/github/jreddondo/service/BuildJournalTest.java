@@ -0,0 +1,71 @@
+package com.github.jreddondo.service;
+
+import com.github.jreddondo.model.BuildResult;
+import com.github.jreddondo.model.BuildStatus;
+import com.github.jreddondo.model.FailureCategory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Results written by a run and read back when the next run resumes it.
+ */
+class BuildJournalTest {
+    @TempDir
+    Path root;
+
+    @Test
+    void readsBackTheFieldsOfTheResults() throws IOException {
+        List<BuildResult> results = List.of(
+                result("plain", null, null),
+                result("empty", "", ""),
+                result("tab\tand\\t", "C:\\logs\\tab\tand\\t.log", "line\\n\nnext\r\n"),
+                new BuildResult("retried", root.resolve("retried").toString(), BuildStatus.UP_TO_DATE, "GRADLE", 0,
+                        null, null, BuildResult.NO_PREDICTION, null, FailureCategory.NETWORK, 3));
+        try (BuildJournal journal = BuildJournal.create(root.toFile())) {
+            results.forEach(journal::onResult);
+        }
+
+        try (BuildJournal journal = BuildJournal.resume(root.toFile())) {
+            assertEquals(List.copyOf(results), List.copyOf(journal.successfulResults().values()));
+        }
+    }
+
+    @Test
+    void keepsTheEarlierResultsAfterALineCutShort() throws IOException {
+        BuildResult built = result("built", "built.log", null);
+        BuildResult failed = new BuildResult("failed", root.resolve("failed").toString(), BuildStatus.FAILED, "MAVEN",
+                20, "Build failed with exit code 1", "failed.log", BuildResult.NO_PREDICTION, null,
+                FailureCategory.COMPILATION, 1);
+        try (BuildJournal journal = BuildJournal.create(root.toFile())) {
+            journal.onResult(built);
+            journal.onResult(failed);
+        }
+        // The process was killed while writing the next result
+        Path journalFile = BuildStateStore.stateDirectory(root.toFile()).resolve("build-journal.tsv");
+        Files.writeString(journalFile, "SUCCESS\t=" + root.resolve("killed") + "\t=killed\tMAV",
+                StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+        try (BuildJournal journal = BuildJournal.resume(root.toFile())) {
+            assertEquals(Map.of(built.projectPath(), built), journal.successfulResults());
+        }
+        try (BuildJournal journal = BuildJournal.resume(root.toFile())) {
+            // Compacted by the previous resume, the cut line is gone
+            assertEquals(Map.of(built.projectPath(), built), journal.successfulResults());
+        }
+    }
+
+    private BuildResult result(String name, String outputLog, String errorMessage) {
+        return new BuildResult(name, root.resolve(name).toString(), BuildStatus.SUCCESS, "MAVEN", 1234, errorMessage,
+                outputLog);
+    }
+}
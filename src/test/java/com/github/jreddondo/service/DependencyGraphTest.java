@@ -0,0 +1,85 @@
+package com.github.jreddondo.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Dependencies and build waves of small Maven and Gradle projects, read from their build files.
+ */
+class DependencyGraphTest {
+    @TempDir
+    Path root;
+
+    private final List<ProjectDetector.ProjectInfo> projects = new ArrayList<>();
+
+    @Test
+    void ordersProjectsInWavesAfterTheirDependencies() throws IOException {
+        maven("app", "lib");
+        maven("core");
+        maven("lib", "core");
+        maven("util");
+
+        DependencyGraph graph = DependencyGraph.build(projects);
+
+        assertEquals(List.of(2), graph.getDependencies(0));
+        assertEquals(List.of(1), graph.getDependencies(2));
+        assertEquals(List.of(List.of(1, 3), List.of(2), List.of(0)), graph.getWaves());
+    }
+
+    @Test
+    void buildsCyclicProjectsAndTheirDependentsInALastWave() throws IOException {
+        maven("a", "b");
+        maven("b", "a");
+        maven("c");
+        maven("d", "a");
+
+        DependencyGraph graph = DependencyGraph.build(projects);
+
+        assertEquals(List.of(List.of(2), List.of(0, 1, 3)), graph.getWaves());
+    }
+
+    @Test
+    void resolvesDependenciesOnGradleProjectsWithoutGroup() throws IOException {
+        maven("app", "tools");
+        Path tools = Files.createDirectory(root.resolve("tools-build"));
+        Files.writeString(tools.resolve("settings.gradle"), "rootProject.name = 'tools'\n");
+        Files.writeString(tools.resolve("build.gradle"), "plugins {\n    id 'java-library'\n}\n");
+        projects.add(new ProjectDetector.ProjectInfo(tools.toFile(), ProjectDetector.ProjectType.GRADLE));
+
+        DependencyGraph graph = DependencyGraph.build(projects);
+
+        assertEquals(List.of(1), graph.getDependencies(0));
+        assertEquals(List.of(List.of(1), List.of(0)), graph.getWaves());
+    }
+
+    /**
+     * Adds a Maven project of the org.example group depending on the given projects of the same group.
+     */
+    private void maven(String artifactId, String... dependencies) throws IOException {
+        StringBuilder pom = new StringBuilder("<project xmlns=\"http://maven.apache.org/POM/4.0.0\">\n")
+                .append("  <modelVersion>4.0.0</modelVersion>\n")
+                .append("  <groupId>org.example</groupId>\n")
+                .append("  <artifactId>").append(artifactId).append("</artifactId>\n")
+                .append("  <version>1.0</version>\n")
+                .append("  <dependencies>\n");
+        for (String dependency : dependencies) {
+            pom.append("    <dependency>\n")
+                    .append("      <groupId>org.example</groupId>\n")
+                    .append("      <artifactId>").append(dependency).append("</artifactId>\n")
+                    .append("      <version>1.0</version>\n")
+                    .append("    </dependency>\n");
+        }
+        pom.append("  </dependencies>\n</project>\n");
+        Path dir = Files.createDirectory(root.resolve(artifactId));
+        Files.writeString(dir.resolve("pom.xml"), pom);
+        projects.add(new ProjectDetector.ProjectInfo(dir.toFile(), ProjectDetector.ProjectType.MAVEN));
+    }
+}
@@ -0,0 +1,106 @@
+package com.github.jreddondo.service;
+
+import com.github.jreddondo.model.FailureCategory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Categories recognized from the end of Maven and Gradle outputs.
+ */
+class FailureClassifierTest {
+    private final FailureClassifier classifier = new FailureClassifier();
+
+    @TempDir
+    Path root;
+
+    static Stream<Arguments> failures() {
+        return Stream.of(
+                Arguments.of("""
+                        [ERROR] COMPILATION ERROR :
+                        [ERROR] /work/app/src/main/java/App.java:[12,5] cannot find symbol
+                        [ERROR] Failed to execute goal org.apache.maven.plugins:maven-compiler-plugin:3.13.0:compile \
+                        (default-compile) on project app: Compilation failure
+                        """, FailureCategory.COMPILATION, "COMPILATION ERROR :"),
+                Arguments.of("""
+                        * What went wrong:
+                        Execution failed for task ':app:compileJava'.
+                        > Compilation failed; see the compiler error output for details.
+                        """, FailureCategory.COMPILATION, "Execution failed for task ':app:compileJava'."),
+                Arguments.of("""
+                        [ERROR] Failed to execute goal on project app: Could not resolve dependencies for project \
+                        org.example:app:jar:1.0: Could not transfer artifact org.example:lib:jar:1.0 from/to central: \
+                        Connection reset
+                        """, FailureCategory.NETWORK, "Failed to execute goal on project app: Could not resolve "
+                        + "dependencies for project org.example:app:jar:1.0: Could not transfer artifact "
+                        + "org.example:lib:jar:1.0 from/to central: Connection reset"),
+                Arguments.of("""
+                        * What went wrong:
+                        Timeout waiting to lock journal cache (/home/user/.gradle/caches/journal-1). It is currently \
+                        in use by another Gradle instance.
+                        """, FailureCategory.LOCKED_FILE, "Timeout waiting to lock journal cache "
+                        + "(/home/user/.gradle/caches/journal-1). It is currently in use by another Gradle instance."),
+                Arguments.of("""
+                        [ERROR] Failed to execute goal on project app: Could not find artifact \
+                        org.example:missing:jar:1.0 in central (https://repo.maven.apache.org/maven2)
+                        """, FailureCategory.DEPENDENCY, "Failed to execute goal on project app: Could not find "
+                        + "artifact org.example:missing:jar:1.0 in central (https://repo.maven.apache.org/maven2)"),
+                Arguments.of("""
+                        [ERROR] Tests run: 3, Failures: 1, Errors: 0, Skipped: 0
+                        [ERROR] Failed to execute goal org.apache.maven.plugins:maven-surefire-plugin:3.2.5:test \
+                        (default-test) on project app: There are test failures.
+                        """, FailureCategory.TEST, "Tests run: 3, Failures: 1, Errors: 0, Skipped: 0"),
+                Arguments.of("""
+                        > Task :app:test FAILED
+                        3 tests completed, 1 failed
+                        Execution failed for task ':app:test'.
+                        """, FailureCategory.TEST, "3 tests completed, 1 failed"),
+                Arguments.of("""
+                        [ERROR] Tests run: 12, Failures: 0, Errors: 2, Skipped: 0
+                        Exception in thread "main" java.lang.OutOfMemoryError: Java heap space
+                        """, FailureCategory.OUT_OF_MEMORY,
+                        "Exception in thread \"main\" java.lang.OutOfMemoryError: Java heap space"),
+                Arguments.of("""
+                        [WARNING] Could not transfer metadata org.example:lib:1.0-SNAPSHOT/maven-metadata.xml
+                        [INFO] Tests run: 5, Failures: 0, Errors: 0, Skipped: 0
+                        [ERROR] BUILD FAILURE
+                        """, FailureCategory.UNKNOWN, null));
+    }
+
+    @ParameterizedTest
+    @MethodSource("failures")
+    void classifiesFailures(String output, FailureCategory category, String evidence) {
+        FailureClassifier.Failure failure = classifier.classify(output);
+        assertEquals(category, failure.category());
+        assertEquals(evidence, failure.evidence());
+    }
+
+    @Test
+    void prefersTheEarliestCategoryWithinTheTail() throws IOException {
+        // The out of memory error is beyond the 64 KB tail, the compilation error wins over the later test failure
+        String stackLine = "[ERROR] at org.example.Filler.run(Filler.java)\n";
+        Path output = Files.writeString(root.resolve("app.log"), "java.lang.OutOfMemoryError: Java heap space\n"
+                + stackLine.repeat(2000) + "[ERROR] COMPILATION ERROR :\n" + stackLine.repeat(20)
+                + "[ERROR] There are test failures.\n");
+
+        FailureClassifier.Failure failure = classifier.classify(output);
+
+        assertEquals(FailureCategory.COMPILATION, failure.category());
+        assertEquals("COMPILATION ERROR :", failure.evidence());
+    }
+
+    @Test
+    void classifiesMissingOutputAsUnknown() {
+        assertEquals(new FailureClassifier.Failure(FailureCategory.UNKNOWN, null), classifier.classify((Path) null));
+        assertEquals(FailureCategory.UNKNOWN, classifier.classify(root.resolve("missing.log")).category());
+    }
+}
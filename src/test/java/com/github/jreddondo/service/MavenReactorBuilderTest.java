@@ -0,0 +1,173 @@
+package com.github.jreddondo.service;
+
+import com.github.jreddondo.model.BuildResult;
+import com.github.jreddondo.model.BuildStatus;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Mapping of the Reactor Summary back to the projects of the reactor. The reactor build is replaced by a builder
+ * writing a prepared output, so no Maven runs.
+ */
+class MavenReactorBuilderTest {
+    private static final long REACTOR_DURATION_MS = 42_000;
+    private static final String SUMMARY_HEADER = """
+            [INFO] ------------------------------------------------------------------------
+            [INFO] Reactor Summary for maven-reactor 0:
+            [INFO]
+            [INFO] maven-reactor 0 .................................... SUCCESS [  0.012 s]
+            """;
+
+    @TempDir
+    Path root;
+
+    @Test
+    void parsesReactorSummaryDurations() {
+        Map<String, Long> durations = new LinkedHashMap<>();
+        durations.put("1.234 s", 1234L);
+        durations.put("0,5 s", 500L);
+        durations.put("01:02 min", 62_000L);
+        durations.put("02:30 h", 9_000_000L);
+        durations.put("1.5", -1L);
+        durations.put("01:02 days", -1L);
+        durations.put("x s", -1L);
+        durations.put("01 min", -1L);
+        durations.forEach((duration, expected) ->
+                assertEquals(expected, MavenReactorBuilder.parseDuration(duration), duration));
+        assertEquals(-1, MavenReactorBuilder.parseDuration(null));
+    }
+
+    @Test
+    void mapsSummaryEntriesByNameOrArtifactId() throws IOException {
+        pom("app", "app", "Application");
+        pom("lib", "lib", null);
+
+        Map<String, BuildResult> results = build(BuildStatus.FAILED, SUMMARY_HEADER + """
+                [INFO] Application 1.0 .................................... SUCCESS [01:02 min]
+                [INFO] lib 1.0 ............................................ FAILURE [  3.5 s]
+                """);
+
+        assertEquals(BuildStatus.SUCCESS, results.get("app").status());
+        assertEquals(62_000, results.get("app").durationMs());
+        assertEquals(BuildStatus.FAILED, results.get("lib").status());
+        assertEquals(3_500, results.get("lib").durationMs());
+    }
+
+    @Test
+    void leavesAmbiguousLabelsUnmapped() throws IOException {
+        pom("first", "first", "Common");
+        pom("second", "second", "Common");
+
+        // Both projects print the same label, which cannot tell them apart: they take the result of the reactor
+        Map<String, BuildResult> results = build(BuildStatus.SUCCESS, SUMMARY_HEADER + """
+                [INFO] Common 1.0 ......................................... SUCCESS [  7.000 s]
+                [INFO] Common 1.0 ......................................... SUCCESS [  9.000 s]
+                """);
+
+        for (String project : List.of("first", "second")) {
+            assertEquals(BuildStatus.SUCCESS, results.get(project).status());
+            assertEquals(REACTOR_DURATION_MS, results.get(project).durationMs());
+        }
+    }
+
+    @Test
+    void failsMultiModuleProjectWhoseModuleFailed() throws IOException {
+        pom("multi", "multi", null, "m1", "m2");
+        pom("multi/m1", "m1", null);
+        pom("multi/m2", "m2", null);
+        pom("app", "app", null);
+
+        Map<String, BuildResult> results = build(BuildStatus.FAILED, SUMMARY_HEADER + """
+                [INFO] multi 1.0 .......................................... SUCCESS [  0.100 s]
+                [INFO] m1 1.0 ............................................. SUCCESS [  1.000 s]
+                [INFO] m2 1.0 ............................................. FAILURE [  2.000 s]
+                [INFO] app 1.0 ............................................ SUCCESS [  4.000 s]
+                """);
+
+        assertEquals(BuildStatus.FAILED, results.get("multi").status());
+        assertEquals("Module m2 1.0 failed in the Maven reactor", results.get("multi").errorMessage());
+        assertEquals(BuildStatus.SUCCESS, results.get("app").status());
+    }
+
+    @Test
+    void usesTheReactorResultWhenTheSummaryIsMissing() throws IOException {
+        pom("app", "app", null);
+        pom("lib", "lib", null);
+
+        Map<String, BuildResult> results = build(BuildStatus.FAILED, """
+                [INFO] Scanning for projects...
+                [ERROR] Non-resolvable parent POM for org.example:lib:1.0
+                """);
+
+        for (String project : List.of("app", "lib")) {
+            assertEquals(BuildStatus.FAILED, results.get(project).status());
+            assertEquals("Maven reactor build: Build failed with exit code 1", results.get(project).errorMessage());
+        }
+    }
+
+    /**
+     * Builds the detected projects in a reactor whose build prints the given output, returning the results by name.
+     */
+    private Map<String, BuildResult> build(BuildStatus reactorStatus, String output) throws IOException {
+        List<ProjectDetector.ProjectInfo> projects = new ArrayList<>();
+        try (var dirs = Files.list(root)) {
+            dirs.filter(dir -> Files.isRegularFile(dir.resolve("pom.xml")))
+                    .sorted()
+                    .forEach(dir -> projects.add(new ProjectDetector.ProjectInfo(dir.toFile(),
+                            ProjectDetector.ProjectType.MAVEN)));
+        }
+        DependencyGraph graph = DependencyGraph.build(projects);
+        Path outputLog = Files.writeString(root.resolve("reactor.log"), output);
+        ProjectBuilder reactorBuild = new ProjectBuilder() {
+            @Override
+            public BuildResult buildProject(ProjectDetector.ProjectInfo projectInfo, List<String> additionalArguments,
+                                            List<String> goals) {
+                String errorMessage = reactorStatus.isSuccessful() ? null : "Build failed with exit code 1";
+                return new BuildResult(projectInfo.getName(), projectInfo.projectDir().getAbsolutePath(),
+                        reactorStatus, projectInfo.type().name(), REACTOR_DURATION_MS, errorMessage,
+                        outputLog.toString());
+            }
+        };
+        MavenReactorBuilder reactor = new MavenReactorBuilder(reactorBuild, BuildConfiguration.defaults(),
+                root.resolve(".multiple-builder"), 2);
+
+        List<Integer> indexes = new ArrayList<>(reactor.selectProjects(graph));
+        Map<String, BuildResult> results = new LinkedHashMap<>();
+        for (BuildResult result : reactor.buildAll(graph, indexes)) {
+            results.put(result.projectName(), result);
+        }
+        return results;
+    }
+
+    private void pom(String path, String artifactId, String name, String... modules) throws IOException {
+        StringBuilder pom = new StringBuilder("<project xmlns=\"http://maven.apache.org/POM/4.0.0\">\n")
+                .append("  <modelVersion>4.0.0</modelVersion>\n")
+                .append("  <groupId>org.example</groupId>\n")
+                .append("  <artifactId>").append(artifactId).append("</artifactId>\n")
+                .append("  <version>1.0</version>\n");
+        if (name != null) {
+            pom.append("  <name>").append(name).append("</name>\n");
+        }
+        if (modules.length > 0) {
+            pom.append("  <packaging>pom</packaging>\n  <modules>\n");
+            for (String module : modules) {
+                pom.append("    <module>").append(module).append("</module>\n");
+            }
+            pom.append("  </modules>\n");
+        }
+        pom.append("</project>\n");
+        Path dir = Files.createDirectories(root.resolve(path.replace('/', File.separatorChar)));
+        Files.writeString(dir.resolve("pom.xml"), pom);
+    }
+}
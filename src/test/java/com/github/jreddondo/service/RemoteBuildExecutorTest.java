@@ -0,0 +1,142 @@
+package com.github.jreddondo.service;
+
+import com.github.jreddondo.model.BuildResult;
+import com.github.jreddondo.model.BuildStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+
+/**
+ * Coordinator and workers on the loopback interface. The lost worker speaks the protocol over a raw socket, so that
+ * it can disconnect in the middle of a build; the other one is a {@link BuildWorker} building a project whose Maven
+ * wrapper only prints a line, which needs a Unix shell.
+ */
+class RemoteBuildExecutorTest {
+    private static final String TOKEN = "test-token";
+    private static final long TIMEOUT_SECONDS = 30;
+
+    @TempDir
+    Path root;
+
+    private ProjectDetector.ProjectInfo project;
+    private RemoteBuildExecutor coordinator;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        Path projectDir = Files.createDirectory(root.resolve("app"));
+        Files.writeString(projectDir.resolve("pom.xml"), "<project/>");
+        Path wrapper = projectDir.resolve("mvnw");
+        Files.writeString(wrapper, "#!/bin/sh\necho built\n");
+        if (wrapper.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+            Files.setPosixFilePermissions(wrapper, PosixFilePermissions.fromString("rwxr-xr-x"));
+        }
+        project = new ProjectDetector.ProjectInfo(projectDir.toFile(), ProjectDetector.ProjectType.MAVEN);
+        coordinator = new RemoteBuildExecutor(root, InetAddress.getLoopbackAddress(), 0, TOKEN);
+        coordinator.start();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        coordinator.close();
+    }
+
+    @Test
+    void requeuesTheBuildOfALostWorkerForAnotherWorker() throws Exception {
+        assumeFalse(System.getProperty("os.name").toLowerCase().contains("win"), "The project wrapper needs a Unix shell");
+        CompletableFuture<BuildResult> result = CompletableFuture.supplyAsync(() -> coordinator.buildProject(project));
+
+        try (FakeWorker lostWorker = new FakeWorker(coordinator.getPort(), "lost-worker", TOKEN)) {
+            lostWorker.send(WorkerProtocol.READY);
+            List<String> build = WorkerProtocol.decode(lostWorker.receive());
+            assertEquals(List.of(WorkerProtocol.BUILD, "1", "MAVEN", "app"), build);
+            lostWorker.send(WorkerProtocol.HEARTBEAT);
+        }
+
+        BuildWorker worker = new BuildWorker("localhost", coordinator.getPort(), root, TOKEN, new ProjectBuilder());
+        CompletableFuture<Integer> workerExit = CompletableFuture.supplyAsync(() -> worker.run(1));
+        BuildResult built = result.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        assertEquals(BuildStatus.SUCCESS, built.status(), built.errorMessage());
+
+        coordinator.close();
+        assertEquals(0, workerExit.get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void failsTheBuildAfterLosingItsWorkerThreeTimes() throws Exception {
+        CompletableFuture<BuildResult> result = CompletableFuture.supplyAsync(() -> coordinator.buildProject(project));
+
+        for (int attempt = 1; attempt <= 3; attempt++) {
+            try (FakeWorker lostWorker = new FakeWorker(coordinator.getPort(), "lost-worker-" + attempt, TOKEN)) {
+                lostWorker.send(WorkerProtocol.READY);
+                assertEquals(WorkerProtocol.BUILD, WorkerProtocol.decode(lostWorker.receive()).get(0));
+                lostWorker.send(WorkerProtocol.HEARTBEAT);
+            }
+        }
+
+        BuildResult failed = result.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        assertEquals(BuildStatus.FAILED, failed.status());
+        assertTrue(failed.errorMessage().startsWith("Lost the worker building the project 3 times"),
+                failed.errorMessage());
+    }
+
+    @Test
+    void rejectsWorkersWithAnotherToken() throws Exception {
+        try (FakeWorker worker = new FakeWorker(coordinator.getPort(), "intruder", "wrong-token")) {
+            worker.send(WorkerProtocol.READY);
+            assertEquals(WorkerProtocol.DENIED, worker.receive());
+        }
+
+        BuildWorker worker = new BuildWorker("localhost", coordinator.getPort(), root, "wrong-token",
+                new ProjectBuilder());
+        assertEquals(1, CompletableFuture.supplyAsync(() -> worker.run(2)).get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+    }
+
+    /**
+     * Worker connection driven by the test, sending HELLO once connected.
+     */
+    private static final class FakeWorker implements AutoCloseable {
+        private final Socket socket;
+        private final BufferedReader reader;
+        private final PrintWriter writer;
+
+        FakeWorker(int port, String name, String token) throws IOException {
+            socket = new Socket(InetAddress.getLoopbackAddress(), port);
+            socket.setSoTimeout((int) TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS));
+            reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            writer = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.UTF_8);
+            send(WorkerProtocol.encode(WorkerProtocol.HELLO, name, token));
+        }
+
+        void send(String line) {
+            writer.println(line);
+        }
+
+        String receive() throws IOException {
+            return reader.readLine();
+        }
+
+        @Override
+        public void close() throws IOException {
+            socket.close();
+        }
+    }
+}
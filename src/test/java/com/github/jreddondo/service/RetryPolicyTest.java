@@ -0,0 +1,46 @@
+package com.github.jreddondo.service;
+
+import com.github.jreddondo.model.BuildResult;
+import com.github.jreddondo.model.BuildStatus;
+import com.github.jreddondo.model.FailureCategory;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.time.Duration;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Retried failures and the delays before the retries.
+ */
+class RetryPolicyTest {
+    private final RetryPolicy policy = new RetryPolicy(2, RetryPolicy.transientCategories(), Duration.ofSeconds(10));
+
+    @ParameterizedTest
+    @CsvSource({"1, 10", "2, 20", "3, 40", "5, 160", "6, 300", "64, 300"})
+    void doublesTheBackoffUpToFiveMinutes(int retry, long seconds) {
+        assertEquals(Duration.ofSeconds(seconds), policy.backoff(retry));
+    }
+
+    static Stream<Arguments> results() {
+        return Stream.of(
+                Arguments.of(BuildStatus.FAILED, FailureCategory.NETWORK, 1, true),
+                Arguments.of(BuildStatus.FAILED, FailureCategory.OUT_OF_MEMORY, 2, true),
+                Arguments.of(BuildStatus.FAILED, FailureCategory.LOCKED_FILE, 3, false),
+                Arguments.of(BuildStatus.FAILED, FailureCategory.COMPILATION, 1, false),
+                Arguments.of(BuildStatus.FAILED, null, 1, false),
+                Arguments.of(BuildStatus.TIMED_OUT, FailureCategory.NETWORK, 1, false));
+    }
+
+    @ParameterizedTest
+    @MethodSource("results")
+    void retriesTransientFailuresUpToTheMaximum(BuildStatus status, FailureCategory category, int attempts,
+                                                boolean retried) {
+        BuildResult result = new BuildResult("app", "/work/app", status, "MAVEN", 1000, "Build failed", null,
+                BuildResult.NO_PREDICTION, null, category, attempts);
+        assertEquals(retried, policy.shouldRetry(result));
+    }
+}